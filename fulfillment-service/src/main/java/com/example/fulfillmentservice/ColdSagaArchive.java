@@ -0,0 +1,346 @@
+package com.example.fulfillmentservice;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.xerial.snappy.Snappy;
+
+import com.example.fulfillmentservice.model.FulfillmentEvent;
+
+/**
+ * Cold tier for terminal sagas: immutable, Snappy-compressed segment files.
+ *
+ * A segment is a run of compressed blocks (sagas sorted by orderId) followed by a footer holding a
+ * sparse index (first orderId of each block) and a bloom filter of the segment's orderIds. Footers are
+ * kept on heap, so a lookup reads and decompresses at most one block per segment, and only for the ~1%
+ * of segments whose filter gives a false positive when the order is not archived there. This keeps the
+ * duplicate check on order intake off the disk for new orders, whatever the id distribution.
+ */
+@Component
+@ConditionalOnProperty(name = "fulfillment.archive.enabled", havingValue = "true")
+public class ColdSagaArchive {
+
+    private static final int MAGIC = 0x53414741; // "SAGA"
+    private static final int FOOTER_TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+
+    private final File directory;
+    private final int sagasPerBlock;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final AtomicLong segmentSeq = new AtomicLong();
+    private final AtomicLong blockReads = new AtomicLong();
+
+    public ColdSagaArchive(@Value("${fulfillment.archive.dir:fulfillment-service/archive}") String directory,
+                           @Value("${fulfillment.archive.sagas-per-block:64}") int sagasPerBlock) {
+        if (sagasPerBlock <= 0) throw new IllegalArgumentException("fulfillment.archive.sagas-per-block must be positive");
+        this.directory = new File(directory);
+        this.sagasPerBlock = sagasPerBlock;
+        this.directory.mkdirs();
+        File[] files = this.directory.listFiles((d, name) -> name.endsWith(".cold"));
+        if (files != null) {
+            Arrays.sort(files);
+            for (File f : files) segments.add(Segment.open(f, blockReads));
+        }
+        segmentSeq.set(segments.size());
+    }
+
+    /** One archived saga as stored inside a block. */
+    public static class ArchivedSaga {
+        private String orderId;
+        private List<FulfillmentEvent> events;
+
+        public ArchivedSaga() {}
+        public ArchivedSaga(String orderId, List<FulfillmentEvent> events) {
+            this.orderId = orderId;
+            this.events = events;
+        }
+
+        public String getOrderId() { return orderId; }
+        public void setOrderId(String orderId) { this.orderId = orderId; }
+        public List<FulfillmentEvent> getEvents() { return events; }
+        public void setEvents(List<FulfillmentEvent> events) { this.events = events; }
+    }
+
+    /** Sparse index entry: block location and the first orderId it holds. */
+    public static class BlockRef {
+        private String firstKey;
+        private long offset;
+        private int length;
+        private int count;
+
+        public BlockRef() {}
+        BlockRef(String firstKey, long offset, int length, int count) {
+            this.firstKey = firstKey;
+            this.offset = offset;
+            this.length = length;
+            this.count = count;
+        }
+
+        public String getFirstKey() { return firstKey; }
+        public void setFirstKey(String firstKey) { this.firstKey = firstKey; }
+        public long getOffset() { return offset; }
+        public void setOffset(long offset) { this.offset = offset; }
+        public int getLength() { return length; }
+        public void setLength(int length) { this.length = length; }
+        public int getCount() { return count; }
+        public void setCount(int count) { this.count = count; }
+    }
+
+    /** Segment footer as written to disk; segments written before the filter existed have no bloom. */
+    public static class Footer {
+        private String lastKey;
+        private List<BlockRef> blocks = new ArrayList<>();
+        private long[] bloom;
+        private int bloomHashes;
+
+        public String getLastKey() { return lastKey; }
+        public void setLastKey(String lastKey) { this.lastKey = lastKey; }
+        public List<BlockRef> getBlocks() { return blocks; }
+        public void setBlocks(List<BlockRef> blocks) { this.blocks = blocks; }
+        public long[] getBloom() { return bloom; }
+        public void setBloom(long[] bloom) { this.bloom = bloom; }
+        public int getBloomHashes() { return bloomHashes; }
+        public void setBloomHashes(int bloomHashes) { this.bloomHashes = bloomHashes; }
+    }
+
+    /** Bloom filter over orderIds: 10 bits and 7 probes per key, about 1% false positives. */
+    static final class BloomFilter {
+        static final int BITS_PER_KEY = 10;
+        static final int HASHES = 7;
+
+        final long[] bits;
+        final int hashes;
+
+        BloomFilter(long[] bits, int hashes) {
+            this.bits = bits;
+            this.hashes = hashes;
+        }
+
+        static BloomFilter of(List<String> keys) {
+            long size = Math.max(64L, (long) keys.size() * BITS_PER_KEY);
+            BloomFilter filter = new BloomFilter(new long[(int) ((size + 63) / 64)], HASHES);
+            for (String key : keys) filter.add(key);
+            return filter;
+        }
+
+        void add(String key) {
+            long hash = hash64(key);
+            long bitCount = (long) bits.length * 64;
+            // Double hashing: probe i is h1 + i * h2
+            int h1 = (int) hash, h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash64(key);
+            long bitCount = (long) bits.length * 64;
+            int h1 = (int) hash, h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+            }
+            return true;
+        }
+
+        // FNV-1a over the chars, finished with a 64-bit mix so both halves are usable
+        private static long hash64(String key) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h ^= key.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            return h ^ (h >>> 33);
+        }
+    }
+
+    private static final class Segment {
+        final File file;
+        final String firstKey;
+        final String lastKey;
+        final TreeMap<String, BlockRef> index = new TreeMap<>();
+        final BloomFilter bloom;
+        final int sagaCount;
+        final AtomicLong blockReads;
+
+        Segment(File file, Footer footer, AtomicLong blockReads) {
+            this.file = file;
+            this.blockReads = blockReads;
+            this.bloom = footer.getBloom() == null ? null : new BloomFilter(footer.getBloom(), footer.getBloomHashes());
+            int count = 0;
+            for (BlockRef ref : footer.getBlocks()) {
+                index.put(ref.getFirstKey(), ref);
+                count += ref.getCount();
+            }
+            this.sagaCount = count;
+            this.firstKey = index.isEmpty() ? null : index.firstKey();
+            this.lastKey = footer.getLastKey();
+        }
+
+        static Segment open(File file, AtomicLong blockReads) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                long len = raf.length();
+                raf.seek(len - FOOTER_TRAILER_BYTES);
+                long footerOffset = raf.readLong();
+                if (raf.readInt() != MAGIC) throw new IOException("Not a saga segment: " + file);
+                byte[] footer = new byte[(int) (len - FOOTER_TRAILER_BYTES - footerOffset)];
+                raf.seek(footerOffset);
+                raf.readFully(footer);
+                return new Segment(file, KafkaSerdeUtil.fromJson(new String(footer, StandardCharsets.UTF_8), Footer.class), blockReads);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        boolean mayContain(String orderId) {
+            return firstKey != null && orderId.compareTo(firstKey) >= 0 && orderId.compareTo(lastKey) <= 0
+                    && (bloom == null || bloom.mightContain(orderId));
+        }
+
+        List<FulfillmentEvent> find(String orderId) {
+            if (!mayContain(orderId)) return null;
+            Map.Entry<String, BlockRef> entry = index.floorEntry(orderId);
+            if (entry == null) return null;
+            BlockRef ref = entry.getValue();
+            blockReads.incrementAndGet();
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                byte[] compressed = new byte[ref.getLength()];
+                raf.seek(ref.getOffset());
+                raf.readFully(compressed);
+                ArchivedSaga[] block = KafkaSerdeUtil.fromJson(
+                        new String(Snappy.uncompress(compressed), StandardCharsets.UTF_8), ArchivedSaga[].class);
+                if (block == null) return null;
+                for (ArchivedSaga saga : block) {
+                    if (orderId.equals(saga.getOrderId())) return saga.getEvents();
+                }
+                return null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // Rough heap cost of the in-memory sparse index for this segment
+        long indexHeapBytes() {
+            long bytes = 64 + (bloom == null ? 0 : 16 + 8L * bloom.bits.length);
+            for (String key : index.keySet()) bytes += 40 + 2L * key.length() + 40 + 32;
+            return bytes;
+        }
+    }
+
+    /**
+     * Writes the sagas into a new immutable segment (written to a temp file, then renamed into place).
+     */
+    public synchronized void archive(Map<String, List<FulfillmentEvent>> sagas) {
+        if (sagas.isEmpty()) return;
+        List<String> keys = new ArrayList<>(sagas.keySet());
+        keys.sort(null);
+        File target = new File(directory, String.format("segment-%013d-%06d.cold",
+                System.currentTimeMillis(), segmentSeq.getAndIncrement()));
+        File tmp = new File(directory, target.getName() + ".tmp");
+        Footer footer = new Footer();
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(fos)) {
+            long offset = 0;
+            for (int from = 0; from < keys.size(); from += sagasPerBlock) {
+                List<String> blockKeys = keys.subList(from, Math.min(from + sagasPerBlock, keys.size()));
+                List<ArchivedSaga> block = new ArrayList<>(blockKeys.size());
+                for (String key : blockKeys) block.add(new ArchivedSaga(key, sagas.get(key)));
+                byte[] compressed = Snappy.compress(KafkaSerdeUtil.toJson(block).getBytes(StandardCharsets.UTF_8));
+                out.write(compressed);
+                footer.getBlocks().add(new BlockRef(blockKeys.get(0), offset, compressed.length, blockKeys.size()));
+                offset += compressed.length;
+            }
+            footer.setLastKey(keys.get(keys.size() - 1));
+            BloomFilter bloom = BloomFilter.of(keys);
+            footer.setBloom(bloom.bits);
+            footer.setBloomHashes(bloom.hashes);
+            out.write(KafkaSerdeUtil.toJson(footer).getBytes(StandardCharsets.UTF_8));
+            out.writeLong(offset);
+            out.writeInt(MAGIC);
+            out.flush();
+            fos.getFD().sync();
+        } catch (IOException e) {
+            tmp.delete();
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.add(new Segment(target, footer, blockReads));
+    }
+
+    // Newest segment first, so the most recent archive of an order wins
+    public List<FulfillmentEvent> find(String orderId) {
+        if (orderId == null) return null;
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            List<FulfillmentEvent> events = segments.get(i).find(orderId);
+            if (events != null) return events;
+        }
+        return null;
+    }
+
+    public boolean contains(String orderId) {
+        return find(orderId) != null;
+    }
+
+    /** Blocks read from disk by lookups, i.e. bloom filter hits (true or false). */
+    public long getBlockReads() {
+        return blockReads.get();
+    }
+
+    public Stats stats() {
+        long orders = 0, disk = 0, heap = 0;
+        for (Segment s : segments) {
+            orders += s.sagaCount;
+            disk += s.file.length();
+            heap += s.indexHeapBytes();
+        }
+        return new Stats(segments.size(), orders, disk, heap);
+    }
+
+    /** Footprint of the cold tier, including per-order heap and disk cost. */
+    public static class Stats {
+        private final int segments;
+        private final long archivedOrders;
+        private final long diskBytes;
+        private final long heapBytes;
+
+        Stats(int segments, long archivedOrders, long diskBytes, long heapBytes) {
+            this.segments = segments;
+            this.archivedOrders = archivedOrders;
+            this.diskBytes = diskBytes;
+            this.heapBytes = heapBytes;
+        }
+
+        public int getSegments() { return segments; }
+        public long getArchivedOrders() { return archivedOrders; }
+        public long getDiskBytes() { return diskBytes; }
+        public long getHeapBytes() { return heapBytes; }
+        public double getDiskBytesPerOrder() { return archivedOrders == 0 ? 0 : (double) diskBytes / archivedOrders; }
+        public double getHeapBytesPerOrder() { return archivedOrders == 0 ? 0 : (double) heapBytes / archivedOrders; }
+    }
+}
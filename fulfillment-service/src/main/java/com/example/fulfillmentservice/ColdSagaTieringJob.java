@@ -0,0 +1,44 @@
+package com.example.fulfillmentservice;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically moves terminal sagas (SHIPPED, COMPENSATED) older than the threshold out of the
+ * in-memory event store and into the cold archive.
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "fulfillment.archive.enabled", havingValue = "true")
+public class ColdSagaTieringJob {
+
+    private final FulfillmentSagaOrchestrator orchestrator;
+    private final ColdSagaArchive archive;
+    private final Duration threshold;
+
+    public ColdSagaTieringJob(FulfillmentSagaOrchestrator orchestrator,
+                              ColdSagaArchive archive,
+                              @Value("${fulfillment.archive.threshold:PT1H}") Duration threshold) {
+        this.orchestrator = orchestrator;
+        this.archive = archive;
+        this.threshold = threshold;
+    }
+
+    @Scheduled(fixedDelayString = "${fulfillment.archive.interval-ms:60000}")
+    public void tier() {
+        long start = System.nanoTime();
+        int moved = orchestrator.archiveTerminalSagas(threshold, Instant.now());
+        if (moved == 0) return;
+        ColdSagaArchive.Stats stats = archive.stats();
+        System.out.println("[DEBUG] Archived " + moved + " terminal sagas in " + (System.nanoTime() - start) / 1_000_000 +
+                " ms | cold orders=" + stats.getArchivedOrders() +
+                ", disk bytes/order=" + Math.round(stats.getDiskBytesPerOrder()) +
+                ", heap bytes/order=" + Math.round(stats.getHeapBytesPerOrder()));
+    }
+}
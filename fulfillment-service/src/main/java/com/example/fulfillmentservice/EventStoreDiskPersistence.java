@@ -17,27 +17,41 @@ import com.example.fulfillmentservice.model.FulfillmentEvent;
  */
 public class EventStoreDiskPersistence {
 
-    private static final String FILE_PATH = "fulfillment-service/eventstore-db.ser";
+    public static final String DEFAULT_DIRECTORY = "fulfillment-service";
+    private static final String FILE_PATH = DEFAULT_DIRECTORY + "/eventstore-db.ser";
 
     // Save Map<String, List<FulfillmentEvent>> to disk
     public static void save(Map<String, List<FulfillmentEvent>> eventStore) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(FILE_PATH))) {
+        save(new File(FILE_PATH), eventStore);
+    }
+
+    // Load Map<String, List<FulfillmentEvent>> from disk
+    public static Map<String, List<FulfillmentEvent>> load() {
+        return load(new File(FILE_PATH));
+    }
+
+    // Shard file for one orders partition; the legacy single file stands in for unpartitioned use
+    public static File shardFile(File directory, int partition) {
+        return partition < 0 ? new File(directory, "eventstore-db.ser")
+                : new File(directory, "eventstore-p" + partition + ".ser");
+    }
+
+    public static void save(File file, Map<String, List<FulfillmentEvent>> eventStore) {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
             oos.writeObject(eventStore);
-            System.out.println("[DEBUG] EventStore persisted to disk: " + FILE_PATH);
+            System.out.println("[DEBUG] EventStore persisted to disk: " + file);
         } catch (IOException e) {
             System.err.println("[ERROR] Failed to persist EventStore to disk: " + e);
         }
     }
 
-    // Load Map<String, List<FulfillmentEvent>> from disk
     @SuppressWarnings("unchecked")
-    public static Map<String, List<FulfillmentEvent>> load() {
-        File db = new File(FILE_PATH);
-        if (!db.exists()) return new HashMap<>();
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(FILE_PATH))) {
+    public static Map<String, List<FulfillmentEvent>> load(File file) {
+        if (!file.exists()) return new HashMap<>();
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
             Object obj = ois.readObject();
             if (obj instanceof Map) {
-                System.out.println("[DEBUG] EventStore loaded from disk.");
+                System.out.println("[DEBUG] EventStore loaded from disk: " + file);
                 return (Map<String, List<FulfillmentEvent>>) obj;
             }
         } catch (Exception e) {
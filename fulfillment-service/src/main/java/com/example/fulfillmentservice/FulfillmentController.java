@@ -2,30 +2,62 @@ package com.example.fulfillmentservice;
 
 import com.example.fulfillmentservice.model.FulfillmentEvent;
 import com.example.fulfillmentservice.model.FulfillmentStatus;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
 import java.util.List;
 
 /**
  * REST API for fulfillment status, event log, and basic diagnostics.
+ * When the Kafka Streams store is enabled, lookups are answered by the instance that owns the order.
  */
 @RestController
 @RequestMapping("/fulfillment")
 public class FulfillmentController {
 
     private final FulfillmentSagaOrchestrator orchestrator;
+    private final ObjectProvider<FulfillmentStreamsQueryService> streamsQuery;
+    private final ObjectProvider<ColdSagaArchive> coldArchive;
 
-    public FulfillmentController(FulfillmentSagaOrchestrator orchestrator) {
+    public FulfillmentController(FulfillmentSagaOrchestrator orchestrator,
+                                 ObjectProvider<FulfillmentStreamsQueryService> streamsQuery,
+                                 ObjectProvider<ColdSagaArchive> coldArchive) {
         this.orchestrator = orchestrator;
+        this.streamsQuery = streamsQuery;
+        this.coldArchive = coldArchive;
+    }
+
+    // Counts by status per product and per minute bucket; cost is O(buckets), independent of order count
+    @GetMapping("/stats")
+    public FulfillmentStatsReadModel.Snapshot getStats(@RequestParam(defaultValue = "60") int minutes,
+                                                       @RequestParam(required = false) String product) {
+        return orchestrator.getStatsReadModel().snapshot(minutes, product, Instant.now());
+    }
+
+    // Footprint of the cold tier: segment count, archived orders, heap and disk bytes per order
+    @GetMapping("/archive/stats")
+    public ColdSagaArchive.Stats getArchiveStats() {
+        ColdSagaArchive archive = coldArchive.getIfAvailable();
+        if (archive == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Cold archive is not enabled");
+        return archive.stats();
     }
 
     @GetMapping("/{orderId}/status")
-    public FulfillmentStatus getStatus(@PathVariable String orderId) {
+    public FulfillmentStatus getStatus(@PathVariable String orderId,
+                                       @RequestParam(defaultValue = "false") boolean local) {
+        FulfillmentStreamsQueryService streams = streamsQuery.getIfAvailable();
+        if (streams != null) return streams.getStatus(orderId, local);
         return orchestrator.getCurrentStatus(orderId);
     }
 
     @GetMapping("/{orderId}/events")
-    public List<FulfillmentEvent> getEvents(@PathVariable String orderId) {
+    public List<FulfillmentEvent> getEvents(@PathVariable String orderId,
+                                            @RequestParam(defaultValue = "false") boolean local) {
+        FulfillmentStreamsQueryService streams = streamsQuery.getIfAvailable();
+        if (streams != null) return streams.getEventLog(orderId, local);
         return orchestrator.getEventLog(orderId);
     }
 }
@@ -0,0 +1,214 @@
+package com.example.fulfillmentservice;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.example.fulfillmentservice.model.FulfillmentEvent;
+import com.example.fulfillmentservice.model.FulfillmentStatus;
+
+/**
+ * Rebuilds the orchestrator's currentStatus projection from the fulfillment-events topic.
+ *
+ * One reader per partition folds its partition (from the beginning up to the end offset captured at start)
+ * into a per-partition status map, and the maps are merged. Other shards keep writing while that runs, so the
+ * end offsets are captured again and each partition is folded on from the previous capture, until a capture
+ * finds nothing new (or after {@value #MAX_CATCH_UP_ROUNDS} rounds). The result is handed to the orchestrator
+ * and the orders listener is started for live processing. Events written between the last capture and that
+ * start are not folded: a window of milliseconds once the catch-up has converged, and no wider than the last
+ * round otherwise. Enabled with fulfillment.rebuild.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "fulfillment.rebuild.enabled", havingValue = "true")
+public class FulfillmentProjectionRebuilder {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    static final int MAX_CATCH_UP_ROUNDS = 5;
+
+    private final Supplier<Consumer<String, String>> consumerSupplier;
+    private FulfillmentSagaOrchestrator orchestrator;
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Value("${spring.kafka.template.default-topic:fulfillment-events}")
+    private String fulfillmentTopic = "fulfillment-events";
+
+    @Autowired
+    public FulfillmentProjectionRebuilder(ConsumerFactory<String, String> consumerFactory,
+                                          FulfillmentSagaOrchestrator orchestrator,
+                                          KafkaListenerEndpointRegistry listenerRegistry) {
+        this(() -> {
+            // Readers use manual assignment; never commit offsets on behalf of the service's group
+            Properties overrides = new Properties();
+            overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+            return consumerFactory.createConsumer("fulfillment-rebuild", null, null, overrides);
+        });
+        this.orchestrator = orchestrator;
+        this.listenerRegistry = listenerRegistry;
+    }
+
+    FulfillmentProjectionRebuilder(Supplier<Consumer<String, String>> consumerSupplier) {
+        this.consumerSupplier = consumerSupplier;
+    }
+
+    /**
+     * Result of a rebuild: merged statuses, the end offsets the rebuild stopped at, the number of catch-up
+     * rounds after the first pass, and throughput.
+     */
+    public static class Result {
+        private final Map<String, FulfillmentStatus> statuses;
+        private final Map<TopicPartition, Long> endOffsets;
+        private final int catchUpRounds;
+        private final long eventCount;
+        private final long elapsedNanos;
+
+        Result(Map<String, FulfillmentStatus> statuses, Map<TopicPartition, Long> endOffsets, int catchUpRounds,
+               long eventCount, long elapsedNanos) {
+            this.statuses = statuses;
+            this.endOffsets = endOffsets;
+            this.catchUpRounds = catchUpRounds;
+            this.eventCount = eventCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Map<String, FulfillmentStatus> getStatuses() { return statuses; }
+        public Map<TopicPartition, Long> getEndOffsets() { return endOffsets; }
+        public int getCatchUpRounds() { return catchUpRounds; }
+        public long getEventCount() { return eventCount; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double getEventsPerSecond() {
+            return elapsedNanos == 0 ? 0 : eventCount * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+
+    // Runs once the context is up, before the orders listener is allowed to start
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAndStartLiveProcessing() {
+        Result result = rebuild(fulfillmentTopic);
+        orchestrator.restoreStatus(result.getStatuses());
+        System.out.println("[DEBUG] Projection rebuilt: " + result.getStatuses().size() + " orders from " +
+                result.getEventCount() + " events (" + Math.round(result.getEventsPerSecond()) + " events/s), " +
+                result.getCatchUpRounds() + " catch-up round(s), handing off at " + result.getEndOffsets());
+        MessageListenerContainer container =
+                listenerRegistry.getListenerContainer(FulfillmentSagaOrchestrator.ORDERS_LISTENER_ID);
+        if (container != null && !container.isRunning()) {
+            container.start();
+        }
+    }
+
+    /**
+     * Reads every partition of the topic in parallel up to the end offsets captured at start, then catches up
+     * from each capture to the next until the topic stops growing or the rounds run out.
+     */
+    public Result rebuild(String topic) {
+        long start = System.nanoTime();
+        List<TopicPartition> partitions = new ArrayList<>();
+        Map<String, FulfillmentStatus> merged = new HashMap<>();
+        long eventCount = 0;
+        int rounds = 0;
+        Map<TopicPartition, Long> endOffsets;
+        try (Consumer<String, String> metadata = consumerSupplier.get()) {
+            List<PartitionInfo> infos = metadata.partitionsFor(topic);
+            if (infos != null) {
+                for (PartitionInfo info : infos) {
+                    partitions.add(new TopicPartition(topic, info.partition()));
+                }
+            }
+            if (partitions.isEmpty()) return new Result(merged, Collections.emptyMap(), 0, 0, System.nanoTime() - start);
+            endOffsets = metadata.endOffsets(partitions);
+            Map<TopicPartition, Long> from = Collections.emptyMap();
+            ExecutorService readers = Executors.newFixedThreadPool(partitions.size());
+            try {
+                while (true) {
+                    // Later rounds hold later events of the same orders, so they overwrite
+                    eventCount += fold(partitions, from, endOffsets, readers, merged);
+                    Map<TopicPartition, Long> next = metadata.endOffsets(partitions);
+                    if (next.equals(endOffsets) || rounds == MAX_CATCH_UP_ROUNDS) break;
+                    from = endOffsets;
+                    endOffsets = next;
+                    rounds++;
+                }
+            } finally {
+                readers.shutdownNow();
+            }
+        }
+        return new Result(merged, endOffsets, rounds, eventCount, System.nanoTime() - start);
+    }
+
+    // Folds each partition from its offset in from (the beginning if absent) to its end, in parallel
+    private long fold(List<TopicPartition> partitions, Map<TopicPartition, Long> from, Map<TopicPartition, Long> to,
+                      ExecutorService readers, Map<String, FulfillmentStatus> merged) {
+        long events = 0;
+        try {
+            List<Future<PartitionFold>> folds = new ArrayList<>();
+            for (TopicPartition tp : partitions) {
+                Long begin = from.get(tp);
+                long end = to.getOrDefault(tp, 0L);
+                if (begin != null && begin >= end) continue;
+                folds.add(readers.submit(() -> foldPartition(tp, begin, end)));
+            }
+            for (Future<PartitionFold> f : folds) {
+                PartitionFold fold = f.get();
+                // Records are keyed by orderId, so partitions never share an order
+                merged.putAll(fold.statuses);
+                events += fold.events;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Projection rebuild interrupted", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Projection rebuild failed", e);
+        }
+        return events;
+    }
+
+    private static class PartitionFold {
+        final Map<String, FulfillmentStatus> statuses = new HashMap<>();
+        long events;
+    }
+
+    private PartitionFold foldPartition(TopicPartition tp, Long startOffset, long endOffset) {
+        PartitionFold fold = new PartitionFold();
+        try (Consumer<String, String> consumer = consumerSupplier.get()) {
+            consumer.assign(Collections.singletonList(tp));
+            if (startOffset == null) consumer.seekToBeginning(Collections.singletonList(tp));
+            else consumer.seek(tp, startOffset);
+            while (consumer.position(tp) < endOffset) {
+                ConsumerRecords<String, String> records = consumer.poll(POLL_TIMEOUT);
+                for (ConsumerRecord<String, String> rec : records.records(tp)) {
+                    if (rec.offset() >= endOffset) break;
+                    fold.events++;
+                    FulfillmentEvent evt = rec.value() == null ? null : KafkaSerdeUtil.fromJson(rec.value(), FulfillmentEvent.class);
+                    if (evt == null || evt.getOrderId() == null || evt.getStatus() == null) continue;
+                    // Offset order within a partition is event order, so the last event wins
+                    fold.statuses.put(evt.getOrderId(), evt.getStatus());
+                }
+            }
+        }
+        return fold;
+    }
+}
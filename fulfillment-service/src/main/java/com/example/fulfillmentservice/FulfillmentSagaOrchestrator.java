@@ -1,15 +1,24 @@
 package com.example.fulfillmentservice;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
 import com.example.fulfillmentservice.model.FulfillmentEvent;
@@ -22,10 +31,19 @@ import com.example.fulfillmentservice.model.OrderEvent;
 @Component
 public class FulfillmentSagaOrchestrator {
 
+    // Listener id for the orders consumer; held back at startup while a projection rebuild runs
+    public static final String ORDERS_LISTENER_ID = "fulfillment-orders";
+
+    // Sagas in these states never change again and may be moved to the cold archive
+    private static final Set<FulfillmentStatus> TERMINAL = EnumSet.of(FulfillmentStatus.SHIPPED, FulfillmentStatus.COMPENSATED);
+
     private final EventSender eventSender;
     private final FulfillmentInventoryGateway inventoryGateway;
-    // eventStore backed by disk for idempotence across restarts
-    private final Map<String, List<FulfillmentEvent>> eventStore = EventStoreDiskPersistence.load();
+    private final FulfillmentStatsReadModel statsReadModel;
+    // eventStore backed by disk for idempotence across restarts, sharded by orders partition
+    private final PartitionedEventStore eventStore;
+    // Optional cold tier for terminal sagas, consulted after the in-memory shards
+    private ColdSagaArchive coldArchive;
 
     @Value("${spring.kafka.template.default-topic:fulfillment-events}")
     private String fulfillmentTopic;
@@ -35,12 +53,39 @@ public class FulfillmentSagaOrchestrator {
 
     public FulfillmentSagaOrchestrator(EventSender eventSender,
                                        FulfillmentInventoryGateway inventoryGateway) {
+        this(eventSender, inventoryGateway, new FulfillmentStatsReadModel());
+    }
+
+    public FulfillmentSagaOrchestrator(EventSender eventSender,
+                                       FulfillmentInventoryGateway inventoryGateway,
+                                       FulfillmentStatsReadModel statsReadModel) {
+        this(eventSender, inventoryGateway, statsReadModel,
+             new PartitionedEventStore(EventStoreDiskPersistence.DEFAULT_DIRECTORY));
+    }
+
+    @Autowired
+    public FulfillmentSagaOrchestrator(EventSender eventSender,
+                                       FulfillmentInventoryGateway inventoryGateway,
+                                       FulfillmentStatsReadModel statsReadModel,
+                                       PartitionedEventStore eventStore) {
         this.eventSender = eventSender;
         this.inventoryGateway = inventoryGateway;
+        this.statsReadModel = statsReadModel;
+        this.eventStore = eventStore;
     }
 
-@KafkaListener(topics = "orders", groupId = "fulfillment-service-group")
-public void onOrderPlaced(String orderJson) {
+    @Autowired(required = false)
+    public void setColdArchive(ColdSagaArchive coldArchive) {
+        this.coldArchive = coldArchive;
+    }
+
+    public void onOrderPlaced(String orderJson) {
+        onOrderPlaced(orderJson, PartitionedEventStore.UNPARTITIONED);
+    }
+
+@KafkaListener(id = ORDERS_LISTENER_ID, topics = "orders", groupId = "fulfillment-service-group",
+        autoStartup = "#{'${fulfillment.rebuild.enabled:false}' != 'true'}")
+public void onOrderPlaced(@Payload String orderJson, @Header(KafkaHeaders.RECEIVED_PARTITION) int partition) {
     System.out.println("[DEBUG] onOrderPlaced invoked with: " + orderJson);
     // Parse JSON to OrderEvent (later: use ObjectMapper bean)
     OrderEvent order = KafkaSerdeUtil.fromJson(orderJson, OrderEvent.class);
@@ -48,9 +93,12 @@ public void onOrderPlaced(String orderJson) {
         System.out.println("[DEBUG] Invalid or null order parsed, aborting.");
         return;
     }
+    eventStore.shard(partition); // normally already warmed up by the rebalance listener
 
     // Block duplicate orderId unless only the very first OrderPlaced event is processed ever for an orderId
-    if (eventStore.containsKey(order.getOrderId())) {
+    // currentStatus also covers orders restored by a projection rebuild without a local event log
+    if (eventStore.containsKey(order.getOrderId()) || currentStatus.containsKey(order.getOrderId())
+            || (coldArchive != null && coldArchive.contains(order.getOrderId()))) {
         System.out.println("[DEBUG] Duplicate orderId detected (" + order.getOrderId() + "), ignoring new placement.");
         return;
     }
@@ -66,13 +114,13 @@ public void onOrderPlaced(String orderJson) {
         order.getOrderId(), // correlationId is orderId for now
         null
     );
-    appendAndPublishEvent(evt);
+    appendAndPublishEvent(evt, order.getProduct(), partition);
 
     // Move to allocation
-    allocateInventory(order);
+    allocateInventory(order, partition);
 }
 
-    private void allocateInventory(OrderEvent order) {
+    private void allocateInventory(OrderEvent order, int partition) {
         System.out.println("[DEBUG] allocateInventory for: " + order.getOrderId());
         // Set status to ALLOCATING
         FulfillmentEvent evt = new FulfillmentEvent(
@@ -85,7 +133,7 @@ public void onOrderPlaced(String orderJson) {
             order.getOrderId(),
             null
         );
-        appendAndPublishEvent(evt);
+        appendAndPublishEvent(evt, order.getProduct(), partition);
 
         boolean allocationSuccess = inventoryGateway.allocate(order);
         if (allocationSuccess) {
@@ -99,10 +147,10 @@ public void onOrderPlaced(String orderJson) {
                 order.getOrderId(),
                 null
             );
-            appendAndPublishEvent(allocEvt);
+            appendAndPublishEvent(allocEvt, order.getProduct(), partition);
 
             // Next: simulate shipping
-            fulfillOrder(order.getOrderId(), FulfillmentStatus.SHIPPED, "ShippingDone");
+            fulfillOrder(order, FulfillmentStatus.SHIPPED, "ShippingDone", partition);
         } else {
             FulfillmentEvent failEvt = new FulfillmentEvent(
                 UUID.randomUUID().toString(),
@@ -114,7 +162,7 @@ public void onOrderPlaced(String orderJson) {
                 order.getOrderId(),
                 null
             );
-            appendAndPublishEvent(failEvt);
+            appendAndPublishEvent(failEvt, order.getProduct(), partition);
             // Saga compensation: emit rollback
             inventoryGateway.rollback(order);
             FulfillmentEvent compEvt = new FulfillmentEvent(
@@ -127,42 +175,109 @@ public void onOrderPlaced(String orderJson) {
                 order.getOrderId(),
                 order.getOrderId()
             );
-            appendAndPublishEvent(compEvt);
+            appendAndPublishEvent(compEvt, order.getProduct(), partition);
         }
     }
 
-    private void fulfillOrder(String orderId, FulfillmentStatus terminalStatus, String eventType) {
+    private void fulfillOrder(OrderEvent order, FulfillmentStatus terminalStatus, String eventType, int partition) {
         FulfillmentEvent evt = new FulfillmentEvent(
             UUID.randomUUID().toString(),
-            orderId,
+            order.getOrderId(),
             terminalStatus,
             eventType,
             null,
             Instant.now(),
-            orderId,
+            order.getOrderId(),
             null
         );
-        appendAndPublishEvent(evt);
+        appendAndPublishEvent(evt, order.getProduct(), partition);
     }
 
-    private synchronized void appendAndPublishEvent(FulfillmentEvent evt) {
-        // Store to disk-backed log
-        eventStore.computeIfAbsent(evt.getOrderId(), k -> new ArrayList<>()).add(evt);
-        EventStoreDiskPersistence.save(eventStore);
+    private synchronized void appendAndPublishEvent(FulfillmentEvent evt, String product, int partition) {
+        // Store to disk-backed log; only the owning shard is rewritten
+        Map<String, List<FulfillmentEvent>> shard = eventStore.shard(partition);
+        shard.computeIfAbsent(evt.getOrderId(), k -> new ArrayList<>()).add(evt);
+        eventStore.checkpoint(partition);
         currentStatus.put(evt.getOrderId(), evt.getStatus());
+        statsReadModel.record(product, evt.getStatus(), evt.getTimestamp());
         System.out.println("[DEBUG] Event appended: " + evt.getType() + " for " + evt.getOrderId() +
-                " | EventStore size=" + eventStore.get(evt.getOrderId()).size() +
+                " | EventStore size=" + shard.get(evt.getOrderId()).size() +
                 ", Current status=" + evt.getStatus());
         // Send to Kafka topic
         eventSender.send(fulfillmentTopic, evt.getOrderId(), KafkaSerdeUtil.toJson(evt));
     }
 
     // For REST/API: retrieve fulfillment state and event log
+    public FulfillmentStatsReadModel getStatsReadModel() {
+        return statsReadModel;
+    }
+
     public List<FulfillmentEvent> getEventLog(String orderId) {
-        return eventStore.getOrDefault(orderId, Collections.emptyList());
+        List<FulfillmentEvent> events = eventStore.get(orderId);
+        if (events == null && coldArchive != null) events = coldArchive.find(orderId);
+        return events == null ? Collections.emptyList() : events;
     }
 
     public FulfillmentStatus getCurrentStatus(String orderId) {
-        return currentStatus.get(orderId);
+        FulfillmentStatus status = currentStatus.get(orderId);
+        if (status == null && coldArchive != null) {
+            List<FulfillmentEvent> archived = coldArchive.find(orderId);
+            if (archived != null && !archived.isEmpty()) status = archived.get(archived.size() - 1).getStatus();
+        }
+        return status;
+    }
+
+    // Rebalance: load assigned shards and their statuses before the partitions are consumed
+    public void assignShards(Collection<Integer> partitions) {
+        eventStore.assign(partitions);
+        for (int partition : partitions) {
+            eventStore.shard(partition).forEach((orderId, events) -> {
+                if (!events.isEmpty()) currentStatus.put(orderId, events.get(events.size() - 1).getStatus());
+            });
+        }
+    }
+
+    // Rebalance: checkpoint and drop shards this instance no longer owns
+    public synchronized void releaseShards(Collection<Integer> partitions) {
+        for (int partition : partitions) {
+            eventStore.release(partition).keySet().forEach(currentStatus::remove);
+        }
+    }
+
+    // Tiering: move terminal sagas whose last event is older than the threshold into the cold archive
+    public synchronized int archiveTerminalSagas(Duration threshold, Instant now) {
+        if (coldArchive == null) return 0;
+        Instant cutoff = now.minus(threshold);
+        int archived = 0;
+        for (int partition : eventStore.ownedPartitions()) {
+            Map<String, List<FulfillmentEvent>> shard = eventStore.shard(partition);
+            Map<String, List<FulfillmentEvent>> cold = new HashMap<>();
+            shard.forEach((orderId, events) -> {
+                if (events.isEmpty()) return;
+                FulfillmentEvent last = events.get(events.size() - 1);
+                if (TERMINAL.contains(last.getStatus()) && last.getTimestamp() != null && last.getTimestamp().isBefore(cutoff)) {
+                    cold.put(orderId, events);
+                }
+            });
+            if (cold.isEmpty()) continue;
+            // Segment is durable before the sagas leave the hot shard and its checkpoint
+            coldArchive.archive(cold);
+            cold.keySet().forEach(orderId -> {
+                shard.remove(orderId);
+                currentStatus.remove(orderId);
+            });
+            eventStore.checkpoint(partition);
+            archived += cold.size();
+        }
+        return archived;
+    }
+
+    public PartitionedEventStore getEventStore() {
+        return eventStore;
+    }
+
+    // Seed currentStatus from a rebuilt projection; statuses already known locally are kept
+    public void restoreStatus(Map<String, FulfillmentStatus> statuses) {
+        statuses.forEach(currentStatus::putIfAbsent);
     }
 }
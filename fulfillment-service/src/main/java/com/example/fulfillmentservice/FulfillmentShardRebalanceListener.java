@@ -0,0 +1,57 @@
+package com.example.fulfillmentservice;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves event store shards with orders partition ownership: assigned shards are loaded before the
+ * consumer resumes polling, revoked or lost shards are checkpointed and released.
+ */
+@Component
+public class FulfillmentShardRebalanceListener implements ConsumerAwareRebalanceListener {
+
+    private static final String ORDERS_TOPIC = "orders";
+
+    private final FulfillmentSagaOrchestrator orchestrator;
+
+    public FulfillmentShardRebalanceListener(FulfillmentSagaOrchestrator orchestrator) {
+        this.orchestrator = orchestrator;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        List<Integer> owned = ordersPartitions(partitions);
+        if (owned.isEmpty()) return;
+        long start = System.nanoTime();
+        // Runs on the consumer thread inside poll(), so no record is delivered until the shards are warm
+        orchestrator.assignShards(owned);
+        System.out.println("[DEBUG] Shards assigned " + owned + " in " + (System.nanoTime() - start) / 1_000_000 +
+                " ms, sagas held=" + orchestrator.getEventStore().size());
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        List<Integer> revoked = ordersPartitions(partitions);
+        if (revoked.isEmpty()) return;
+        orchestrator.releaseShards(revoked);
+        System.out.println("[DEBUG] Shards released " + revoked + ", sagas held=" + orchestrator.getEventStore().size());
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        onPartitionsRevokedBeforeCommit(consumer, partitions);
+    }
+
+    private static List<Integer> ordersPartitions(Collection<TopicPartition> partitions) {
+        return partitions.stream()
+                .filter(tp -> ORDERS_TOPIC.equals(tp.topic()))
+                .map(TopicPartition::partition)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.fulfillmentservice;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.stereotype.Component;
+
+import com.example.fulfillmentservice.model.FulfillmentStatus;
+
+/**
+ * CQRS read model for fulfillment analytics, updated incrementally as events are appended.
+ *
+ * Counts are kept per (product, status, minute) in a ring of minute buckets; a bucket is replaced
+ * with a fresh one (CAS) when its slot comes round again. Queries touch only the buckets, never orders.
+ */
+@Component
+public class FulfillmentStatsReadModel {
+
+    public static final int DEFAULT_BUCKETS = 60;
+    private static final FulfillmentStatus[] STATUSES = FulfillmentStatus.values();
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private final AtomicReferenceArray<Bucket> ring;
+
+    public FulfillmentStatsReadModel() {
+        this(DEFAULT_BUCKETS);
+    }
+
+    public FulfillmentStatsReadModel(int buckets) {
+        if (buckets <= 0) throw new IllegalArgumentException("Bucket count must be positive");
+        this.ring = new AtomicReferenceArray<>(buckets);
+    }
+
+    private static final class Bucket {
+        final long minute;
+        // product -> counters indexed by FulfillmentStatus ordinal
+        final ConcurrentHashMap<String, AtomicLongArray> counts = new ConcurrentHashMap<>();
+        Bucket(long minute) { this.minute = minute; }
+    }
+
+    // Hot path: one bucket read, one map lookup and one atomic increment in the common case
+    public void record(String product, FulfillmentStatus status, Instant timestamp) {
+        if (status == null || timestamp == null) return;
+        String key = product == null ? "unknown" : product;
+        long minute = Math.floorDiv(timestamp.toEpochMilli(), MINUTE_MILLIS);
+        int slot = (int) Math.floorMod(minute, (long) ring.length());
+        Bucket bucket = ring.get(slot);
+        while (bucket == null || bucket.minute < minute) {
+            Bucket fresh = new Bucket(minute);
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                bucket = fresh;
+                break;
+            }
+            bucket = ring.get(slot);
+        }
+        if (bucket.minute != minute) return; // older than the ring window
+        AtomicLongArray counters = bucket.counts.get(key);
+        if (counters == null) {
+            counters = bucket.counts.computeIfAbsent(key, k -> new AtomicLongArray(STATUSES.length));
+        }
+        counters.incrementAndGet(status.ordinal());
+    }
+
+    /**
+     * Aggregates the last {@code minutes} minute buckets up to {@code now}, optionally for a single product.
+     */
+    public Snapshot snapshot(int minutes, String product, Instant now) {
+        long current = Math.floorDiv(now.toEpochMilli(), MINUTE_MILLIS);
+        long oldest = current - Math.min(Math.max(minutes, 1), ring.length()) + 1;
+        Snapshot snap = new Snapshot();
+        for (int i = 0; i < ring.length(); i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket == null || bucket.minute < oldest || bucket.minute > current) continue;
+            BucketSnapshot bs = new BucketSnapshot(Instant.ofEpochMilli(bucket.minute * MINUTE_MILLIS));
+            bucket.counts.forEach((p, counters) -> {
+                if (product != null && !product.equals(p)) return;
+                Map<FulfillmentStatus, Long> byStatus = new EnumMap<>(FulfillmentStatus.class);
+                for (FulfillmentStatus s : STATUSES) {
+                    long n = counters.get(s.ordinal());
+                    if (n == 0) continue;
+                    byStatus.put(s, n);
+                    snap.totals.merge(s, n, Long::sum);
+                    snap.byProduct.computeIfAbsent(p, k -> new EnumMap<>(FulfillmentStatus.class)).merge(s, n, Long::sum);
+                }
+                if (!byStatus.isEmpty()) bs.byProduct.put(p, byStatus);
+            });
+            if (!bs.byProduct.isEmpty()) snap.buckets.add(bs);
+        }
+        snap.buckets.sort((a, b) -> a.start.compareTo(b.start));
+        return snap;
+    }
+
+    public static class Snapshot {
+        private final Map<FulfillmentStatus, Long> totals = new EnumMap<>(FulfillmentStatus.class);
+        private final Map<String, Map<FulfillmentStatus, Long>> byProduct = new TreeMap<>();
+        private final List<BucketSnapshot> buckets = new ArrayList<>();
+
+        public Map<FulfillmentStatus, Long> getTotals() { return totals; }
+        public Map<String, Map<FulfillmentStatus, Long>> getByProduct() { return byProduct; }
+        public List<BucketSnapshot> getBuckets() { return buckets; }
+
+        // Share of allocation attempts that failed: FAILED / (ALLOCATED + FAILED)
+        public double getAllocationFailureRate() {
+            long failed = totals.getOrDefault(FulfillmentStatus.FAILED, 0L);
+            long attempts = failed + totals.getOrDefault(FulfillmentStatus.ALLOCATED, 0L);
+            return attempts == 0 ? 0.0 : (double) failed / attempts;
+        }
+    }
+
+    public static class BucketSnapshot {
+        private final Instant start;
+        private final Map<String, Map<FulfillmentStatus, Long>> byProduct = new TreeMap<>();
+
+        BucketSnapshot(Instant start) { this.start = start; }
+
+        public Instant getStart() { return start; }
+        public Map<String, Map<FulfillmentStatus, Long>> getByProduct() { return byProduct; }
+    }
+}
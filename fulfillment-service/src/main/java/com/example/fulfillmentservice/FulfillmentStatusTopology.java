@@ -0,0 +1,68 @@
+package com.example.fulfillmentservice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import com.example.fulfillmentservice.model.FulfillmentEvent;
+
+/**
+ * Kafka Streams topology materializing fulfillment-events into queryable, changelog-backed stores:
+ * orderId -> latest status name, and orderId -> list of the order's events.
+ * Each record is parsed once; both stores are fed from the typed stream.
+ */
+public class FulfillmentStatusTopology {
+
+    public static final String STATUS_STORE = "fulfillment-status-store";
+    public static final String EVENTS_STORE = "fulfillment-events-store";
+
+    /** JSON serde for one event, as written to fulfillment-events. */
+    public static final Serde<FulfillmentEvent> EVENT_SERDE = Serdes.serdeFrom(
+            (topic, evt) -> evt == null ? null : KafkaSerdeUtil.toJson(evt).getBytes(StandardCharsets.UTF_8),
+            (topic, bytes) -> bytes == null ? null : KafkaSerdeUtil.fromJson(new String(bytes, StandardCharsets.UTF_8), FulfillmentEvent.class));
+
+    /** JSON array serde for an order's event list. */
+    public static final Serde<List<FulfillmentEvent>> EVENT_LIST_SERDE = Serdes.serdeFrom(
+            (topic, list) -> list == null ? null : KafkaSerdeUtil.toJson(list).getBytes(StandardCharsets.UTF_8),
+            (topic, bytes) -> {
+                if (bytes == null) return null;
+                FulfillmentEvent[] events = KafkaSerdeUtil.fromJson(new String(bytes, StandardCharsets.UTF_8), FulfillmentEvent[].class);
+                return events == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(events));
+            });
+
+    public static KStream<String, FulfillmentEvent> build(StreamsBuilder builder, String topic) {
+        KStream<String, FulfillmentEvent> events = builder
+                .stream(topic, Consumed.with(Serdes.String(), Serdes.String()))
+                .filter((orderId, json) -> orderId != null && json != null)
+                .mapValues(json -> KafkaSerdeUtil.fromJson(json, FulfillmentEvent.class))
+                .filter((orderId, evt) -> evt != null && evt.getStatus() != null);
+
+        // Latest status per order; toTable keeps a persistent store with a compacted changelog
+        events.mapValues(evt -> evt.getStatus().name())
+                .toTable(Materialized.<String, String, KeyValueStore<Bytes, byte[]>>as(STATUS_STORE)
+                        .withKeySerde(Serdes.String())
+                        .withValueSerde(Serdes.String()));
+
+        events.groupByKey(Grouped.with(Serdes.String(), EVENT_SERDE))
+                .aggregate(ArrayList::new,
+                        (orderId, evt, list) -> {
+                            list.add(evt);
+                            return list;
+                        },
+                        Materialized.<String, List<FulfillmentEvent>, KeyValueStore<Bytes, byte[]>>as(EVENTS_STORE)
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(EVENT_LIST_SERDE));
+        return events;
+    }
+}
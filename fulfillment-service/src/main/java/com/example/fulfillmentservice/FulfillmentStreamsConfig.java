@@ -0,0 +1,65 @@
+package com.example.fulfillmentservice;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.kstream.KStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.annotation.KafkaStreamsDefaultConfiguration;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+
+import com.example.fulfillmentservice.model.FulfillmentEvent;
+
+/**
+ * Optional Kafka Streams wiring for the fulfillment status store (fulfillment.streams.enabled=true).
+ * Each instance advertises its REST endpoint so interactive queries can be routed to the key owner.
+ */
+@Configuration
+@EnableKafkaStreams
+@ConditionalOnProperty(name = "fulfillment.streams.enabled", havingValue = "true")
+public class FulfillmentStreamsConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${spring.kafka.template.default-topic:fulfillment-events}")
+    private String fulfillmentTopic;
+
+    @Value("${fulfillment.streams.advertised-host:localhost}")
+    private String advertisedHost;
+
+    @Value("${server.port:8083}")
+    private int serverPort;
+
+    @Value("${fulfillment.streams.state-dir:/tmp/fulfillment-streams}")
+    private String stateDir;
+
+    @Value("${fulfillment.streams.standby-replicas:1}")
+    private int standbyReplicas;
+
+    @Bean(name = KafkaStreamsDefaultConfiguration.DEFAULT_STREAMS_CONFIG_BEAN_NAME)
+    public KafkaStreamsConfiguration kafkaStreamsConfiguration() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "fulfillment-status-store");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        props.put(StreamsConfig.APPLICATION_SERVER_CONFIG, advertisedHost + ":" + serverPort);
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir);
+        // Warm standbys take over a failed instance's stores without replaying the whole changelog
+        props.put(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG, standbyReplicas);
+        return new KafkaStreamsConfiguration(props);
+    }
+
+    @Bean
+    public KStream<String, FulfillmentEvent> fulfillmentStatusStream(StreamsBuilder streamsBuilder) {
+        return FulfillmentStatusTopology.build(streamsBuilder, fulfillmentTopic);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.fulfillmentservice;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.fulfillmentservice.model.FulfillmentEvent;
+import com.example.fulfillmentservice.model.FulfillmentStatus;
+
+/**
+ * Interactive queries over the Kafka Streams fulfillment stores.
+ * Keys owned by another instance are fetched from that instance's REST endpoint with local=true.
+ */
+@Component
+@ConditionalOnProperty(name = "fulfillment.streams.enabled", havingValue = "true")
+public class FulfillmentStreamsQueryService {
+
+    private final StreamsBuilderFactoryBean streamsFactory;
+    private final RestTemplate restTemplate;
+    private final HostInfo self;
+
+    public FulfillmentStreamsQueryService(StreamsBuilderFactoryBean streamsFactory,
+                                          RestTemplateBuilder restTemplateBuilder,
+                                          @Value("${fulfillment.streams.advertised-host:localhost}") String host,
+                                          @Value("${server.port:8083}") int port) {
+        this.streamsFactory = streamsFactory;
+        this.restTemplate = restTemplateBuilder.build();
+        this.self = new HostInfo(host, port);
+    }
+
+    public FulfillmentStatus getStatus(String orderId, boolean localOnly) {
+        HostInfo owner = localOnly ? self : ownerOf(FulfillmentStatusTopology.STATUS_STORE, orderId);
+        if (!owner.equals(self)) {
+            return restTemplate.getForObject("http://{host}:{port}/fulfillment/{orderId}/status?local=true",
+                    FulfillmentStatus.class, owner.host(), owner.port(), orderId);
+        }
+        String status = this.<String>localStore(FulfillmentStatusTopology.STATUS_STORE).get(orderId);
+        return status == null ? null : FulfillmentStatus.valueOf(status);
+    }
+
+    public List<FulfillmentEvent> getEventLog(String orderId, boolean localOnly) {
+        HostInfo owner = localOnly ? self : ownerOf(FulfillmentStatusTopology.EVENTS_STORE, orderId);
+        if (!owner.equals(self)) {
+            FulfillmentEvent[] events = restTemplate.getForObject("http://{host}:{port}/fulfillment/{orderId}/events?local=true",
+                    FulfillmentEvent[].class, owner.host(), owner.port(), orderId);
+            return events == null ? Collections.emptyList() : Arrays.asList(events);
+        }
+        List<FulfillmentEvent> events = this.<List<FulfillmentEvent>>localStore(FulfillmentStatusTopology.EVENTS_STORE).get(orderId);
+        return events == null ? Collections.emptyList() : events;
+    }
+
+    private HostInfo ownerOf(String store, String orderId) {
+        KeyQueryMetadata meta = running().queryMetadataForKey(store, orderId, Serdes.String().serializer());
+        if (meta == null || KeyQueryMetadata.NOT_AVAILABLE.equals(meta)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Fulfillment store is rebalancing");
+        }
+        return meta.activeHost();
+    }
+
+    private <V> ReadOnlyKeyValueStore<String, V> localStore(String store) {
+        return running().store(StoreQueryParameters.fromNameAndType(store, QueryableStoreTypes.<String, V>keyValueStore()));
+    }
+
+    private KafkaStreams running() {
+        KafkaStreams streams = streamsFactory.getKafkaStreams();
+        if (streams == null || streams.state() != KafkaStreams.State.RUNNING) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Fulfillment store is not running");
+        }
+        return streams;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.fulfillmentservice;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.fulfillmentservice.model.FulfillmentEvent;
+
+/**
+ * Event store split into one shard per orders partition, so an instance only holds the sagas of the
+ * partitions it owns. Each shard is checkpointed to its own file and loaded when the partition is assigned.
+ */
+@Component
+public class PartitionedEventStore {
+
+    // Shard used when events arrive without partition context (direct calls, tests)
+    public static final int UNPARTITIONED = -1;
+
+    private final File directory;
+    private final Map<Integer, Map<String, List<FulfillmentEvent>>> shards = new ConcurrentHashMap<>();
+
+    public PartitionedEventStore(@Value("${fulfillment.eventstore.dir:" + EventStoreDiskPersistence.DEFAULT_DIRECTORY + "}") String directory) {
+        this.directory = new File(directory);
+    }
+
+    // Shard for a partition, loaded from disk on first use
+    public Map<String, List<FulfillmentEvent>> shard(int partition) {
+        return shards.computeIfAbsent(partition, this::load);
+    }
+
+    // Warm up newly assigned shards in parallel; returns once all of them are in memory
+    public void assign(Collection<Integer> partitions) {
+        partitions.parallelStream().forEach(this::shard);
+    }
+
+    public void checkpoint(int partition) {
+        Map<String, List<FulfillmentEvent>> shard = shards.get(partition);
+        if (shard != null) {
+            EventStoreDiskPersistence.save(EventStoreDiskPersistence.shardFile(directory, partition), shard);
+        }
+    }
+
+    // Checkpoint and drop a shard; returns the released sagas (empty if the shard was not held)
+    public Map<String, List<FulfillmentEvent>> release(int partition) {
+        checkpoint(partition);
+        Map<String, List<FulfillmentEvent>> released = shards.remove(partition);
+        return released == null ? Collections.emptyMap() : released;
+    }
+
+    public boolean containsKey(String orderId) {
+        for (Map<String, List<FulfillmentEvent>> shard : shards.values()) {
+            if (shard.containsKey(orderId)) return true;
+        }
+        return false;
+    }
+
+    public List<FulfillmentEvent> get(String orderId) {
+        for (Map<String, List<FulfillmentEvent>> shard : shards.values()) {
+            List<FulfillmentEvent> events = shard.get(orderId);
+            if (events != null) return events;
+        }
+        return null;
+    }
+
+    public Set<Integer> ownedPartitions() {
+        return Collections.unmodifiableSet(shards.keySet());
+    }
+
+    public int size() {
+        int n = 0;
+        for (Map<String, List<FulfillmentEvent>> shard : shards.values()) n += shard.size();
+        return n;
+    }
+
+    private Map<String, List<FulfillmentEvent>> load(int partition) {
+        return new ConcurrentHashMap<>(EventStoreDiskPersistence.load(EventStoreDiskPersistence.shardFile(directory, partition)));
+    }
+}
@@ -14,7 +14,7 @@ public class PolicyEngine {
     // Evaluate if an order/event is eligible for fulfillment
     public boolean evaluate(OrderEvent order) {
         // Example: block if product is "restricted"
-        if ("RESTRICTED".equalsIgnoreCase(order.getProductId())) return false;
+        if ("RESTRICTED".equalsIgnoreCase(order.getProduct())) return false;
         // Future: more rules, dynamic from Kafka/config/db
         return true;
     }
@@ -1,12 +1,15 @@
 package com.example.fulfillmentservice.model;
 
+import java.io.Serializable;
 import java.time.Instant;
 import java.util.Objects;
 
 /**
  * All fulfillment state transitions and events, persisted and published for event sourcing, saga, and Kafka.
  */
-public class FulfillmentEvent {
+public class FulfillmentEvent implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String eventId;           // Unique for dedupe/idempotency (UUID)
     private String orderId;
     private FulfillmentStatus status;
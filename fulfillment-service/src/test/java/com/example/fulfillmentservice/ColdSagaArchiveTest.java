@@ -0,0 +1,114 @@
+package com.example.fulfillmentservice;
+
+import com.example.fulfillmentservice.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColdSagaArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    private FulfillmentSagaOrchestrator newOrchestrator(ColdSagaArchive archive) {
+        FulfillmentSagaOrchestrator orch = new FulfillmentSagaOrchestrator((topic, key, value) -> CompletableFuture.completedFuture(null),
+                new FulfillmentInventoryGateway(), new FulfillmentStatsReadModel(),
+                new PartitionedEventStore(dir.resolve("hot").toString()));
+        orch.setColdArchive(archive);
+        return orch;
+    }
+
+    private static String order(String id) {
+        return KafkaSerdeUtil.toJson(new OrderEvent(id, "pen", 1, "C1", Instant.now()));
+    }
+
+    @Test
+    void terminalSagasMoveToColdTierAndStayReadable() {
+        dir.resolve("hot").toFile().mkdirs();
+        ColdSagaArchive archive = new ColdSagaArchive(dir.resolve("cold").toString(), 4);
+        FulfillmentSagaOrchestrator orch = newOrchestrator(archive);
+        for (int i = 0; i < 10; i++) orch.onOrderPlaced(order(String.format("ORD-%02d", i)), i % 2);
+        int eventsPerSaga = orch.getEventLog("ORD-03").size();
+
+        // Nothing is old enough yet
+        assertThat(orch.archiveTerminalSagas(Duration.ofHours(1), Instant.now())).isZero();
+
+        int moved = orch.archiveTerminalSagas(Duration.ofHours(1), Instant.now().plus(Duration.ofHours(2)));
+        assertThat(moved).isEqualTo(10);
+        assertThat(orch.getEventStore().size()).isZero();
+
+        assertThat(orch.getEventLog("ORD-03")).hasSize(eventsPerSaga);
+        assertThat(orch.getCurrentStatus("ORD-07")).isEqualTo(FulfillmentStatus.SHIPPED);
+        assertThat(orch.getEventLog("ORD-99")).isEmpty();
+
+        // Redelivery of an archived order is still deduplicated
+        orch.onOrderPlaced(order("ORD-05"), 1);
+        assertThat(orch.getEventStore().containsKey("ORD-05")).isFalse();
+
+        ColdSagaArchive.Stats stats = archive.stats();
+        assertThat(stats.getSegments()).isEqualTo(2);
+        assertThat(stats.getArchivedOrders()).isEqualTo(10);
+        assertThat(stats.getDiskBytesPerOrder()).isPositive();
+        assertThat(stats.getHeapBytesPerOrder()).isPositive();
+    }
+
+    @Test
+    void segmentsAreReopenedFromDisk() {
+        dir.resolve("hot").toFile().mkdirs();
+        FulfillmentSagaOrchestrator orch = newOrchestrator(new ColdSagaArchive(dir.resolve("cold").toString(), 2));
+        orch.onOrderPlaced(order("A"), 0);
+        orch.onOrderPlaced(order("B"), 0);
+        orch.onOrderPlaced(order("C"), 0);
+        orch.archiveTerminalSagas(Duration.ZERO, Instant.now().plusSeconds(1));
+
+        ColdSagaArchive reopened = new ColdSagaArchive(dir.resolve("cold").toString(), 2);
+        assertThat(reopened.find("C")).extracting(FulfillmentEvent::getType).startsWith("OrderPlaced");
+        assertThat(reopened.contains("D")).isFalse();
+        assertThat(reopened.stats().getArchivedOrders()).isEqualTo(3);
+    }
+
+    // Random ids span every segment's key range; the bloom filters keep new-order checks off the disk
+    @Test
+    void lookupsOfUnarchivedIdsRarelyTouchDisk() {
+        ColdSagaArchive archive = new ColdSagaArchive(dir.resolve("cold").toString(), 16);
+        List<String> archived = new ArrayList<>();
+        for (int segment = 0; segment < 10; segment++) {
+            Map<String, List<FulfillmentEvent>> sagas = new HashMap<>();
+            for (int i = 0; i < 200; i++) {
+                String id = UUID.randomUUID().toString();
+                sagas.put(id, List.of(new FulfillmentEvent(UUID.randomUUID().toString(), id, FulfillmentStatus.NEW, "OrderPlaced", "{}", Instant.now(), id, null)));
+                archived.add(id);
+            }
+            archive.archive(sagas);
+        }
+
+        for (int i = 0; i < 1_000; i++) assertThat(archive.contains(UUID.randomUUID().toString())).isFalse();
+        // ~1% false positives over 10 segments is ~100 reads; without the filters it would be ~10,000
+        assertThat(archive.getBlockReads()).isLessThan(300);
+
+        long before = archive.getBlockReads();
+        for (String id : archived.subList(0, 100)) assertThat(archive.contains(id)).isTrue();
+        assertThat(archive.getBlockReads() - before).isGreaterThanOrEqualTo(100);
+        ColdSagaArchive reopened = new ColdSagaArchive(dir.resolve("cold").toString(), 16);
+        assertThat(reopened.contains(archived.get(1_999))).isTrue();
+        assertThat(reopened.contains(UUID.randomUUID().toString())).isFalse();
+    }
+
+    @Test
+    void sagasPerBlockMustBePositive() {
+        assertThatThrownBy(() -> new ColdSagaArchive(dir.resolve("cold").toString(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
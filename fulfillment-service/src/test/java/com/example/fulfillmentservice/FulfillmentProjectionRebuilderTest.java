@@ -0,0 +1,149 @@
+package com.example.fulfillmentservice;
+
+import com.example.fulfillmentservice.model.*;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FulfillmentProjectionRebuilderTest {
+
+    private static final String TOPIC = "fulfillment-events";
+
+    // Records per partition; every reader gets a fresh MockConsumer primed with them
+    private final Map<TopicPartition, List<ConsumerRecord<String, String>>> log = new HashMap<>();
+
+    private void append(int partition, String orderId, FulfillmentStatus status) {
+        TopicPartition tp = new TopicPartition(TOPIC, partition);
+        List<ConsumerRecord<String, String>> recs = log.computeIfAbsent(tp, k -> new ArrayList<>());
+        FulfillmentEvent evt = new FulfillmentEvent(UUID.randomUUID().toString(), orderId, status, "T", null,
+                Instant.now(), orderId, null);
+        recs.add(new ConsumerRecord<>(TOPIC, partition, recs.size(), orderId, KafkaSerdeUtil.toJson(evt)));
+    }
+
+    private MockConsumer<String, String> newConsumer() {
+        MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        List<PartitionInfo> infos = new ArrayList<>();
+        Map<TopicPartition, Long> begin = new HashMap<>();
+        Map<TopicPartition, Long> end = new HashMap<>();
+        for (TopicPartition tp : log.keySet()) {
+            infos.add(new PartitionInfo(TOPIC, tp.partition(), Node.noNode(), new Node[0], new Node[0]));
+            begin.put(tp, 0L);
+            end.put(tp, (long) log.get(tp).size());
+        }
+        consumer.updatePartitions(TOPIC, infos);
+        consumer.updateBeginningOffsets(begin);
+        consumer.updateEndOffsets(end);
+        consumer.schedulePollTask(() -> {
+            for (TopicPartition tp : consumer.assignment()) {
+                log.get(tp).forEach(consumer::addRecord);
+            }
+        });
+        return consumer;
+    }
+
+    @Test
+    void foldsEachPartitionAndMergesLatestStatus() {
+        append(0, "A", FulfillmentStatus.NEW);
+        append(0, "A", FulfillmentStatus.ALLOCATED);
+        append(0, "A", FulfillmentStatus.SHIPPED);
+        append(1, "B", FulfillmentStatus.NEW);
+        append(1, "B", FulfillmentStatus.FAILED);
+        append(1, "B", FulfillmentStatus.COMPENSATED);
+        append(2, "C", FulfillmentStatus.ALLOCATING);
+
+        FulfillmentProjectionRebuilder rebuilder = new FulfillmentProjectionRebuilder(this::newConsumer);
+        FulfillmentProjectionRebuilder.Result result = rebuilder.rebuild(TOPIC);
+
+        assertThat(result.getStatuses())
+                .containsEntry("A", FulfillmentStatus.SHIPPED)
+                .containsEntry("B", FulfillmentStatus.COMPENSATED)
+                .containsEntry("C", FulfillmentStatus.ALLOCATING)
+                .hasSize(3);
+        assertThat(result.getEventCount()).isEqualTo(7);
+        assertThat(result.getEndOffsets()).containsEntry(new TopicPartition(TOPIC, 0), 3L);
+        assertThat(result.getEventsPerSecond()).isPositive();
+    }
+
+    @Test
+    void catchesUpOnEventsWrittenWhileRebuilding() {
+        append(0, "A", FulfillmentStatus.NEW);
+        append(1, "B", FulfillmentStatus.NEW);
+        int[] captures = {0};
+        // The first reader is the metadata consumer; other shards write right after the first capture
+        Supplier<Consumer<String, String>> supplier =
+                new java.util.function.Supplier<>() {
+                    boolean first = true;
+
+                    @Override
+                    public Consumer<String, String> get() {
+                        if (!first) return newConsumer();
+                        first = false;
+                        return new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+                            {
+                                List<PartitionInfo> infos = new ArrayList<>();
+                                for (TopicPartition tp : log.keySet()) {
+                                    infos.add(new PartitionInfo(TOPIC, tp.partition(), Node.noNode(), new Node[0], new Node[0]));
+                                }
+                                updatePartitions(TOPIC, infos);
+                            }
+
+                            @Override
+                            public synchronized Map<TopicPartition, Long> endOffsets(Collection<TopicPartition> partitions) {
+                                Map<TopicPartition, Long> end = new HashMap<>();
+                                for (TopicPartition tp : partitions) end.put(tp, (long) log.get(tp).size());
+                                if (captures[0]++ == 0) {
+                                    append(0, "A", FulfillmentStatus.SHIPPED);
+                                    append(1, "C", FulfillmentStatus.ALLOCATING);
+                                }
+                                return end;
+                            }
+                        };
+                    }
+                };
+
+        FulfillmentProjectionRebuilder.Result result = new FulfillmentProjectionRebuilder(supplier).rebuild(TOPIC);
+
+        assertThat(result.getStatuses())
+                .containsEntry("A", FulfillmentStatus.SHIPPED)
+                .containsEntry("B", FulfillmentStatus.NEW)
+                .containsEntry("C", FulfillmentStatus.ALLOCATING);
+        assertThat(result.getEventCount()).isEqualTo(4);
+        assertThat(result.getCatchUpRounds()).isEqualTo(1);
+        assertThat(result.getEndOffsets()).containsEntry(new TopicPartition(TOPIC, 0), 2L);
+    }
+
+    @Test
+    void skipsCorruptRecordsButCountsThem() {
+        append(0, "A", FulfillmentStatus.NEW);
+        log.get(new TopicPartition(TOPIC, 0)).add(new ConsumerRecord<>(TOPIC, 0, 1, "A", "{broken"));
+
+        FulfillmentProjectionRebuilder.Result result = new FulfillmentProjectionRebuilder(this::newConsumer).rebuild(TOPIC);
+
+        assertThat(result.getStatuses()).containsEntry("A", FulfillmentStatus.NEW);
+        assertThat(result.getEventCount()).isEqualTo(2);
+    }
+
+    @Test
+    void restoredStatusBlocksReplayedPlacement() {
+        FulfillmentSagaOrchestrator orch = new FulfillmentSagaOrchestrator(
+                (topic, key, value) -> java.util.concurrent.CompletableFuture.completedFuture(null),
+                new FulfillmentInventoryGateway());
+        orch.restoreStatus(Map.of("RB1", FulfillmentStatus.SHIPPED));
+
+        orch.onOrderPlaced(KafkaSerdeUtil.toJson(new OrderEvent("RB1", "pen", 1, "C1", Instant.now())));
+
+        assertThat(orch.getCurrentStatus("RB1")).isEqualTo(FulfillmentStatus.SHIPPED);
+        assertThat(orch.getEventLog("RB1")).isEmpty();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.fulfillmentservice;
+
+import com.example.fulfillmentservice.model.FulfillmentEvent;
+import com.example.fulfillmentservice.model.FulfillmentStatus;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rebuild throughput against a real broker: seeds a fresh fulfillment-events topic, then rebuilds it.
+ * Not part of the regular build:
+ * mvn test -Dtest=FulfillmentRebuildBenchmarkTest -Dbenchmark=true [-Dbenchmark.bootstrap=localhost:9092]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FulfillmentRebuildBenchmarkTest {
+
+    private static final int PARTITIONS = 6;
+    private static final int ORDERS = 200_000;
+    private static final FulfillmentStatus[] LIFECYCLE = {
+            FulfillmentStatus.NEW, FulfillmentStatus.ALLOCATING, FulfillmentStatus.ALLOCATED, FulfillmentStatus.SHIPPED};
+
+    private final String bootstrap = System.getProperty("benchmark.bootstrap", "localhost:9092");
+
+    @Test
+    void rebuildThroughput() throws Exception {
+        String topic = "fulfillment-events-bench-" + UUID.randomUUID();
+        try (AdminClient admin = AdminClient.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap))) {
+            admin.createTopics(List.of(new NewTopic(topic, PARTITIONS, (short) 1))).all().get();
+            seed(topic);
+
+            for (int round = 0; round < 3; round++) { // first rounds warm up the JIT and the page cache
+                FulfillmentProjectionRebuilder.Result result = new FulfillmentProjectionRebuilder(this::newConsumer).rebuild(topic);
+                assertThat(result.getStatuses()).hasSize(ORDERS);
+                System.out.printf("round %d: %d events in %.0f ms, %.0f events/s%n", round, result.getEventCount(),
+                        result.getElapsedNanos() / 1e6, result.getEventsPerSecond());
+            }
+        } finally {
+            try (AdminClient admin = AdminClient.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap))) {
+                admin.deleteTopics(List.of(topic)).all().get();
+            }
+        }
+    }
+
+    private void seed(String topic) {
+        Map<String, Object> props = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap,
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.LINGER_MS_CONFIG, 20,
+                ProducerConfig.BATCH_SIZE_CONFIG, 256 * 1024);
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(props)) {
+            for (FulfillmentStatus status : LIFECYCLE) {
+                for (int i = 0; i < ORDERS; i++) {
+                    String orderId = "B" + i;
+                    FulfillmentEvent evt = new FulfillmentEvent(UUID.randomUUID().toString(), orderId, status, "Bench",
+                            null, Instant.now(), orderId, null);
+                    producer.send(new ProducerRecord<>(topic, orderId, KafkaSerdeUtil.toJson(evt)));
+                }
+            }
+            producer.flush();
+        }
+    }
+
+    private KafkaConsumer<String, String> newConsumer() {
+        return new KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap,
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false,
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000));
+    }
+}
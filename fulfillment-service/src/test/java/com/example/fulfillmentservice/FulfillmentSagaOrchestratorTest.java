@@ -32,12 +32,13 @@ class FulfillmentSagaOrchestratorTest {
         String orderJson = KafkaSerdeUtil.toJson(order);
 
         orchestrator.onOrderPlaced(orderJson);
+        int sagaEvents = orchestrator.getEventLog("O99").size();
         orchestrator.onOrderPlaced(orderJson); // repeat the same event
 
+        // The duplicate orderId check ignores the redelivery: one saga, one "OrderPlaced"
         List<FulfillmentEvent> eventLog = orchestrator.getEventLog("O99");
-        assertThat(eventLog.size()).isGreaterThanOrEqualTo(6); // 2 onOrderPlaced calls = 2 * saga sequence, no dedupe logic
-        // Each onOrderPlaced will create a new "OrderPlaced" event
-        assertThat(eventLog.stream().filter(ev -> "OrderPlaced".equals(ev.getType())).count()).isEqualTo(2);
+        assertThat(eventLog).hasSize(sagaEvents);
+        assertThat(eventLog.stream().filter(ev -> "OrderPlaced".equals(ev.getType())).count()).isEqualTo(1);
     }
 
     @Test
@@ -61,12 +62,16 @@ class FulfillmentSagaOrchestratorTest {
         orchestrator.onOrderPlaced(orderJson); // fail = should compensate
 
         testGateway.setAllocationSuccess(true);
-        orchestrator.onOrderPlaced(orderJson); // retry = should succeed
+        orchestrator.onOrderPlaced(orderJson); // redelivery of the same orderId = ignored as a duplicate
+        // A retry is a new placement, under its own orderId
+        orchestrator.onOrderPlaced(KafkaSerdeUtil.toJson(new OrderEvent("R1-retry", "SKU88", 3, "CX2", java.time.Instant.now())));
 
         List<FulfillmentEvent> eventLog = orchestrator.getEventLog("R1");
-        // Should see both a failure/compensation and then a success event.
         assertThat(eventLog.stream().anyMatch(e -> e.getStatus() == FulfillmentStatus.COMPENSATED)).isTrue();
-        assertThat(eventLog.stream().anyMatch(e -> e.getStatus() == FulfillmentStatus.ALLOCATED || e.getStatus() == FulfillmentStatus.SHIPPED)).isTrue();
+        assertThat(eventLog.stream().noneMatch(e -> e.getStatus() == FulfillmentStatus.ALLOCATED)).isTrue();
+        assertThat(orchestrator.getCurrentStatus("R1")).isEqualTo(FulfillmentStatus.COMPENSATED);
+        List<FulfillmentEvent> retryLog = orchestrator.getEventLog("R1-retry");
+        assertThat(retryLog.stream().anyMatch(e -> e.getStatus() == FulfillmentStatus.ALLOCATED || e.getStatus() == FulfillmentStatus.SHIPPED)).isTrue();
     }
 
     @Test
@@ -0,0 +1,77 @@
+package com.example.fulfillmentservice;
+
+import com.example.fulfillmentservice.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FulfillmentStatsReadModelTest {
+
+    private static final Instant T0 = Instant.parse("2025-05-01T10:00:00Z");
+
+    @Test
+    void countsByProductStatusAndMinuteBucket() {
+        FulfillmentStatsReadModel model = new FulfillmentStatsReadModel();
+        model.record("pen", FulfillmentStatus.ALLOCATED, T0);
+        model.record("pen", FulfillmentStatus.ALLOCATED, T0.plusSeconds(30));
+        model.record("pen", FulfillmentStatus.FAILED, T0.plusSeconds(61));
+        model.record("phone", FulfillmentStatus.ALLOCATED, T0.plusSeconds(90));
+
+        FulfillmentStatsReadModel.Snapshot snap = model.snapshot(60, null, T0.plusSeconds(120));
+
+        assertThat(snap.getTotals()).containsEntry(FulfillmentStatus.ALLOCATED, 3L)
+                .containsEntry(FulfillmentStatus.FAILED, 1L);
+        assertThat(snap.getByProduct().get("pen")).containsEntry(FulfillmentStatus.ALLOCATED, 2L);
+        assertThat(snap.getBuckets()).hasSize(2);
+        assertThat(snap.getBuckets().get(0).getStart()).isEqualTo(T0);
+        assertThat(snap.getAllocationFailureRate()).isEqualTo(0.25);
+
+        FulfillmentStatsReadModel.Snapshot penOnly = model.snapshot(60, "pen", T0.plusSeconds(120));
+        assertThat(penOnly.getByProduct()).containsOnlyKeys("pen");
+        assertThat(penOnly.getAllocationFailureRate()).isEqualTo(1.0 / 3);
+    }
+
+    @Test
+    void ringRollsOverAndForgetsExpiredMinutes() {
+        FulfillmentStatsReadModel model = new FulfillmentStatsReadModel(5);
+        model.record("pen", FulfillmentStatus.SHIPPED, T0);
+        model.record("pen", FulfillmentStatus.SHIPPED, T0.plusSeconds(5 * 60)); // same slot, newer minute
+        model.record("pen", FulfillmentStatus.SHIPPED, T0.plusSeconds(30));     // stale, slot already reused
+
+        FulfillmentStatsReadModel.Snapshot snap = model.snapshot(60, null, T0.plusSeconds(5 * 60));
+        assertThat(snap.getTotals()).containsEntry(FulfillmentStatus.SHIPPED, 1L);
+        assertThat(model.snapshot(2, null, T0.plusSeconds(20 * 60)).getBuckets()).isEmpty();
+    }
+
+    @Test
+    void concurrentRecordsAreNotLost() throws Exception {
+        FulfillmentStatsReadModel model = new FulfillmentStatsReadModel();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) model.record("sku", FulfillmentStatus.NEW, T0);
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        assertThat(model.snapshot(1, "sku", T0).getTotals()).containsEntry(FulfillmentStatus.NEW, 80_000L);
+    }
+
+    @Test
+    void orchestratorFeedsReadModelOnEveryAppend() {
+        FulfillmentStatsReadModel model = new FulfillmentStatsReadModel();
+        FulfillmentSagaOrchestrator orch = new FulfillmentSagaOrchestrator(
+                (topic, key, value) -> CompletableFuture.completedFuture(null),
+                new FulfillmentInventoryGateway(), model);
+
+        orch.onOrderPlaced(KafkaSerdeUtil.toJson(new OrderEvent("ST1", "pen", 1, "C1", Instant.now())));
+
+        FulfillmentStatsReadModel.Snapshot snap = model.snapshot(5, "pen", Instant.now());
+        assertThat(snap.getTotals()).containsEntry(FulfillmentStatus.NEW, 1L)
+                .containsEntry(FulfillmentStatus.ALLOCATED, 1L)
+                .containsEntry(FulfillmentStatus.SHIPPED, 1L);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.fulfillmentservice;
+
+import com.example.fulfillmentservice.model.*;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FulfillmentStatusTopologyTest {
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, String> input;
+
+    @BeforeEach
+    void setUp() {
+        StreamsBuilder builder = new StreamsBuilder();
+        FulfillmentStatusTopology.build(builder, "fulfillment-events");
+        driver = new TopologyTestDriver(builder.build());
+        input = driver.createInputTopic("fulfillment-events", new StringSerializer(), new StringSerializer());
+    }
+
+    @AfterEach
+    void tearDown() {
+        driver.close();
+    }
+
+    private void publish(String orderId, FulfillmentStatus status, String type) {
+        FulfillmentEvent evt = new FulfillmentEvent(type + "-" + orderId, orderId, status, type, null,
+                Instant.parse("2025-01-01T00:00:00Z"), orderId, null);
+        input.pipeInput(orderId, KafkaSerdeUtil.toJson(evt));
+    }
+
+    @Test
+    void materializesLatestStatusAndEventList() {
+        publish("O1", FulfillmentStatus.NEW, "OrderPlaced");
+        publish("O1", FulfillmentStatus.ALLOCATED, "AllocationSucceeded");
+        publish("O2", FulfillmentStatus.FAILED, "AllocationFailed");
+        publish("O1", FulfillmentStatus.SHIPPED, "ShippingDone");
+
+        KeyValueStore<String, String> status = driver.getKeyValueStore(FulfillmentStatusTopology.STATUS_STORE);
+        assertThat(status.get("O1")).isEqualTo("SHIPPED");
+        assertThat(status.get("O2")).isEqualTo("FAILED");
+
+        KeyValueStore<String, List<FulfillmentEvent>> events = driver.getKeyValueStore(FulfillmentStatusTopology.EVENTS_STORE);
+        assertThat(events.get("O1")).extracting(FulfillmentEvent::getType)
+                .containsExactly("OrderPlaced", "AllocationSucceeded", "ShippingDone");
+    }
+
+    @Test
+    void ignoresUnkeyedAndCorruptRecords() {
+        input.pipeInput(null, "{}");
+        input.pipeInput("BAD", "{not json");
+        publish("O3", FulfillmentStatus.NEW, "OrderPlaced");
+
+        KeyValueStore<String, String> status = driver.getKeyValueStore(FulfillmentStatusTopology.STATUS_STORE);
+        assertThat(status.get("BAD")).isNull();
+        assertThat(status.get("O3")).isEqualTo("NEW");
+        assertThat(driver.getKeyValueStore(FulfillmentStatusTopology.EVENTS_STORE).get("BAD")).isNull();
+    }
+}
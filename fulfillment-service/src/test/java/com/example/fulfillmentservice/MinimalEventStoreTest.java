@@ -38,9 +38,9 @@ class MinimalEventStoreTest {
         orch.getClass().getDeclaredMethods(); // just to keep from strip
         // Use reflection to call private appendAndPublishEvent
         try {
-            var m = FulfillmentSagaOrchestrator.class.getDeclaredMethod("appendAndPublishEvent", FulfillmentEvent.class);
+            var m = FulfillmentSagaOrchestrator.class.getDeclaredMethod("appendAndPublishEvent", FulfillmentEvent.class, String.class, int.class);
             m.setAccessible(true);
-            m.invoke(orch, evt);
+            m.invoke(orch, evt, null, PartitionedEventStore.UNPARTITIONED);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
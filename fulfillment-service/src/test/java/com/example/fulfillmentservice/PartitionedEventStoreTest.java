@@ -0,0 +1,67 @@
+package com.example.fulfillmentservice;
+
+import com.example.fulfillmentservice.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionedEventStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private FulfillmentSagaOrchestrator newOrchestrator(PartitionedEventStore store) {
+        return new FulfillmentSagaOrchestrator((topic, key, value) -> CompletableFuture.completedFuture(null),
+                new FulfillmentInventoryGateway(), new FulfillmentStatsReadModel(), store);
+    }
+
+    private static String order(String id) {
+        return KafkaSerdeUtil.toJson(new OrderEvent(id, "pen", 1, "C1", Instant.now()));
+    }
+
+    @Test
+    void sagasLandInTheirPartitionShard() {
+        PartitionedEventStore store = new PartitionedEventStore(dir.toString());
+        FulfillmentSagaOrchestrator orch = newOrchestrator(store);
+
+        orch.onOrderPlaced(order("P0-A"), 0);
+        orch.onOrderPlaced(order("P1-A"), 1);
+
+        assertThat(store.ownedPartitions()).containsExactlyInAnyOrder(0, 1);
+        assertThat(store.shard(0)).containsOnlyKeys("P0-A");
+        assertThat(store.shard(1)).containsOnlyKeys("P1-A");
+        assertThat(orch.getEventLog("P1-A")).isNotEmpty();
+    }
+
+    @Test
+    void releasedShardIsCheckpointedAndReloadedOnAssignment() {
+        PartitionedEventStore store = new PartitionedEventStore(dir.toString());
+        FulfillmentSagaOrchestrator orch = newOrchestrator(store);
+        orch.onOrderPlaced(order("P0-A"), 0);
+        orch.onOrderPlaced(order("P1-A"), 1);
+
+        orch.releaseShards(List.of(0));
+        assertThat(store.ownedPartitions()).containsExactly(1);
+        assertThat(orch.getEventLog("P0-A")).isEmpty();
+        assertThat(orch.getCurrentStatus("P0-A")).isNull();
+        assertThat(EventStoreDiskPersistence.shardFile(dir.toFile(), 0)).exists();
+
+        // Another instance picks the partition up from the checkpoint
+        PartitionedEventStore otherStore = new PartitionedEventStore(dir.toString());
+        FulfillmentSagaOrchestrator other = newOrchestrator(otherStore);
+        other.assignShards(List.of(0));
+        assertThat(other.getEventLog("P0-A")).extracting(FulfillmentEvent::getType).startsWith("OrderPlaced");
+        assertThat(other.getCurrentStatus("P0-A")).isEqualTo(FulfillmentStatus.SHIPPED);
+        assertThat(otherStore.size()).isEqualTo(1);
+
+        // Redelivery after the move is still deduplicated
+        other.onOrderPlaced(order("P0-A"), 0);
+        assertThat(other.getEventLog("P0-A").stream().filter(e -> "OrderPlaced".equals(e.getType())).count()).isEqualTo(1);
+    }
+}
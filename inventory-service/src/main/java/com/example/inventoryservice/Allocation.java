@@ -0,0 +1,40 @@
+package com.example.inventoryservice;
+
+import java.util.List;
+
+/**
+ * Where an order's quantity is shipped from: one line per warehouse, and the routing policy that chose them.
+ */
+public class Allocation {
+
+    public enum Policy { PREFERRED, MOST_STOCK, SPLIT }
+
+    /** Quantity taken from one warehouse. */
+    public static class Line {
+        private final String warehouse;
+        private final int quantity;
+
+        public Line(String warehouse, int quantity) {
+            this.warehouse = warehouse;
+            this.quantity = quantity;
+        }
+
+        public String getWarehouse() { return warehouse; }
+        public int getQuantity() { return quantity; }
+    }
+
+    private final String productId;
+    private final Policy policy;
+    private final List<Line> lines;
+
+    public Allocation(String productId, Policy policy, List<Line> lines) {
+        this.productId = productId;
+        this.policy = policy;
+        this.lines = lines;
+    }
+
+    public String getProductId() { return productId; }
+    public Policy getPolicy() { return policy; }
+    public List<Line> getLines() { return lines; }
+    public boolean isSplit() { return lines.size() > 1; }
+}
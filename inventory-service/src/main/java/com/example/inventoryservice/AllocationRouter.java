@@ -0,0 +1,230 @@
+package com.example.inventoryservice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Chooses the warehouses an order ships from and takes the stock there.
+ *
+ * Policy, in order: the preferred warehouse if it can ship the whole quantity; otherwise the candidate
+ * with the most stock if it can; otherwise a split shipment, taking from candidates in descending stock
+ * order. Only the product's own candidate list is looked at, never the full warehouse list. Stock is taken
+ * by CAS per warehouse; a split that cannot be completed gives back what it took. Reservations that do not
+ * choose a warehouse {@link #trim} the warehouses down to the product's total, booking what they take as
+ * reserved there, and a cancelled reservation is {@link #restore}d to those warehouses.
+ */
+public class AllocationRouter {
+
+    private static final int MAX_ATTEMPTS = 8;
+
+    private final WarehouseStock warehouses;
+    // Stock that reservations took out of each warehouse without choosing it; cancellations put it back there
+    private final WarehouseStock reserved = new WarehouseStock();
+
+    public AllocationRouter(WarehouseStock warehouses) {
+        this.warehouses = warehouses;
+    }
+
+    /**
+     * Allocates {@code qty} of the product, preferring {@code preferredWarehouse} (may be null).
+     * Returns null, taking nothing, if the warehouses do not hold enough between them.
+     */
+    public Allocation route(int sku, String productId, int qty, String preferredWarehouse) {
+        if (qty <= 0) throw new IllegalArgumentException("Quantity must be positive");
+        int preferred = warehouses.warehouseId(preferredWarehouse);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            WarehouseStock.Locations l = warehouses.locations(sku);
+            int n = l.warehouses.length;
+            if (n == 0) return null;
+            int[] stock = new int[n];
+            boolean moved = false;
+            int best = 0;
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                stock[i] = l.stock.get(i);
+                if (stock[i] == WarehouseStock.MOVED) {
+                    moved = true;
+                    break;
+                }
+                total += stock[i];
+                if (stock[i] > stock[best]) best = i;
+            }
+            if (moved) continue;
+            if (total < qty) return null;
+
+            int p = preferred < 0 ? -1 : l.indexOf(preferred);
+            if (p >= 0 && stock[p] >= qty) {
+                if (take(l, p, qty)) return single(productId, Allocation.Policy.PREFERRED, l, p, qty);
+                continue;
+            }
+            if (stock[best] >= qty) {
+                if (take(l, best, qty)) return single(productId, Allocation.Policy.MOST_STOCK, l, best, qty);
+                continue;
+            }
+            Allocation split = split(sku, l, productId, qty, stock);
+            if (split != null) return split;
+        }
+        return null;
+    }
+
+    /**
+     * Takes stock out of the product's warehouses, most stock first, until they hold no more than
+     * {@code total} (read again after every step), and books it as reserved in those warehouses. Reservations
+     * that choose no warehouse call this once they have taken from the total, so stock without a warehouse is
+     * used first. Returns what was taken from each warehouse.
+     */
+    public List<Allocation.Line> trim(int sku, IntSupplier total) {
+        List<Allocation.Line> taken = new ArrayList<>(1);
+        while (true) {
+            WarehouseStock.Locations l = warehouses.locations(sku);
+            int n = l.warehouses.length;
+            if (n == 0) return taken;
+            int best = -1;
+            int bestStock = 0;
+            long held = 0;
+            boolean moved = false;
+            for (int i = 0; i < n; i++) {
+                int s = l.stock.get(i);
+                if (s == WarehouseStock.MOVED) {
+                    moved = true;
+                    break;
+                }
+                held += s;
+                if (s > bestStock) {
+                    best = i;
+                    bestStock = s;
+                }
+            }
+            if (moved) continue;
+            long excess = held - total.getAsInt();
+            if (excess <= 0 || best < 0) return taken;
+            // Threads trimming from the same cells pick the same one, so all but one CAS fail and look again
+            int got = (int) Math.min(bestStock, excess);
+            if (!l.stock.compareAndSet(best, bestStock, bestStock - got)) continue;
+            String name = warehouses.warehouseName(l.warehouses[best]);
+            reserved.give(sku, reserved.warehouse(name), got);
+            taken.add(new Allocation.Line(name, got));
+        }
+    }
+
+    /**
+     * Puts up to {@code qty} of the product's reserved stock back into the warehouses {@link #trim} took it
+     * from, most reserved first, for a cancelled reservation. Returns what was put back in each warehouse.
+     */
+    public List<Allocation.Line> restore(int sku, int qty) {
+        List<Allocation.Line> restored = new ArrayList<>(1);
+        int remaining = qty;
+        while (remaining > 0) {
+            WarehouseStock.Locations l = reserved.locations(sku);
+            int n = l.warehouses.length;
+            if (n == 0) break;
+            int[] stock = new int[n];
+            boolean moved = false;
+            for (int i = 0; i < n && !moved; i++) {
+                stock[i] = l.stock.get(i);
+                moved = stock[i] == WarehouseStock.MOVED;
+            }
+            if (moved) continue;
+            int best = byStockDescending(stock)[0];
+            if (stock[best] <= 0) break;
+            int got = takeUpTo(l, best, remaining);
+            if (got <= 0) continue;
+            String name = reserved.warehouseName(l.warehouses[best]);
+            warehouses.give(sku, warehouses.warehouse(name), got);
+            restored.add(new Allocation.Line(name, got));
+            remaining -= got;
+        }
+        return restored;
+    }
+
+    /** Applies a logged change of a warehouse's stock and reserved stock (recovery). */
+    void apply(int sku, String warehouse, int qty, int reservedQty) {
+        if (qty != 0) warehouses.give(sku, warehouses.warehouse(warehouse), qty);
+        if (reservedQty != 0) reserved.give(sku, reserved.warehouse(warehouse), reservedQty);
+    }
+
+    /** Calls {@code action} for each warehouse holding stock or reserved stock of the product. */
+    void forEachWarehouse(int sku, WarehouseAction action) {
+        for (int id : warehouses.locations(sku).warehouses) {
+            String name = warehouses.warehouseName(id);
+            int stock = warehouses.stock(sku, id);
+            int held = reserved.stock(sku, reserved.warehouseId(name));
+            if (stock != 0 || held != 0) action.accept(name, stock, held);
+        }
+    }
+
+    /** Receives one warehouse's stock and reserved stock of a product. */
+    interface WarehouseAction {
+        void accept(String warehouse, int stock, int reserved);
+    }
+
+    /** Gives the allocation's stock back to its warehouses. */
+    public void release(int sku, Allocation allocation) {
+        for (Allocation.Line line : allocation.getLines()) {
+            warehouses.give(sku, warehouses.warehouse(line.getWarehouse()), line.getQuantity());
+        }
+    }
+
+    // Largest stock first, so the order ships in as few parcels as possible
+    private Allocation split(int sku, WarehouseStock.Locations l, String productId, int qty, int[] stock) {
+        int n = stock.length;
+        int[] order = byStockDescending(stock);
+        List<Allocation.Line> lines = new ArrayList<>();
+        int[] taken = new int[n];
+        int remaining = qty;
+        for (int k = 0; k < n && remaining > 0; k++) {
+            int i = order[k];
+            int got = takeUpTo(l, i, remaining);
+            if (got < 0) break; // list replaced underneath us
+            if (got == 0) continue;
+            taken[i] = got;
+            remaining -= got;
+            lines.add(new Allocation.Line(warehouses.warehouseName(l.warehouses[i]), got));
+        }
+        if (remaining == 0) return new Allocation(productId, Allocation.Policy.SPLIT, lines);
+        // Not enough after all (concurrent allocations): give back and let the caller retry
+        for (int i = 0; i < n; i++) {
+            if (taken[i] > 0) warehouses.give(sku, l.warehouses[i], taken[i]);
+        }
+        return null;
+    }
+
+    // Insertion sort of the (short) candidate list by the stock seen
+    private static int[] byStockDescending(int[] stock) {
+        int n = stock.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            int j = i;
+            while (j > 0 && stock[order[j - 1]] < stock[i]) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = i;
+        }
+        return order;
+    }
+
+    private Allocation single(String productId, Allocation.Policy policy, WarehouseStock.Locations l, int i, int qty) {
+        return new Allocation(productId, policy, List.of(new Allocation.Line(warehouses.warehouseName(l.warehouses[i]), qty)));
+    }
+
+    private static boolean take(WarehouseStock.Locations l, int i, int qty) {
+        while (true) {
+            int current = l.stock.get(i);
+            if (current == WarehouseStock.MOVED || current < qty) return false;
+            if (l.stock.compareAndSet(i, current, current - qty)) return true;
+        }
+    }
+
+    // Takes as much as is there, up to max; -1 if the cell was frozen
+    private static int takeUpTo(WarehouseStock.Locations l, int i, int max) {
+        while (true) {
+            int current = l.stock.get(i);
+            if (current == WarehouseStock.MOVED) return -1;
+            int got = Math.min(current, max);
+            if (got <= 0) return 0;
+            if (l.stock.compareAndSet(i, current, current - got)) return got;
+        }
+    }
+}
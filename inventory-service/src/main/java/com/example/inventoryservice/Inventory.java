@@ -1,19 +1,22 @@
 package com.example.inventoryservice;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Domain model for inventory item (e.g., a SKU in a warehouse).
+ * Stock is an atomic counter, so concurrent reservations on one SKU never need a lock.
  */
 public class Inventory {
     private String productId;
     private String productName;
-    private int stock;
+    private final AtomicInteger stock = new AtomicInteger();
 
     public Inventory() { }
 
     public Inventory(String productId, String productName, int stock) {
         this.productId = productId;
         this.productName = productName;
-        this.stock = stock;
+        this.stock.set(stock);
     }
 
     public String getProductId() {
@@ -33,21 +36,32 @@ public class Inventory {
     }
 
     public int getStock() {
-        return stock;
+        return stock.get();
     }
 
     public void setStock(int stock) {
-        this.stock = stock;
+        this.stock.set(stock);
     }
 
-    public void decrementStock(int qty) {
+    /**
+     * Conditional decrement: takes {@code qty} only if that much is available.
+     * Returns false (without throwing) when stock is insufficient.
+     */
+    public boolean tryDecrementStock(int qty) {
         if (qty <= 0) throw new IllegalArgumentException("Quantity must be positive");
-        if (stock < qty) throw new IllegalStateException("Insufficient stock");
-        stock -= qty;
+        while (true) {
+            int current = stock.get();
+            if (current < qty) return false;
+            if (stock.compareAndSet(current, current - qty)) return true;
+        }
+    }
+
+    public void decrementStock(int qty) {
+        if (!tryDecrementStock(qty)) throw new IllegalStateException("Insufficient stock");
     }
 
     public void incrementStock(int qty) {
         if (qty <= 0) throw new IllegalArgumentException("Quantity must be positive");
-        stock += qty;
+        stock.updateAndGet(s -> Math.addExact(s, qty));
     }
 }
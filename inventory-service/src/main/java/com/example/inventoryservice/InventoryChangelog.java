@@ -0,0 +1,317 @@
+package com.example.inventoryservice;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of stock mutations, split into numbered segment files ({@code changelog-<n>.log}).
+ *
+ * Records are {@code [int length][int crc32c][body]}; the body is an ADD (handle, qty, id, name), a DELTA
+ * (handle, signed qty), a RESERVE (handle, signed qty, order quantity, timestamp, order id): a stock change
+ * made for an order, which also restores the order's entry in the {@link ReservationHistory}, or a WAREHOUSE
+ * (handle, signed qty, signed reserved qty, warehouse): a change of the product's stock in one warehouse.
+ * Appends go to an in-memory buffer and {@link #sync} writes and fsyncs everything appended so far, so threads that wait at the same time share one fsync (group commit). Positions are
+ * logical byte counts across segments. A torn or corrupt record ends replay of its segment.
+ */
+public class InventoryChangelog implements AutoCloseable {
+
+    private static final byte ADD = 1;
+    private static final byte DELTA = 2;
+    private static final byte RESERVE = 3;
+    private static final byte WAREHOUSE = 4;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final String PREFIX = "changelog-";
+    private static final String SUFFIX = ".log";
+
+    /** Receives replayed records. */
+    public interface Replay {
+        void add(int handle, String productId, String productName, int qty);
+        void delta(int handle, int qty);
+
+        /** A stock change of {@code qty} made by reserving {@code orderQuantity} for the order. */
+        default void reserve(int handle, int qty, String orderId, int orderQuantity, long timestamp) {
+            delta(handle, qty);
+        }
+
+        /** A change of the product's stock ({@code qty}) and reserved stock in one warehouse. */
+        default void warehouse(int handle, String warehouse, int qty, int reservedQty) { }
+    }
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final Object syncLock = new Object();
+
+    // Guarded by this
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private long appended;
+    private long records;
+
+    // Guarded by syncLock
+    private FileChannel channel;
+    private int segment;
+    private long syncs;
+    private volatile long synced;
+
+    /** Opens a new, empty segment {@code segment}; older segments are left for {@link #replay}. */
+    public InventoryChangelog(Path dir, int segment, long segmentBytes) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.segment = segment;
+        this.channel = open(dir, segment);
+    }
+
+    /** Logs a product being added (or stock added to it); returns the position to {@link #sync} to. */
+    public synchronized long appendAdd(int handle, String productId, String productName, int qty) {
+        byte[] id = productId.getBytes(StandardCharsets.UTF_8);
+        byte[] name = productName.getBytes(StandardCharsets.UTF_8);
+        int start = begin(1 + 4 + 4 + 2 + id.length + 2 + name.length);
+        pending.put(ADD).putInt(handle).putInt(qty)
+                .putShort((short) id.length).put(id)
+                .putShort((short) name.length).put(name);
+        return end(start);
+    }
+
+    /** Logs a stock change of {@code qty} (negative for a reservation); returns the position to sync to. */
+    public synchronized long appendDelta(int handle, int qty) {
+        int start = begin(1 + 4 + 4);
+        pending.put(DELTA).putInt(handle).putInt(qty);
+        return end(start);
+    }
+
+    /**
+     * Logs a stock change of {@code qty} made by reserving stock for an order (0 to re-log a reservation
+     * whose change an older segment holds); returns the position to sync to.
+     */
+    public synchronized long appendReserve(int handle, int qty, String orderId, int orderQuantity, long timestamp) {
+        byte[] id = orderId.getBytes(StandardCharsets.UTF_8);
+        int start = begin(1 + 4 + 4 + 4 + 8 + 2 + id.length);
+        pending.put(RESERVE).putInt(handle).putInt(qty).putInt(orderQuantity).putLong(timestamp)
+                .putShort((short) id.length).put(id);
+        return end(start);
+    }
+
+    /**
+     * Logs a change of the product's stock and reserved stock in a warehouse (their full amounts to re-log
+     * the warehouse after a checkpoint); returns the position to sync to.
+     */
+    public synchronized long appendWarehouse(int handle, String warehouse, int qty, int reservedQty) {
+        byte[] name = warehouse.getBytes(StandardCharsets.UTF_8);
+        int start = begin(1 + 4 + 4 + 4 + 2 + name.length);
+        pending.put(WAREHOUSE).putInt(handle).putInt(qty).putInt(reservedQty)
+                .putShort((short) name.length).put(name);
+        return end(start);
+    }
+
+    private int begin(int bodyBytes) {
+        int needed = RECORD_HEADER_BYTES + bodyBytes;
+        if (pending.remaining() < needed) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + needed));
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+        int start = pending.position();
+        pending.position(start + RECORD_HEADER_BYTES);
+        return start;
+    }
+
+    private long end(int start) {
+        int bodyStart = start + RECORD_HEADER_BYTES;
+        int length = pending.position() - bodyStart;
+        CRC32C crc = new CRC32C();
+        crc.update(pending.array(), bodyStart, length);
+        pending.putInt(start, length);
+        pending.putInt(start + 4, (int) crc.getValue());
+        appended += RECORD_HEADER_BYTES + length;
+        records++;
+        return appended;
+    }
+
+    /** Blocks until everything up to {@code position} is on disk. */
+    public void sync(long position) {
+        if (synced >= position) return;
+        synchronized (syncLock) {
+            if (synced >= position) return;
+            flush();
+            if (channelSize() >= segmentBytes) rotate(segment + 1);
+        }
+    }
+
+    /**
+     * Flushes the current segment and starts segment {@code next}; everything appended before belongs to
+     * older segments. Called with appends excluded, so the segment boundary is a consistent cut.
+     */
+    public void rotate(int next) {
+        synchronized (syncLock) {
+            flush();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            channel = open(dir, next);
+            segment = next;
+        }
+    }
+
+    // Called with syncLock held: take what is pending, write it and fsync once for all of it
+    private void flush() {
+        ByteBuffer out;
+        long upTo;
+        synchronized (this) {
+            upTo = appended;
+            if (pending.position() == 0) {
+                synced = upTo;
+                return;
+            }
+            out = pending.flip();
+            pending = ByteBuffer.allocate(Math.max(64 * 1024, out.capacity()));
+        }
+        try {
+            while (out.hasRemaining()) channel.write(out);
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        syncs++;
+        synced = upTo;
+    }
+
+    private long channelSize() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int getSegment() {
+        synchronized (syncLock) {
+            return segment;
+        }
+    }
+
+    public synchronized long getRecords() { return records; }
+    public long getSyncs() { synchronized (syncLock) { return syncs; } }
+    public synchronized long getAppendedBytes() { return appended; }
+
+    @Override
+    public void close() {
+        synchronized (syncLock) {
+            flush();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /** Replays every segment numbered {@code from} or later, in order; returns the highest segment seen (or from - 1). */
+    public static int replay(Path dir, int from, Replay replay) {
+        int last = from - 1;
+        for (int segment : segments(dir)) {
+            if (segment < from) continue;
+            replaySegment(segmentFile(dir, segment), replay);
+            last = segment;
+        }
+        return last;
+    }
+
+    /** Deletes the segments numbered below {@code before}; they are covered by a checkpoint. */
+    public static void deleteBefore(Path dir, int before) {
+        for (int segment : segments(dir)) {
+            if (segment >= before) continue;
+            try {
+                Files.deleteIfExists(segmentFile(dir, segment));
+            } catch (IOException e) {
+                System.out.println("[DEBUG] Could not delete changelog segment " + segment + ": " + e);
+            }
+        }
+    }
+
+    static List<Integer> segments(Path dir) {
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(PREFIX) && n.endsWith(SUFFIX))
+                    .map(n -> Integer.parseInt(n.substring(PREFIX.length(), n.length() - SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void replaySegment(Path file, Replay replay) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size == 0) return;
+            MappedByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32C crc = new CRC32C();
+            while (in.remaining() >= RECORD_HEADER_BYTES) {
+                int length = in.getInt();
+                int checksum = in.getInt();
+                if (length <= 0 || length > in.remaining()) break;
+                ByteBuffer body = in.slice(in.position(), length);
+                crc.reset();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != checksum) break;
+                in.position(in.position() + length);
+                byte type = body.get();
+                int handle = body.getInt();
+                int qty = body.getInt();
+                if (type == ADD) {
+                    replay.add(handle, readString(body), readString(body), qty);
+                } else if (type == DELTA) {
+                    replay.delta(handle, qty);
+                } else if (type == RESERVE) {
+                    int orderQuantity = body.getInt();
+                    long timestamp = body.getLong();
+                    replay.reserve(handle, qty, readString(body), orderQuantity, timestamp);
+                } else if (type == WAREHOUSE) {
+                    int reservedQty = body.getInt();
+                    replay.warehouse(handle, readString(body), qty, reservedQty);
+                }
+            }
+            if (in.hasRemaining()) {
+                System.out.println("[DEBUG] Changelog " + file.getFileName() + " ends with " + in.remaining()
+                        + " unreadable bytes (torn write), ignored");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        byte[] b = new byte[length];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static Path segmentFile(Path dir, int segment) {
+        return dir.resolve(String.format("%s%08d%s", PREFIX, segment, SUFFIX));
+    }
+
+    private static FileChannel open(Path dir, int segment) {
+        try {
+            Files.createDirectories(dir);
+            return FileChannel.open(segmentFile(dir, segment), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
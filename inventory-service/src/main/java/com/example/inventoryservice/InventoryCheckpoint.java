@@ -0,0 +1,99 @@
+package com.example.inventoryservice;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped snapshot of the SKU table.
+ *
+ * Layout: a header {@code [int magic][int segment][int count][int unused]} followed by one record per
+ * handle, in handle order: {@code [int stock][short idLength][id UTF-8][short nameLength][name UTF-8]}.
+ * {@code segment} is the first changelog segment not covered by the snapshot. The file is written
+ * under a temporary name and moved into place once it is fsynced, so a crash mid-write leaves the
+ * previous checkpoint intact. Files are mapped in windows, so their size is not limited to 2 GB.
+ */
+public final class InventoryCheckpoint {
+
+    private static final int MAGIC = 0x494E5643; // "INVC"
+    private static final int HEADER_BYTES = 16;
+    private static final long WINDOW_BYTES = 64L * 1024 * 1024;
+    private static final int MAX_RECORD_BYTES = 4 + 2 + 0xFFFF + 2 + 0xFFFF;
+
+    private InventoryCheckpoint() { }
+
+    /** Writes handles {@code [0, count)} with the given stock levels; ids and names come from the table. */
+    public static void write(Path file, int segment, SkuTable table, int count, int[] stocks) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            MappedByteBuffer out = ch.map(FileChannel.MapMode.READ_WRITE, position, WINDOW_BYTES);
+            out.putInt(MAGIC).putInt(segment).putInt(count).putInt(0);
+            for (int h = 0; h < count; h++) {
+                byte[] id = table.productId(h).getBytes(StandardCharsets.UTF_8);
+                byte[] name = table.productName(h).getBytes(StandardCharsets.UTF_8);
+                int bytes = 4 + 2 + id.length + 2 + name.length;
+                if (out.remaining() < bytes) {
+                    position += out.position();
+                    out.force();
+                    out = ch.map(FileChannel.MapMode.READ_WRITE, position, WINDOW_BYTES);
+                }
+                out.putInt(stocks[h]).putShort((short) id.length).put(id).putShort((short) name.length).put(name);
+            }
+            position += out.position();
+            out.force();
+            ch.truncate(position);
+            ch.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Loads the checkpoint into an empty table (handles come out as they went in) and returns the first
+     * changelog segment to replay, or 0 if there is no checkpoint.
+     */
+    public static int load(Path file, SkuTable table) {
+        if (!Files.exists(file)) return 0;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long position = 0;
+            MappedByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, WINDOW_BYTES));
+            if (size < HEADER_BYTES || in.getInt() != MAGIC) throw new IllegalStateException("Not an inventory checkpoint: " + file);
+            int segment = in.getInt();
+            int count = in.getInt();
+            in.getInt();
+            byte[] buf = new byte[0xFFFF];
+            for (int h = 0; h < count; h++) {
+                // Remap before a record that may not fit in what is left of the window
+                if (in.remaining() < MAX_RECORD_BYTES && position + in.limit() < size) {
+                    position += in.position();
+                    in = ch.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, WINDOW_BYTES));
+                }
+                int stock = in.getInt();
+                int idLength = in.getShort() & 0xFFFF;
+                in.get(buf, 0, idLength);
+                String id = new String(buf, 0, idLength, StandardCharsets.UTF_8);
+                int nameLength = in.getShort() & 0xFFFF;
+                in.get(buf, 0, nameLength);
+                String name = new String(buf, 0, nameLength, StandardCharsets.UTF_8);
+                if (table.add(id, name, stock) != h) throw new IllegalStateException("Checkpoint handle mismatch at " + h);
+            }
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.inventoryservice;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes the SKU table survive restarts: every stock mutation is appended to an {@link InventoryChangelog}
+ * and the table is periodically written to an {@link InventoryCheckpoint}. Recovery loads the checkpoint
+ * and replays the changelog segments written after it.
+ *
+ * Mutations hold the gate's read lock while they change stock and log it, so they run concurrently; a
+ * checkpoint takes the write lock just long enough to start a new changelog segment and copy the stock
+ * column, then writes the file without blocking anyone. Callers sync the changelog after releasing the gate.
+ * Reservations made for orders are logged with their order id and rebuild the {@link ReservationHistory} on
+ * recovery; a checkpoint re-logs the live ones into the new segment, since it drops the segments they were in.
+ * Warehouse stock is logged per change as well and carried over the same way, one record per warehouse.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.durability.enabled", havingValue = "true")
+public class InventoryPersistence implements AutoCloseable {
+
+    private static final String CHECKPOINT_FILE = "checkpoint.bin";
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final Duration checkpointInterval;
+    private final ReadWriteLock gate = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService checkpointer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "inventory-checkpointer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private SkuTable table;
+    private ReservationHistory history;
+    private AllocationRouter router;
+    private volatile InventoryChangelog changelog;
+    private volatile long lastCheckpointMs;
+    private volatile long lastRecoveryMs;
+
+    @Autowired
+    public InventoryPersistence(@Value("${inventory.durability.dir:data/inventory}") String dir,
+                                @Value("${inventory.durability.segment-bytes:268435456}") long segmentBytes,
+                                @Value("${inventory.durability.checkpoint-interval:PT5M}") Duration checkpointInterval) {
+        this(Paths.get(dir), segmentBytes, checkpointInterval);
+    }
+
+    InventoryPersistence(Path dir, long segmentBytes, Duration checkpointInterval) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Recovers the persisted state into the (empty) table, starts a new changelog segment and schedules
+     * checkpoints. Returns true if there was any state to recover.
+     */
+    public boolean open(SkuTable table) {
+        return open(table, null);
+    }
+
+    /** As {@link #open(SkuTable)}, also restoring the reservations still live into {@code history}. */
+    public boolean open(SkuTable table, ReservationHistory history) {
+        return open(table, history, null);
+    }
+
+    /** As {@link #open(SkuTable, ReservationHistory)}, also restoring the warehouse stock into {@code router}. */
+    public synchronized boolean open(SkuTable table, ReservationHistory history, AllocationRouter router) {
+        if (this.table != null) throw new IllegalStateException("Inventory persistence is already open");
+        long start = System.nanoTime();
+        int from = InventoryCheckpoint.load(dir.resolve(CHECKPOINT_FILE), table);
+        int last = InventoryChangelog.replay(dir, from, new InventoryChangelog.Replay() {
+            @Override
+            public void add(int handle, String productId, String productName, int qty) {
+                if (table.add(productId, productName, qty) != handle) {
+                    throw new IllegalStateException("Changelog does not match checkpoint at handle " + handle);
+                }
+            }
+
+            @Override
+            public void delta(int handle, int qty) {
+                table.give(handle, qty);
+            }
+
+            @Override
+            public void reserve(int handle, int qty, String orderId, int orderQuantity, long timestamp) {
+                if (qty != 0) table.give(handle, qty);
+                if (history != null) {
+                    history.restore(new ReservationOutcome(orderId, table.productId(handle), orderQuantity,
+                            ReservationOutcome.Status.RESERVED, null, table.stock(handle), timestamp));
+                }
+            }
+
+            @Override
+            public void warehouse(int handle, String warehouse, int qty, int reservedQty) {
+                if (router != null) router.apply(handle, warehouse, qty, reservedQty);
+            }
+        });
+        this.table = table;
+        this.history = history;
+        this.router = router;
+        this.changelog = new InventoryChangelog(dir, Math.max(from, last + 1), segmentBytes);
+        lastRecoveryMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("[DEBUG] Recovered " + table.size() + " SKUs from " + dir + " in " + lastRecoveryMs + " ms");
+        long interval = checkpointInterval.toMillis();
+        checkpointer.scheduleWithFixedDelay(this::checkpointQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        return table.size() > 0;
+    }
+
+    /** Shared lock every mutation holds while it changes stock and appends to the changelog. */
+    public Lock gate() {
+        return gate.readLock();
+    }
+
+    public long logAdd(int handle, String productId, String productName, int qty) {
+        return changelog.appendAdd(handle, productId, productName, qty);
+    }
+
+    public long logDelta(int handle, int qty) {
+        return changelog.appendDelta(handle, qty);
+    }
+
+    public long logReserve(int handle, int qty, String orderId, int orderQuantity, long timestamp) {
+        return changelog.appendReserve(handle, qty, orderId, orderQuantity, timestamp);
+    }
+
+    public long logWarehouse(int handle, String warehouse, int qty, int reservedQty) {
+        return changelog.appendWarehouse(handle, warehouse, qty, reservedQty);
+    }
+
+    /** Group commit: returns once the changelog is on disk up to {@code position}. */
+    public void sync(long position) {
+        changelog.sync(position);
+    }
+
+    /** Writes a checkpoint of the table and drops the changelog segments it covers. */
+    public synchronized void checkpoint() {
+        if (table == null) return;
+        long start = System.nanoTime();
+        int segment;
+        int count;
+        int[] stocks;
+        long[] carried = new long[1];
+        Lock exclusive = gate.writeLock();
+        exclusive.lock();
+        try {
+            // Consistent cut: the new segment holds exactly the mutations the snapshot does not
+            segment = changelog.getSegment() + 1;
+            changelog.rotate(segment);
+            count = table.size();
+            stocks = new int[count];
+            table.copyStocks(stocks, count);
+            if (history != null) {
+                // The snapshot holds their stock changes; the new segment keeps their order ids
+                history.forEachReserved(o -> carried[0] = changelog.appendReserve(table.handle(o.getProductId()), 0,
+                        o.getOrderId(), o.getQuantity(), o.getTimestamp()));
+            }
+            if (router != null) {
+                // Warehouse stock is not in the snapshot; the new segment starts from its current amounts
+                for (int h = 0; h < count; h++) {
+                    int handle = h;
+                    router.forEachWarehouse(h, (warehouse, stock, reserved) ->
+                            carried[0] = changelog.appendWarehouse(handle, warehouse, stock, reserved));
+                }
+            }
+        } finally {
+            exclusive.unlock();
+        }
+        // On disk before the segments that held them are deleted
+        if (carried[0] > 0) changelog.sync(carried[0]);
+        InventoryCheckpoint.write(dir.resolve(CHECKPOINT_FILE), segment, table, count, stocks);
+        InventoryChangelog.deleteBefore(dir, segment);
+        lastCheckpointMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("[DEBUG] Inventory checkpoint of " + count + " SKUs written in " + lastCheckpointMs + " ms");
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (RuntimeException e) {
+            System.out.println("[DEBUG] Inventory checkpoint failed, changelog kept: " + e);
+        }
+    }
+
+    public long getRecords() { return changelog == null ? 0 : changelog.getRecords(); }
+    public long getSyncs() { return changelog == null ? 0 : changelog.getSyncs(); }
+    public long getLastCheckpointMs() { return lastCheckpointMs; }
+    public long getLastRecoveryMs() { return lastRecoveryMs; }
+
+    // Final checkpoint, so the next start has no changelog to replay
+    @Override
+    public synchronized void close() {
+        checkpointer.shutdownNow();
+        if (table == null) return;
+        checkpoint();
+        changelog.close();
+        table = null;
+    }
+
+    // Stops without a final checkpoint, as a crash would (tests)
+    synchronized void halt() {
+        checkpointer.shutdownNow();
+        if (changelog != null) changelog.close();
+        table = null;
+    }
+}
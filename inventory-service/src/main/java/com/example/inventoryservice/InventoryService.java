@@ -1,19 +1,107 @@
 package com.example.inventoryservice;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
 
 /**
  * Critical business logic for an Amazon-style inventory system.
+ * Lock-free: the catalog is a {@link SkuTable} and each SKU's stock is updated by CAS, so SKUs never contend
+ * with each other and reads never block. With {@link InventoryPersistence} present, every stock change is also
+ * logged and group-committed before the call returns, and the catalog is recovered on startup. With
+ * {@link StockLevelPublisher} present, every changed SKU is marked for the coalesced stock-levels feed.
+ * Every change also updates the {@link LowStockIndex} of products below their reorder threshold.
  */
+@Service
 public class InventoryService {
-    // Simulate a product catalog (productId → Inventory)
-    private final Map<String, Inventory> inventoryMap = new HashMap<>();
+    private static final Duration DEFAULT_RESERVATION_TTL = Duration.ofHours(1);
+    private static final int DEFAULT_RESERVATION_ENTRIES = 1_000_000;
+
+    // Product catalog (productId → handle → stock), held in primitive arrays
+    private final SkuTable skus = new SkuTable();
+    // Stock per (product, warehouse). The total is the warehouses' sum plus stock that has no warehouse (added or
+    // restocked without one); reservations use the latter first and only then take from the warehouses
+    private final WarehouseStock warehouses = new WarehouseStock();
+    private final AllocationRouter router = new AllocationRouter(warehouses);
+    // Products below their reorder threshold
+    private final LowStockIndex lowStock = new LowStockIndex(skus);
+    // orderId → outcome of its reservation, so a redelivered order is not reserved twice; bounded by TTL and size
+    private final ReservationHistory reservations;
+    // Null unless inventory.durability.enabled
+    private final InventoryPersistence persistence;
+    private final boolean recovered;
+    // Null unless inventory.stock-feed.enabled
+    private final StockLevelPublisher stockFeed;
+
+    public InventoryService() {
+        this.reservations = new ReservationHistory(DEFAULT_RESERVATION_TTL, DEFAULT_RESERVATION_ENTRIES);
+        this.persistence = null;
+        this.recovered = false;
+        this.stockFeed = null;
+    }
+
+    public InventoryService(ObjectProvider<InventoryPersistence> persistence,
+                            ObjectProvider<StockLevelPublisher> stockFeed) {
+        this(persistence, stockFeed, DEFAULT_RESERVATION_TTL, DEFAULT_RESERVATION_ENTRIES);
+    }
+
+    @Autowired
+    public InventoryService(ObjectProvider<InventoryPersistence> persistence,
+                            ObjectProvider<StockLevelPublisher> stockFeed,
+                            @Value("${inventory.reservations.dedupe-ttl:PT1H}") Duration reservationTtl,
+                            @Value("${inventory.reservations.dedupe-max-entries:1000000}") int reservationEntries) {
+        this.reservations = new ReservationHistory(reservationTtl, reservationEntries);
+        this.persistence = persistence.getIfAvailable();
+        this.recovered = this.persistence != null && this.persistence.open(skus, reservations, router);
+        this.stockFeed = stockFeed.getIfAvailable();
+        if (this.stockFeed != null) this.stockFeed.start(skus, recovered);
+    }
+
+    /**
+     * Initial catalog as "productId=stock" pairs separated by commas (inventory.seed-stock).
+     */
+    @Value("${inventory.seed-stock:}")
+    void seedStock(String spec) {
+        if (spec == null || spec.isBlank()) return;
+        if (recovered) {
+            System.out.println("[DEBUG] Catalog recovered from disk, ignoring inventory.seed-stock");
+            return;
+        }
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) throw new IllegalArgumentException("Invalid seed stock entry: " + entry);
+            addProduct(parts[0].trim(), parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+    }
+
+    @Value("${inventory.low-stock.hysteresis-percent:10}")
+    void setLowStockHysteresisPercent(int percent) {
+        lowStock.setHysteresisPercent(percent);
+    }
+
+    @Autowired(required = false)
+    void setLowStockAlertSender(LowStockAlertSender sender) {
+        // One thread keeps each product's alerts in crossing order
+        lowStock.setAlertSender(sender, Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "low-stock-alerts");
+            t.setDaemon(true);
+            return t;
+        }));
+    }
 
     /**
      * Add a new product to inventory.
      */
-    public synchronized void addProduct(String productId, String productName, int stock) {
+    public void addProduct(String productId, String productName, int stock) {
         if (productId == null || productId.trim().isEmpty())
             throw new IllegalArgumentException("Product ID must not be empty/null");
         if (productName == null || productName.trim().isEmpty())
@@ -21,73 +109,414 @@ public class InventoryService {
         if (stock < 0)
             throw new IllegalArgumentException("Stock must be zero or positive");
         // Allow duplicates with additive quantity (as per new test spec)
-        if (inventoryMap.containsKey(productId)) {
-            inventoryMap.get(productId).incrementStock(stock);
-        } else {
-            inventoryMap.put(productId, new Inventory(productId, productName, stock));
+        if (persistence == null) {
+            changed(skus.add(productId, productName, stock));
+            return;
         }
+        int sku;
+        long position;
+        Lock gate = persistence.gate();
+        gate.lock();
+        try {
+            // Logged in the order handles are assigned, so replay hands out the same handles
+            synchronized (skus) {
+                sku = skus.add(productId, productName, stock);
+                position = persistence.logAdd(sku, productId, productName, stock);
+            }
+        } finally {
+            gate.unlock();
+        }
+        persistence.sync(position);
+        changed(sku);
     }
 
     /**
      * Attempt to reserve/allocate stock for an order.
      * Returns true if successful, false if out of stock.
      */
-    public synchronized boolean reserveStock(String productId, int qty) {
+    public boolean reserveStock(String productId, int qty) {
         if (productId == null || productId.trim().isEmpty())
             throw new IllegalArgumentException("Product ID must not be empty/null");
         if (qty <= 0)
             throw new IllegalArgumentException("Quantity must be positive");
-        Inventory inv = inventoryMap.get(productId);
-        if (inv == null) throw new IllegalArgumentException("Product not found");
+        int sku = skus.handle(productId);
+        if (sku < 0) throw new IllegalArgumentException("Product not found");
+        return take(sku, qty);
+    }
+
+    /**
+     * Reserve every line of a basket (productId → qty), or none of them.
+     * Returns true if the whole basket was reserved, false (with no stock taken) if any line is short.
+     * Lines are taken in productId order and released again if a later one fails, so there is no global
+     * lock and nothing to deadlock on; a concurrent reader may briefly see stock held by a basket that is
+     * then rolled back.
+     */
+    public boolean reserveBasket(Map<String, Integer> basket) {
+        if (basket == null || basket.isEmpty())
+            throw new IllegalArgumentException("Basket must not be empty");
+        // Resolve and validate every line before touching any stock
+        String[] productIds = new String[basket.size()];
+        int n = 0;
+        for (Map.Entry<String, Integer> line : basket.entrySet()) {
+            if (line.getKey() == null || line.getKey().trim().isEmpty())
+                throw new IllegalArgumentException("Product ID must not be empty/null");
+            if (line.getValue() == null || line.getValue() <= 0)
+                throw new IllegalArgumentException("Quantity must be positive");
+            productIds[n++] = line.getKey();
+        }
+        // A fixed order makes overlapping baskets collide on their first shared SKU, so one of them wins
+        // instead of each taking part of the other's stock and both rolling back
+        Arrays.sort(productIds);
+        int[] lines = new int[n];
+        int[] qtys = new int[n];
+        for (int i = 0; i < n; i++) {
+            lines[i] = skus.handle(productIds[i]);
+            if (lines[i] < 0) throw new IllegalArgumentException("Product not found: " + productIds[i]);
+            qtys[i] = basket.get(productIds[i]);
+        }
+        long position = 0;
+        int failedLine = -1;
+        Lock gate = persistence == null ? null : persistence.gate();
+        if (gate != null) gate.lock();
         try {
-            inv.decrementStock(qty);
-            return true;
-        } catch (IllegalStateException e) {
+            for (int i = 0; i < n && failedLine < 0; i++) {
+                if (!skus.tryTake(lines[i], qtys[i])) {
+                    // Rolled back inside the gate, so a checkpoint never sees the partial basket
+                    for (int j = i - 1; j >= 0; j--) skus.give(lines[j], qtys[j]);
+                    failedLine = i;
+                }
+            }
+            if (failedLine < 0) {
+                for (int i = 0; i < n; i++) {
+                    if (persistence != null) position = persistence.logDelta(lines[i], -qtys[i]);
+                    position = trimWarehouses(lines[i], position);
+                }
+            }
+        } finally {
+            if (gate != null) gate.unlock();
+        }
+        if (failedLine >= 0) {
+            // A feed flush or low-stock check may have seen the rolled-back dip; mark the lines so it is undone
+            for (int j = 0; j < failedLine; j++) changed(lines[j]);
             return false;
         }
+        if (persistence != null) persistence.sync(position);
+        for (int i = 0; i < n; i++) changed(lines[i]);
+        return true;
+    }
+
+    /**
+     * Reserve stock for a run of orders of one product, in order, with a single catalog lookup.
+     * Orders that were already reserved (redelivery) get their recorded outcome back without touching stock.
+     */
+    public List<ReservationOutcome> reserveBatch(String productId, List<Order> orders) {
+        List<ReservationOutcome> outcomes = new ArrayList<>(orders.size());
+        int sku = skus.handle(productId);
+        long now = System.currentTimeMillis();
+        long[] position = new long[1];
+        Lock gate = persistence == null ? null : persistence.gate();
+        if (gate != null) gate.lock();
+        try {
+            for (Order order : orders) {
+                // computeIfAbsent makes the reservation at most once per orderId, even across consumer threads
+                outcomes.add(reservations.computeIfAbsent(order.getId(), id -> reserve(sku, productId, order, now, position)));
+            }
+        } finally {
+            if (gate != null) gate.unlock();
+        }
+        // One group commit for the whole batch
+        if (position[0] > 0) persistence.sync(position[0]);
+        if (sku >= 0) changed(sku);
+        return outcomes;
+    }
+
+    private ReservationOutcome reserve(int sku, String productId, Order order, long now, long[] position) {
+        if (sku < 0) return rejected(order, productId, "product not found", 0, now);
+        if (order.getQuantity() <= 0) return rejected(order, productId, "quantity must be positive", skus.stock(sku), now);
+        if (!skus.tryTake(sku, order.getQuantity())) return rejected(order, productId, "insufficient stock", skus.stock(sku), now);
+        if (persistence != null) position[0] = persistence.logReserve(sku, -order.getQuantity(), order.getId(), order.getQuantity(), now);
+        position[0] = trimWarehouses(sku, position[0]);
+        return new ReservationOutcome(order.getId(), productId, order.getQuantity(),
+                ReservationOutcome.Status.RESERVED, null, skus.stock(sku), now);
+    }
+
+    private static ReservationOutcome rejected(Order order, String productId, String reason, int stock, long now) {
+        return new ReservationOutcome(order.getId(), productId, order.getQuantity(),
+                ReservationOutcome.Status.REJECTED, reason, stock, now);
     }
 
     /**
-     * Cancel reservation—add stock back.
+     * Cancel reservation—add stock back, to the warehouses that reservations took stock from as far as they did
+     * and without a warehouse beyond that.
      */
-    public synchronized void cancelReservation(String productId, int qty) {
+    public void cancelReservation(String productId, int qty) {
         if (productId == null || productId.trim().isEmpty())
             throw new IllegalArgumentException("Product ID must not be empty/null");
         if (qty <= 0)
             throw new IllegalArgumentException("Quantity must be positive");
-        Inventory inv = inventoryMap.get(productId);
-        if (inv == null) throw new IllegalArgumentException("Product not found");
-        inv.incrementStock(qty);
+        int sku = skus.handle(productId);
+        if (sku < 0) throw new IllegalArgumentException("Product not found");
+        if (persistence == null) {
+            skus.give(sku, qty);
+            router.restore(sku, qty);
+            changed(sku);
+            return;
+        }
+        long position;
+        Lock gate = persistence.gate();
+        gate.lock();
+        try {
+            // Total first, so the warehouses never hold more than it
+            skus.give(sku, qty);
+            position = persistence.logDelta(sku, qty);
+            position = logWarehouses(sku, router.restore(sku, qty), 1, true, position);
+        } finally {
+            gate.unlock();
+        }
+        persistence.sync(position);
+        changed(sku);
     }
 
     /**
      * Restock product (e.g., from a supplier).
      */
-    public synchronized void restock(String productId, int qty) {
+    public void restock(String productId, int qty) {
         if (productId == null || productId.trim().isEmpty())
             throw new IllegalArgumentException("Product ID must not be empty/null");
         if (qty <= 0)
             throw new IllegalArgumentException("Quantity must be positive");
-        Inventory inv = inventoryMap.get(productId);
-        if (inv == null) throw new IllegalArgumentException("Product not found");
-        inv.incrementStock(qty);
+        int sku = skus.handle(productId);
+        if (sku < 0) throw new IllegalArgumentException("Product not found");
+        give(sku, qty);
     }
 
     /**
      * Return available stock.
      */
-    public synchronized int getStock(String productId) {
+    public int getStock(String productId) {
+        if (productId == null || productId.trim().isEmpty())
+            throw new IllegalArgumentException("Product ID must not be empty/null");
+        int sku = skus.handle(productId);
+        if (sku < 0) return 0;
+        return skus.stock(sku);
+    }
+
+    /**
+     * Add stock of a product held in a given warehouse; the product's total grows by the same amount.
+     */
+    public void addWarehouseStock(String productId, String productName, String warehouse, int qty) {
+        if (warehouse == null || warehouse.trim().isEmpty())
+            throw new IllegalArgumentException("Warehouse must not be empty/null");
+        if (qty <= 0)
+            throw new IllegalArgumentException("Quantity must be positive");
+        addProduct(productId, productName, 0);
+        int sku = skus.handle(productId);
+        if (persistence == null) {
+            skus.give(sku, qty);
+            warehouses.give(sku, warehouses.warehouse(warehouse), qty);
+            changed(sku);
+            return;
+        }
+        long position;
+        Lock gate = persistence.gate();
+        gate.lock();
+        try {
+            // Total first, so the warehouses never hold more than it
+            skus.give(sku, qty);
+            position = persistence.logDelta(sku, qty);
+            warehouses.give(sku, warehouses.warehouse(warehouse), qty);
+            position = persistence.logWarehouse(sku, warehouse, qty, 0);
+        } finally {
+            gate.unlock();
+        }
+        persistence.sync(position);
+        changed(sku);
+    }
+
+    /**
+     * Reserve {@code qty} and choose the warehouses it ships from: the preferred one (may be null), else the
+     * one with most stock, else a split shipment. Returns null, reserving nothing, if there is not enough.
+     * Stock added without a warehouse counts for reserveStock but cannot be allocated.
+     */
+    public Allocation allocate(String productId, int qty, String preferredWarehouse) {
+        if (productId == null || productId.trim().isEmpty())
+            throw new IllegalArgumentException("Product ID must not be empty/null");
+        if (qty <= 0)
+            throw new IllegalArgumentException("Quantity must be positive");
+        int sku = skus.handle(productId);
+        if (sku < 0) throw new IllegalArgumentException("Product not found");
+        Allocation allocation;
+        long position = 0;
+        Lock gate = persistence == null ? null : persistence.gate();
+        if (gate != null) gate.lock();
+        try {
+            // Warehouses first, so they never hold more than the total
+            allocation = router.route(sku, productId, qty, preferredWarehouse);
+            if (allocation == null) return null;
+            if (!skus.tryTake(sku, qty)) {
+                router.release(sku, allocation);
+                return null;
+            }
+            if (persistence != null) {
+                position = persistence.logDelta(sku, -qty);
+                position = logWarehouses(sku, allocation.getLines(), -1, false, position);
+            }
+        } finally {
+            if (gate != null) gate.unlock();
+        }
+        if (persistence != null) persistence.sync(position);
+        changed(sku);
+        return allocation;
+    }
+
+    /**
+     * Cancel an allocation: stock goes back to the warehouses it was taken from.
+     */
+    public void releaseAllocation(Allocation allocation) {
+        int sku = skus.handle(allocation.getProductId());
+        if (sku < 0) throw new IllegalArgumentException("Product not found");
+        int qty = 0;
+        for (Allocation.Line line : allocation.getLines()) qty += line.getQuantity();
+        long position = 0;
+        Lock gate = persistence == null ? null : persistence.gate();
+        if (gate != null) gate.lock();
+        try {
+            // Total first, so the warehouses never hold more than it
+            skus.give(sku, qty);
+            router.release(sku, allocation);
+            if (persistence != null) {
+                position = persistence.logDelta(sku, qty);
+                position = logWarehouses(sku, allocation.getLines(), 1, false, position);
+            }
+        } finally {
+            if (gate != null) gate.unlock();
+        }
+        if (persistence != null) persistence.sync(position);
+        changed(sku);
+    }
+
+    /**
+     * Return the stock of a product in one warehouse.
+     */
+    public int getWarehouseStock(String productId, String warehouse) {
+        int sku = skus.handle(productId);
+        int id = warehouses.warehouseId(warehouse);
+        if (sku < 0 || id < 0) return 0;
+        return warehouses.stock(sku, id);
+    }
+
+    // Single stock changes; with durability on each is logged under the checkpoint gate and synced after it.
+    // A reservation then trims the warehouses down to the new total
+    private boolean take(int sku, int qty) {
+        if (persistence == null) {
+            if (!skus.tryTake(sku, qty)) return false;
+            trimWarehouses(sku, 0);
+            changed(sku);
+            return true;
+        }
+        long position;
+        Lock gate = persistence.gate();
+        gate.lock();
+        try {
+            if (!skus.tryTake(sku, qty)) return false;
+            position = persistence.logDelta(sku, -qty);
+            position = trimWarehouses(sku, position);
+        } finally {
+            gate.unlock();
+        }
+        persistence.sync(position);
+        changed(sku);
+        return true;
+    }
+
+    private void give(int sku, int qty) {
+        if (persistence == null) {
+            skus.give(sku, qty);
+            changed(sku);
+            return;
+        }
+        long position;
+        Lock gate = persistence.gate();
+        gate.lock();
+        try {
+            skus.give(sku, qty);
+            position = persistence.logDelta(sku, qty);
+        } finally {
+            gate.unlock();
+        }
+        persistence.sync(position);
+        changed(sku);
+    }
+
+    // Takes what the warehouses hold beyond the product's total out of them, logging it; returns the log position
+    private long trimWarehouses(int sku, long position) {
+        return logWarehouses(sku, router.trim(sku, () -> skus.stock(sku)), -1, true, position);
+    }
+
+    // Logs warehouse stock changes of sign * quantity; trimmed and restored stock moves to and from reserved
+    private long logWarehouses(int sku, List<Allocation.Line> lines, int sign, boolean reserved, long position) {
+        if (persistence == null) return position;
+        for (Allocation.Line line : lines) {
+            int qty = sign * line.getQuantity();
+            position = persistence.logWarehouse(sku, line.getWarehouse(), qty, reserved ? -qty : 0);
+        }
+        return position;
+    }
+
+    private void changed(int sku) {
+        lowStock.check(sku);
+        if (stockFeed != null) stockFeed.changed(sku);
+    }
+
+    /**
+     * Set the stock level below which a product is reported low; 0 removes its threshold.
+     */
+    public void setReorderThreshold(String productId, int threshold) {
         if (productId == null || productId.trim().isEmpty())
             throw new IllegalArgumentException("Product ID must not be empty/null");
-        Inventory inv = inventoryMap.get(productId);
-        if (inv == null) return 0;
-        return inv.getStock();
+        if (threshold < 0)
+            throw new IllegalArgumentException("Threshold must be zero or positive");
+        int sku = skus.handle(productId);
+        if (sku < 0) throw new IllegalArgumentException("Product not found");
+        skus.setThreshold(sku, threshold);
+        lowStock.check(sku);
     }
 
     /**
-     * Used for advanced tests: Returns the internal inventory mapping.
+     * Return the reorder threshold of a product (0 if it has none).
      */
-    Map<String, Inventory> getInventoryMap() {
-        return inventoryMap;
+    public int getReorderThreshold(String productId) {
+        int sku = skus.handle(productId);
+        return sku < 0 ? 0 : skus.threshold(sku);
+    }
+
+    /**
+     * Products currently low on stock, from the maintained index: the cost is in the result, not the catalog.
+     */
+    public List<String> getLowStockProducts() {
+        int[] handles = lowStock.handles();
+        List<String> productIds = new ArrayList<>(handles.length);
+        for (int sku : handles) productIds.add(skus.productId(sku));
+        return productIds;
+    }
+
+    /**
+     * Current state of a product as a detached Inventory, or null if it is not in the catalog.
+     */
+    public Inventory getInventory(String productId) {
+        int sku = skus.handle(productId);
+        if (sku < 0) return null;
+        return new Inventory(skus.productId(sku), skus.productName(sku), skus.stock(sku));
+    }
+
+    /**
+     * Used for advanced tests: Returns the catalog storage.
+     */
+    SkuTable getSkuTable() {
+        return skus;
+    }
+
+    LowStockIndex getLowStockIndex() {
+        return lowStock;
     }
 }
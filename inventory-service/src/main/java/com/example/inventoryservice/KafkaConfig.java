@@ -1,28 +1,60 @@
 package com.example.inventoryservice;
 
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.TopicDescription;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class KafkaConfig {
 
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    // Consumer threads when the orders topic cannot be described at startup; otherwise one per partition
+    @Value("${inventory.consumer.concurrency:3}")
+    private int concurrency;
+
+    @Value("${inventory.consumer.partition-lookup-timeout:PT5S}")
+    private Duration partitionLookupTimeout;
+
+    @Value("${inventory.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
     @Bean
     public ConsumerFactory<String, Order> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "inventory-group");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        // Offsets are committed by the container once a batch's reservations are applied and published
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
             new JsonDeserializer<>(Order.class, false));
     }
@@ -32,6 +64,86 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, Order> factory =
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(ordersConcurrency());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
         return factory;
     }
+
+    // One consumer thread per orders partition: fewer leaves partitions queued behind a busy thread, more sit idle
+    int ordersConcurrency() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, (int) partitionLookupTimeout.toMillis());
+        try (AdminClient admin = AdminClient.create(props)) {
+            TopicDescription orders = admin.describeTopics(List.of(OrderConsumer.TOPIC)).allTopicNames()
+                    .get(partitionLookupTimeout.toMillis(), TimeUnit.MILLISECONDS).get(OrderConsumer.TOPIC);
+            int partitions = orders.partitions().size();
+            System.out.println("[DEBUG] Orders topic has " + partitions + " partitions; consumer concurrency " + partitions);
+            return partitions;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.out.println("[DEBUG] Could not describe the orders topic (" + e + "); consumer concurrency " + concurrency);
+        }
+        return concurrency;
+    }
+
+    @Bean
+    public ProducerFactory<String, ReservationOutcome> reservationProducerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<String, ReservationOutcome> reservationKafkaTemplate() {
+        return new KafkaTemplate<>(reservationProducerFactory());
+    }
+
+    @Bean
+    public ProducerFactory<String, StockLevel> stockLevelProducerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        // Idempotent, so a retried batch cannot reorder a product's levels
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<String, StockLevel> stockLevelKafkaTemplate() {
+        return new KafkaTemplate<>(stockLevelProducerFactory());
+    }
+
+    @Bean
+    public ProducerFactory<String, LowStockAlert> lowStockAlertProducerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        // Idempotent, so a retried batch cannot swap a product's LOW and RECOVERED alerts
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<String, LowStockAlert> lowStockAlertKafkaTemplate() {
+        return new KafkaTemplate<>(lowStockAlertProducerFactory());
+    }
+
+    // Compacted: the topic holds the latest level of every product, so a new consumer reads it from the start
+    @Bean
+    public NewTopic stockLevelsTopic(@Value("${inventory.stock-feed.partitions:3}") int partitions) {
+        return TopicBuilder.name(KafkaStockLevelSender.TOPIC).partitions(partitions).compact().build();
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.inventoryservice;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class KafkaLowStockAlertSender implements LowStockAlertSender {
+
+    public static final String TOPIC = "inventory-low-stock";
+
+    private final KafkaTemplate<String, LowStockAlert> kafkaTemplate;
+
+    public KafkaLowStockAlertSender(KafkaTemplate<String, LowStockAlert> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    // Keyed by productId, so a product's LOW and RECOVERED alerts stay in order on one partition
+    @Override
+    public CompletableFuture<Void> send(LowStockAlert alert) {
+        return kafkaTemplate.send(TOPIC, alert.getProductId(), alert).thenApply(r -> null);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.inventoryservice;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class KafkaReservationOutcomeSender implements ReservationOutcomeSender {
+
+    public static final String TOPIC = "inventory-reservations";
+
+    private final KafkaTemplate<String, ReservationOutcome> kafkaTemplate;
+
+    public KafkaReservationOutcomeSender(KafkaTemplate<String, ReservationOutcome> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    @Override
+    public CompletableFuture<Void> send(ReservationOutcome outcome) {
+        return kafkaTemplate.send(TOPIC, outcome.getOrderId(), outcome).thenApply(r -> null);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.inventoryservice;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class KafkaStockLevelSender implements StockLevelSender {
+
+    public static final String TOPIC = "stock-levels";
+
+    private final KafkaTemplate<String, StockLevel> kafkaTemplate;
+
+    public KafkaStockLevelSender(KafkaTemplate<String, StockLevel> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    // Keyed by productId, so compaction keeps the latest level of every product
+    @Override
+    public CompletableFuture<Void> send(StockLevel level) {
+        return kafkaTemplate.send(TOPIC, level.getProductId(), level).thenApply(r -> null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.inventoryservice;
+
+/**
+ * Event on the "inventory-low-stock" topic, keyed by productId: the product's stock crossed its reorder
+ * threshold, going LOW or, past the hysteresis band, RECOVERED. {@code timestamp} is epoch millis at the source.
+ */
+public class LowStockAlert {
+    public enum Type { LOW, RECOVERED }
+
+    private String productId;
+    private Type type;
+    private int stock;
+    private int threshold;
+    private long timestamp;
+
+    public LowStockAlert() {}
+
+    public LowStockAlert(String productId, Type type, int stock, int threshold, long timestamp) {
+        this.productId = productId;
+        this.type = type;
+        this.stock = stock;
+        this.threshold = threshold;
+        this.timestamp = timestamp;
+    }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+    public int getStock() { return stock; }
+    public void setStock(int stock) { this.stock = stock; }
+    public int getThreshold() { return threshold; }
+    public void setThreshold(int threshold) { this.threshold = threshold; }
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+}
@@ -0,0 +1,10 @@
+package com.example.inventoryservice;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes low-stock alerts; completes once the alert is durably written.
+ */
+public interface LowStockAlertSender {
+    CompletableFuture<Void> send(LowStockAlert alert);
+}
@@ -0,0 +1,120 @@
+package com.example.inventoryservice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Products whose stock is below their reorder threshold, kept up to date by every stock change instead of
+ * found by scanning the catalog, so listing them costs O(result).
+ *
+ * A product turns LOW when its stock falls below the threshold and RECOVERED only once stock is back at the
+ * threshold plus a hysteresis band ({@code hysteresisPercent} of the threshold, rounded up), so stock
+ * hovering around the threshold does not flap. The flag lives next to the stock in the {@link SkuTable}.
+ * A change that crosses nothing costs a few volatile reads; a crossing flips the flag under a striped lock
+ * and re-reads the stock afterwards, so a change racing with it is never left unreflected.
+ */
+public class LowStockIndex {
+
+    private static final int STRIPES = 64;
+
+    private final SkuTable table;
+    private final Set<Integer> low = ConcurrentHashMap.newKeySet();
+    private final Object[] stripes = new Object[STRIPES];
+    private volatile int hysteresisPercent = 10;
+    private volatile LowStockAlertSender sender;
+    private volatile Executor executor;
+
+    private final AtomicLong alerts = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public LowStockIndex(SkuTable table) {
+        this.table = table;
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Object();
+    }
+
+    public void setHysteresisPercent(int hysteresisPercent) {
+        if (hysteresisPercent < 0) throw new IllegalArgumentException("Hysteresis must be zero or positive");
+        this.hysteresisPercent = hysteresisPercent;
+    }
+
+    /** Sends every crossing as an alert; the executor should run tasks one at a time, in order. */
+    public void setAlertSender(LowStockAlertSender sender, Executor executor) {
+        this.executor = executor;
+        this.sender = sender;
+    }
+
+    /** Called after every stock or threshold change of the SKU. */
+    public void check(int handle) {
+        if (!crossed(handle)) return;
+        synchronized (stripes[handle & (STRIPES - 1)]) {
+            // Flipping the flag before re-reading the stock pairs with callers changing stock before reading
+            // the flag: one of the two always sees the other's write
+            while (crossed(handle)) {
+                boolean nowLow = !table.isLow(handle);
+                table.setLow(handle, nowLow);
+                if (nowLow) low.add(handle);
+                else low.remove(handle);
+                alert(handle, nowLow ? LowStockAlert.Type.LOW : LowStockAlert.Type.RECOVERED);
+            }
+        }
+    }
+
+    // Whether the SKU's flag disagrees with its stock
+    private boolean crossed(int handle) {
+        int threshold = table.threshold(handle);
+        if (table.isLow(handle)) return threshold <= 0 || table.stock(handle) >= recoverAt(threshold);
+        return threshold > 0 && table.stock(handle) < threshold;
+    }
+
+    private int recoverAt(int threshold) {
+        long band = ((long) threshold * hysteresisPercent + 99) / 100;
+        return (int) Math.min(Integer.MAX_VALUE, threshold + band);
+    }
+
+    private void alert(int handle, LowStockAlert.Type type) {
+        LowStockAlert alert = new LowStockAlert(table.productId(handle), type, table.stock(handle),
+                table.threshold(handle), System.currentTimeMillis());
+        System.out.println("[DEBUG] Stock of " + alert.getProductId() + " is " + type + ": " + alert.getStock()
+                + " against threshold " + alert.getThreshold());
+        LowStockAlertSender s = sender;
+        if (s == null) return;
+        // Off the stock path, so a slow broker never holds up a reservation
+        executor.execute(() -> {
+            CompletableFuture<Void> sent;
+            try {
+                sent = s.send(alert);
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            sent.whenComplete((r, ex) -> {
+                if (ex == null) {
+                    alerts.incrementAndGet();
+                    return;
+                }
+                failed.incrementAndGet();
+                System.out.println("[DEBUG] Low-stock alert for " + alert.getProductId() + " failed: " + ex);
+            });
+        });
+    }
+
+    public boolean isLow(int handle) {
+        return table.isLow(handle);
+    }
+
+    /** Handles of the products currently low on stock. */
+    public int[] handles() {
+        List<Integer> snapshot = new ArrayList<>(low);
+        int[] handles = new int[snapshot.size()];
+        for (int i = 0; i < handles.length; i++) handles[i] = snapshot.get(i);
+        return handles;
+    }
+
+    public int size() { return low.size(); }
+    public long getAlerts() { return alerts.get(); }
+    public long getFailed() { return failed.get(); }
+}
@@ -1,10 +1,13 @@
 package com.example.inventoryservice;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
+
 /**
  * Simple Order POJO for Kafka deserialization.
- * This must match the producer's Order class structure.
+ * This must match the producer's Order class structure; order-service publishes the id as "orderId".
  */
 public class Order {
+    @JsonAlias("orderId")
     private String id;
     private String product;
     private int quantity;
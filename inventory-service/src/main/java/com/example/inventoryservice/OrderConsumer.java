@@ -1,19 +1,64 @@
 package com.example.inventoryservice;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
 /**
- * Kafka Consumer for "orders" topic that updates inventory (demonstrated by a log).
+ * Kafka Consumer for "orders" topic that reserves inventory for each order.
+ *
+ * Each poll is handled as one batch: orders are grouped by product and every product's orders are
+ * reserved in a single pass, in arrival order. The listener returns (and the container commits the
+ * batch's offsets) only after every outcome has been published to "inventory-reservations"; if that
+ * fails the batch is redelivered and already reserved orders replay their recorded outcome.
  */
 @Service
 public class OrderConsumer {
 
-    @KafkaListener(topics = "orders", groupId = "inventory-group")
-    public void consumeOrder(Order order) {
-        System.out.println("Received Order: " + order.getId() +
-            ", product: " + order.getProduct() +
-            ", quantity: " + order.getQuantity());
-        // Simulate inventory logic (could update a DB, etc.)
+    public static final String TOPIC = "orders";
+
+    private final InventoryService inventoryService;
+    private final ReservationOutcomeSender outcomeSender;
+    private final long publishTimeoutMs;
+
+    public OrderConsumer(InventoryService inventoryService,
+                         ReservationOutcomeSender outcomeSender,
+                         @Value("${inventory.consumer.publish-timeout-ms:10000}") long publishTimeoutMs) {
+        this.inventoryService = inventoryService;
+        this.outcomeSender = outcomeSender;
+        this.publishTimeoutMs = publishTimeoutMs;
+    }
+
+    @KafkaListener(topics = TOPIC, groupId = "inventory-group")
+    public void consumeOrders(List<Order> orders) throws Exception {
+        long start = System.nanoTime();
+        Map<String, List<Order>> byProduct = new LinkedHashMap<>();
+        List<ReservationOutcome> outcomes = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            if (order == null || order.getId() == null) continue;
+            if (order.getProduct() == null || order.getProduct().isBlank()) {
+                outcomes.add(new ReservationOutcome(order.getId(), null, order.getQuantity(),
+                        ReservationOutcome.Status.REJECTED, "product is required", 0, System.currentTimeMillis()));
+                continue;
+            }
+            byProduct.computeIfAbsent(order.getProduct(), p -> new ArrayList<>()).add(order);
+        }
+        for (Map.Entry<String, List<Order>> e : byProduct.entrySet()) {
+            outcomes.addAll(inventoryService.reserveBatch(e.getKey(), e.getValue()));
+        }
+
+        List<CompletableFuture<Void>> acks = new ArrayList<>(outcomes.size());
+        for (ReservationOutcome outcome : outcomes) acks.add(outcomeSender.send(outcome));
+        CompletableFuture.allOf(acks.toArray(new CompletableFuture[0])).get(publishTimeoutMs, TimeUnit.MILLISECONDS);
+
+        System.out.println("[DEBUG] Reserved batch of " + orders.size() + " orders across " + byProduct.size() +
+                " products in " + (System.nanoTime() - start) / 1_000 + " us");
     }
 }
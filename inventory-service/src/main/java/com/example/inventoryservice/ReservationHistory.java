@@ -0,0 +1,115 @@
+package com.example.inventoryservice;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Outcomes of recent reservations by order id, so a redelivered order gets its recorded outcome back
+ * instead of being reserved twice.
+ *
+ * Bounded: an entry lives for {@code ttl} from its reservation, which must cover the redelivery window (a
+ * retried batch, a rebalance, a restart), and at most {@code maxEntries} are kept, oldest dropped first.
+ * All entries share one TTL, so insertion order is expiry order and a FIFO queue is enough to evict.
+ * With {@link InventoryPersistence} the RESERVED outcomes are logged along with their stock change and
+ * restored on recovery; a rejection changes no stock and is simply decided again.
+ */
+public class ReservationHistory {
+
+    private static final class Entry {
+        final String orderId;
+        final ReservationOutcome outcome;
+        final long expiresAtMillis;
+
+        Entry(String orderId, ReservationOutcome outcome, long expiresAtMillis) {
+            this.orderId = orderId;
+            this.outcome = outcome;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    // Size of insertionOrder, which is O(n) to ask the queue for
+    private final AtomicInteger queued = new AtomicInteger();
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Clock clock;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ReservationHistory(Duration ttl, int maxEntries) {
+        this(ttl, maxEntries, Clock.systemUTC());
+    }
+
+    ReservationHistory(Duration ttl, int maxEntries, Clock clock) {
+        if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("Reservation history TTL must be positive");
+        if (maxEntries <= 0) throw new IllegalArgumentException("Reservation history size must be positive");
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * The recorded outcome of the order, or else the one {@code reserve} returns, which is recorded;
+     * {@code reserve} runs at most once per order id while its entry lives, even across threads.
+     */
+    public ReservationOutcome computeIfAbsent(String orderId, Function<String, ReservationOutcome> reserve) {
+        long now = clock.millis();
+        Entry[] created = new Entry[1];
+        Entry entry = entries.compute(orderId, (id, current) -> {
+            if (current != null && current.expiresAtMillis > now) return current;
+            created[0] = new Entry(id, reserve.apply(id), now + ttlMillis);
+            return created[0];
+        });
+        if (created[0] != null) {
+            insertionOrder.add(created[0]);
+            queued.incrementAndGet();
+            evict(now);
+        }
+        return entry.outcome;
+    }
+
+    /** Records an outcome recovered from the changelog; ignored if it has already expired. */
+    void restore(ReservationOutcome outcome) {
+        long now = clock.millis();
+        Entry entry = new Entry(outcome.getOrderId(), outcome, outcome.getTimestamp() + ttlMillis);
+        if (entry.expiresAtMillis <= now) return;
+        entries.put(entry.orderId, entry);
+        insertionOrder.add(entry);
+        queued.incrementAndGet();
+        evict(now);
+    }
+
+    /** Live RESERVED outcomes, oldest first (what a checkpoint carries into the next changelog segment). */
+    void forEachReserved(Consumer<ReservationOutcome> action) {
+        long now = clock.millis();
+        for (Entry e : insertionOrder) {
+            if (e.expiresAtMillis > now && entries.get(e.orderId) == e
+                    && e.outcome.getStatus() == ReservationOutcome.Status.RESERVED) {
+                action.accept(e.outcome);
+            }
+        }
+    }
+
+    // Drop expired and replaced entries from the head, then the oldest ones while the queue is over capacity
+    private void evict(long now) {
+        Entry head;
+        while ((head = insertionOrder.peek()) != null
+                && (head.expiresAtMillis <= now || entries.get(head.orderId) != head || queued.get() > maxEntries)) {
+            if (!insertionOrder.remove(head)) continue;
+            queued.decrementAndGet();
+            if (entries.remove(head.orderId, head)) evictions.incrementAndGet();
+        }
+    }
+
+    public int size() { return entries.size(); }
+    int queued() { return queued.get(); }
+    public long getEvictions() { return evictions.get(); }
+}
@@ -0,0 +1,45 @@
+package com.example.inventoryservice;
+
+/**
+ * Result of reserving stock for one order, published to the "inventory-reservations" topic keyed by orderId.
+ */
+public class ReservationOutcome {
+
+    public enum Status { RESERVED, REJECTED }
+
+    private String orderId;
+    private String productId;
+    private int quantity;
+    private Status status;
+    private String reason;
+    private int remainingStock;
+    private long timestamp;
+
+    public ReservationOutcome() {}
+
+    public ReservationOutcome(String orderId, String productId, int quantity, Status status,
+                              String reason, int remainingStock, long timestamp) {
+        this.orderId = orderId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.status = status;
+        this.reason = reason;
+        this.remainingStock = remainingStock;
+        this.timestamp = timestamp;
+    }
+
+    public String getOrderId() { return orderId; }
+    public void setOrderId(String orderId) { this.orderId = orderId; }
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+    public int getRemainingStock() { return remainingStock; }
+    public void setRemainingStock(int remainingStock) { this.remainingStock = remainingStock; }
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+}
@@ -0,0 +1,10 @@
+package com.example.inventoryservice;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes reservation outcomes; completes once the outcome is durably written.
+ */
+public interface ReservationOutcomeSender {
+    CompletableFuture<Void> send(ReservationOutcome outcome);
+}
@@ -0,0 +1,263 @@
+package com.example.inventoryservice;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact catalog storage: product ids are interned into dense int handles, and everything per SKU lives
+ * in chunked primitive arrays instead of an object graph.
+ *
+ * Per SKU: the stock (int), its reorder threshold and low-stock flag (ints), the id's hash (int), a
+ * reference into a char arena holding the id (long), a reference into a separate byte arena holding the
+ * UTF-8 name (long), and about 5 bytes of open-addressing index, plus the id's chars and the name's
+ * bytes. Names are cold: they are only decoded when asked for.
+ * Lookups and stock updates are lock-free (slots are published with release/acquire, stock is updated by
+ * CAS); adding a product takes the table's monitor. Products are never removed.
+ */
+public class SkuTable {
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int ARENA_BITS = 20;
+    private static final int ARENA_SIZE = 1 << ARENA_BITS;
+    // Keeps an id's UTF-8 form within a 2-byte length in the changelog and checkpoint
+    private static final int MAX_ID_LENGTH = 0xFFFF / 3;
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    // Per-handle columns, CHUNK_SIZE handles per chunk; the directories are replaced when they grow
+    private volatile int[][] stocks = new int[0][];
+    private volatile int[][] thresholds = new int[0][];
+    private volatile int[][] lowFlags = new int[0][];
+    private volatile int[][] hashes = new int[0][];
+    private volatile long[][] idRefs = new long[0][];
+    private volatile long[][] nameRefs = new long[0][];
+
+    // Product ids as [length][chars...] and names as [length (2 bytes)][UTF-8...]; an entry never spans chunks
+    private volatile char[][] idArena = new char[0][];
+    private volatile byte[][] nameArena = new byte[0][];
+    private long idArenaEnd;
+    private long nameArenaEnd;
+
+    // Open addressing over handle + 1 (0 = empty); replaced wholesale when it grows
+    private volatile int[] index = new int[1024];
+    private volatile int size;
+
+    /** Handle of the product, or -1 if it is not in the table. */
+    public int handle(String productId) {
+        int hash = spread(productId.hashCode());
+        int[] slots = index;
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int h = (int) INTS.getAcquire(slots, slot) - 1;
+            if (h < 0) return -1;
+            if (hashes[h >>> CHUNK_BITS][h & CHUNK_MASK] == hash && idEquals(h, productId)) return h;
+        }
+    }
+
+    /**
+     * Adds a product with the given stock, or adds the stock to the product if it is already present
+     * (its name is left unchanged). Returns the product's handle.
+     */
+    public synchronized int add(String productId, String productName, int stock) {
+        int existing = handle(productId);
+        if (existing >= 0) {
+            if (stock > 0) give(existing, stock);
+            return existing;
+        }
+        if (productId.length() > MAX_ID_LENGTH) throw new IllegalArgumentException("Product ID is too long");
+        int h = size;
+        if (h == Integer.MAX_VALUE - 1) throw new IllegalStateException("SKU table is full");
+        if ((h & CHUNK_MASK) == 0 && (h >>> CHUNK_BITS) == stocks.length) growColumns();
+        int chunk = h >>> CHUNK_BITS;
+        int offset = h & CHUNK_MASK;
+        int hash = spread(productId.hashCode());
+        stocks[chunk][offset] = stock;
+        hashes[chunk][offset] = hash;
+        idRefs[chunk][offset] = appendId(productId);
+        nameRefs[chunk][offset] = appendName(productName);
+        if ((h + 1) * 4L > index.length * 3L) index = rehash(index.length * 2, h);
+        int[] slots = index;
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) slot = (slot + 1) & mask;
+        // Release: a reader that sees the slot sees the handle's columns and arena entries
+        INTS.setRelease(slots, slot, h + 1);
+        size = h + 1;
+        return h;
+    }
+
+    public int stock(int handle) {
+        return (int) INTS.getVolatile(stocks[handle >>> CHUNK_BITS], handle & CHUNK_MASK);
+    }
+
+    public void setStock(int handle, int stock) {
+        INTS.setVolatile(stocks[handle >>> CHUNK_BITS], handle & CHUNK_MASK, stock);
+    }
+
+    /** Reorder threshold of the product; 0 when it has none. */
+    public int threshold(int handle) {
+        return (int) INTS.getVolatile(thresholds[handle >>> CHUNK_BITS], handle & CHUNK_MASK);
+    }
+
+    public void setThreshold(int handle, int threshold) {
+        INTS.setVolatile(thresholds[handle >>> CHUNK_BITS], handle & CHUNK_MASK, threshold);
+    }
+
+    /** Whether the product is currently flagged as low on stock (maintained by LowStockIndex). */
+    public boolean isLow(int handle) {
+        return (int) INTS.getVolatile(lowFlags[handle >>> CHUNK_BITS], handle & CHUNK_MASK) != 0;
+    }
+
+    public void setLow(int handle, boolean low) {
+        INTS.setVolatile(lowFlags[handle >>> CHUNK_BITS], handle & CHUNK_MASK, low ? 1 : 0);
+    }
+
+    /** Takes {@code qty} if that much is available; returns false (taking nothing) otherwise. */
+    public boolean tryTake(int handle, int qty) {
+        int[] chunk = stocks[handle >>> CHUNK_BITS];
+        int offset = handle & CHUNK_MASK;
+        while (true) {
+            int current = (int) INTS.getVolatile(chunk, offset);
+            if (current < qty) return false;
+            if (INTS.compareAndSet(chunk, offset, current, current - qty)) return true;
+        }
+    }
+
+    public void give(int handle, int qty) {
+        int[] chunk = stocks[handle >>> CHUNK_BITS];
+        int offset = handle & CHUNK_MASK;
+        while (true) {
+            int current = (int) INTS.getVolatile(chunk, offset);
+            if (INTS.compareAndSet(chunk, offset, current, Math.addExact(current, qty))) return;
+        }
+    }
+
+    public String productId(int handle) {
+        long ref = idRefs[handle >>> CHUNK_BITS][handle & CHUNK_MASK];
+        char[] arena = idArena[(int) (ref >>> ARENA_BITS)];
+        int at = (int) (ref & (ARENA_SIZE - 1));
+        return new String(arena, at + 1, arena[at]);
+    }
+
+    public String productName(int handle) {
+        long ref = nameRefs[handle >>> CHUNK_BITS][handle & CHUNK_MASK];
+        byte[] arena = nameArena[(int) (ref >>> ARENA_BITS)];
+        int at = (int) (ref & (ARENA_SIZE - 1));
+        int length = (arena[at] & 0xFF) << 8 | (arena[at + 1] & 0xFF);
+        return new String(arena, at + 2, length, StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Copies the stock of handles {@code [0, count)} into {@code dest}; exact only while nothing updates stock. */
+    public void copyStocks(int[] dest, int count) {
+        int[][] chunks = stocks;
+        for (int c = 0; c * CHUNK_SIZE < count; c++) {
+            System.arraycopy(chunks[c], 0, dest, c * CHUNK_SIZE, Math.min(CHUNK_SIZE, count - c * CHUNK_SIZE));
+        }
+    }
+
+    // Bytes held by the table's arrays, including the unused tail of the last chunks
+    public long memoryBytes() {
+        long columns = (long) stocks.length * CHUNK_SIZE * (Integer.BYTES * 4 + Long.BYTES * 2);
+        long arenas = (long) idArena.length * ARENA_SIZE * Character.BYTES + (long) nameArena.length * ARENA_SIZE;
+        return columns + arenas + (long) index.length * Integer.BYTES;
+    }
+
+    private boolean idEquals(int handle, String productId) {
+        long ref = idRefs[handle >>> CHUNK_BITS][handle & CHUNK_MASK];
+        char[] arena = idArena[(int) (ref >>> ARENA_BITS)];
+        int at = (int) (ref & (ARENA_SIZE - 1));
+        int length = arena[at];
+        if (length != productId.length()) return false;
+        for (int i = 0; i < length; i++) {
+            if (arena[at + 1 + i] != productId.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private void growColumns() {
+        int n = stocks.length + 1;
+        int[][] s = Arrays.copyOf(stocks, n);
+        int[][] t = Arrays.copyOf(thresholds, n);
+        int[][] f = Arrays.copyOf(lowFlags, n);
+        int[][] h = Arrays.copyOf(hashes, n);
+        long[][] i = Arrays.copyOf(idRefs, n);
+        long[][] m = Arrays.copyOf(nameRefs, n);
+        s[n - 1] = new int[CHUNK_SIZE];
+        t[n - 1] = new int[CHUNK_SIZE];
+        f[n - 1] = new int[CHUNK_SIZE];
+        h[n - 1] = new int[CHUNK_SIZE];
+        i[n - 1] = new long[CHUNK_SIZE];
+        m[n - 1] = new long[CHUNK_SIZE];
+        hashes = h;
+        idRefs = i;
+        nameRefs = m;
+        thresholds = t;
+        lowFlags = f;
+        stocks = s;
+    }
+
+    private long appendId(String productId) {
+        int needed = productId.length() + 1;
+        int at = (int) (idArenaEnd & (ARENA_SIZE - 1));
+        // A new chunk when the entry does not fit, or the last one was filled exactly
+        if ((idArenaEnd >>> ARENA_BITS) == idArena.length || at + needed > ARENA_SIZE) {
+            char[][] grown = Arrays.copyOf(idArena, idArena.length + 1);
+            grown[idArena.length] = new char[ARENA_SIZE];
+            idArena = grown;
+            idArenaEnd = (long) (grown.length - 1) << ARENA_BITS;
+            at = 0;
+        }
+        char[] arena = idArena[idArena.length - 1];
+        arena[at] = (char) productId.length();
+        productId.getChars(0, productId.length(), arena, at + 1);
+        long ref = idArenaEnd;
+        idArenaEnd += needed;
+        return ref;
+    }
+
+    private long appendName(String productName) {
+        byte[] utf8 = productName.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length > 0xFFFF) throw new IllegalArgumentException("Product Name is too long");
+        int needed = utf8.length + 2;
+        int at = (int) (nameArenaEnd & (ARENA_SIZE - 1));
+        if ((nameArenaEnd >>> ARENA_BITS) == nameArena.length || at + needed > ARENA_SIZE) {
+            byte[][] grown = Arrays.copyOf(nameArena, nameArena.length + 1);
+            grown[nameArena.length] = new byte[ARENA_SIZE];
+            nameArena = grown;
+            nameArenaEnd = (long) (grown.length - 1) << ARENA_BITS;
+            at = 0;
+        }
+        byte[] arena = nameArena[nameArena.length - 1];
+        arena[at] = (byte) (utf8.length >>> 8);
+        arena[at + 1] = (byte) utf8.length;
+        System.arraycopy(utf8, 0, arena, at + 2, utf8.length);
+        long ref = nameArenaEnd;
+        nameArenaEnd += needed;
+        return ref;
+    }
+
+    // Copy-on-write: readers keep probing the old index until the new one is published
+    private int[] rehash(int capacity, int handles) {
+        int[] slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int h = 0; h < handles; h++) {
+            int slot = hashes[h >>> CHUNK_BITS][h & CHUNK_MASK] & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = h + 1;
+        }
+        return slots;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.inventoryservice;
+
+/**
+ * Value of the compacted "stock-levels" topic, keyed by productId: the inventory's current stock for a
+ * product. {@code version} increases with every change; {@code timestamp} is epoch millis at the source.
+ */
+public class StockLevel {
+    private String productId;
+    private int stock;
+    private long version;
+    private long timestamp;
+
+    public StockLevel() {}
+
+    public StockLevel(String productId, int stock, long version, long timestamp) {
+        this.productId = productId;
+        this.stock = stock;
+        this.version = version;
+        this.timestamp = timestamp;
+    }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+    public int getStock() { return stock; }
+    public void setStock(int stock) { this.stock = stock; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+}
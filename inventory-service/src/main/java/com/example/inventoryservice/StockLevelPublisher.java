@@ -0,0 +1,189 @@
+package com.example.inventoryservice;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Change feed of stock levels for the compacted "stock-levels" topic.
+ *
+ * Stock mutations only mark their SKU dirty (one CAS on a per-handle flag; a SKU already marked costs a
+ * read). Once per {@code window} the flusher publishes the current stock of every dirty SKU, so a hot SKU
+ * yields at most one update per window however many reservations it takes. The flag is cleared before
+ * the stock is read, so a change racing with the flush is picked up by the next one. Versions come from
+ * one counter seeded with the wall clock in nanoseconds, so they keep increasing across restarts.
+ *
+ * Every {@code refresh} the current level of every SKU is published again, changed or not. Consumers judge
+ * freshness by the timestamp of the last record, so a SKU that stops changing (one that sold out, say) must
+ * keep being published; refresh must stay well under the consumers' max staleness (half of it by default).
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.stock-feed.enabled", havingValue = "true")
+public class StockLevelPublisher implements AutoCloseable {
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    private final StockLevelSender sender;
+    private final long windowNanos;
+    private final long refreshMillis;
+    private final Clock clock;
+    private final AtomicLong version;
+
+    private volatile AtomicIntegerArray[] marks = new AtomicIntegerArray[0];
+    private final Queue<Integer> dirty = new ConcurrentLinkedQueue<>();
+    private volatile SkuTable table;
+    private volatile boolean running = true;
+    private volatile long nextRefreshMillis;
+    private Thread flusher;
+
+    private final LongAdder changes = new LongAdder();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Autowired
+    public StockLevelPublisher(StockLevelSender sender,
+                               @Value("${inventory.stock-feed.window:PT0.2S}") Duration window,
+                               @Value("${inventory.stock-feed.refresh:PT15S}") Duration refresh) {
+        this(sender, window, refresh, Clock.systemUTC());
+    }
+
+    StockLevelPublisher(StockLevelSender sender, Duration window, Duration refresh, Clock clock) {
+        if (refresh.isNegative() || refresh.isZero()) throw new IllegalArgumentException("Stock feed refresh must be positive");
+        this.sender = sender;
+        this.windowNanos = window.toNanos();
+        this.refreshMillis = refresh.toMillis();
+        this.clock = clock;
+        this.version = new AtomicLong(TimeUnit.MILLISECONDS.toNanos(clock.millis()));
+    }
+
+    /**
+     * Starts publishing changes of the table. With {@code republishAll} (state recovered from disk) every
+     * SKU is published once first, covering changes a crash kept from reaching the topic.
+     */
+    public synchronized void start(SkuTable table, boolean republishAll) {
+        if (this.table != null) throw new IllegalStateException("Stock level feed is already started");
+        this.table = table;
+        nextRefreshMillis = clock.millis() + refreshMillis;
+        if (republishAll) {
+            for (int h = 0; h < table.size(); h++) changed(h);
+        }
+        flusher = new Thread(this::run, "stock-level-feed");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /** Called after every stock change of the SKU. */
+    public void changed(int handle) {
+        changes.increment();
+        mark(handle);
+    }
+
+    private void mark(int handle) {
+        AtomicIntegerArray chunk = chunk(handle);
+        int i = handle & CHUNK_MASK;
+        if (chunk.get(i) == 0 && chunk.compareAndSet(i, 0, 1)) dirty.add(handle);
+    }
+
+    private AtomicIntegerArray chunk(int handle) {
+        int c = handle >>> CHUNK_BITS;
+        AtomicIntegerArray[] chunks = marks;
+        if (c < chunks.length) return chunks[c];
+        synchronized (this) {
+            chunks = marks;
+            if (c >= chunks.length) {
+                AtomicIntegerArray[] grown = Arrays.copyOf(chunks, c + 1);
+                for (int k = chunks.length; k <= c; k++) grown[k] = new AtomicIntegerArray(1 << CHUNK_BITS);
+                marks = grown;
+                chunks = grown;
+            }
+            return chunks[c];
+        }
+    }
+
+    private void run() {
+        while (running) {
+            LockSupport.parkNanos(windowNanos);
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                System.out.println("[DEBUG] Stock level flush failed: " + e);
+            }
+        }
+    }
+
+    /**
+     * Publishes the current level of every SKU marked since the last flush, or of every SKU when a refresh
+     * is due; returns how many.
+     */
+    public int flush() {
+        SkuTable t = table;
+        if (t == null) return 0;
+        long now = clock.millis();
+        if (now >= nextRefreshMillis) {
+            nextRefreshMillis = now + refreshMillis;
+            for (int h = 0; h < t.size(); h++) mark(h);
+        }
+        // Take this window's SKUs first: a failed send marks its SKU again, for the next flush
+        int[] handles = new int[64];
+        int n = 0;
+        Integer handle;
+        while ((handle = dirty.poll()) != null) {
+            if (n == handles.length) handles = Arrays.copyOf(handles, n * 2);
+            handles[n++] = handle;
+        }
+        for (int i = 0; i < n; i++) {
+            int h = handles[i];
+            chunk(h).set(h & CHUNK_MASK, 0);
+            StockLevel level = new StockLevel(t.productId(h), t.stock(h), version.incrementAndGet(), now);
+            CompletableFuture<Void> sent;
+            try {
+                sent = sender.send(level);
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            sent.whenComplete((r, ex) -> {
+                if (ex == null) {
+                    published.incrementAndGet();
+                    return;
+                }
+                // Published again, with a newer version and the then-current stock
+                failed.incrementAndGet();
+                mark(h);
+            });
+        }
+        return n;
+    }
+
+    public long getChanges() { return changes.sum(); }
+    public long getPublished() { return published.get(); }
+    public long getFailed() { return failed.get(); }
+
+    // Publish what is pending, then stop
+    @Override
+    public void close() {
+        running = false;
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join(TimeUnit.NANOSECONDS.toMillis(windowNanos) + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+}
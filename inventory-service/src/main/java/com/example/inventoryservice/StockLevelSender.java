@@ -0,0 +1,10 @@
+package com.example.inventoryservice;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes stock levels; completes once the level is durably written.
+ */
+public interface StockLevelSender {
+    CompletableFuture<Void> send(StockLevel level);
+}
@@ -0,0 +1,143 @@
+package com.example.inventoryservice;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Stock per (product, warehouse), keyed by the product's SkuTable handle.
+ *
+ * Each product holds its own candidate list: the warehouses that have ever stocked it and one stock cell
+ * per warehouse, so routing looks at a handful of cells instead of every warehouse. Cells are updated by
+ * CAS. Adding a warehouse to a product replaces its list; the old cells are frozen to {@link #MOVED} first,
+ * and a writer that meets a frozen cell re-reads the list and retries, so no update is lost.
+ */
+public class WarehouseStock {
+
+    static final int MOVED = Integer.MIN_VALUE;
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    /** Candidate warehouses of one product and their stock; immutable apart from the cells. */
+    static final class Locations {
+        final int[] warehouses;
+        final AtomicIntegerArray stock;
+
+        Locations(int[] warehouses, AtomicIntegerArray stock) {
+            this.warehouses = warehouses;
+            this.stock = stock;
+        }
+
+        int indexOf(int warehouse) {
+            for (int i = 0; i < warehouses.length; i++) {
+                if (warehouses[i] == warehouse) return i;
+            }
+            return -1;
+        }
+    }
+
+    private static final Locations NONE = new Locations(new int[0], new AtomicIntegerArray(0));
+
+    private final Map<String, Integer> warehouseIds = new ConcurrentHashMap<>();
+    private volatile String[] warehouseNames = new String[0];
+    private volatile Locations[][] locations = new Locations[0][];
+
+    /** Id of the warehouse, registering it on first use. */
+    public int warehouse(String name) {
+        Integer id = warehouseIds.get(name);
+        if (id != null) return id;
+        synchronized (warehouseIds) {
+            id = warehouseIds.get(name);
+            if (id != null) return id;
+            String[] names = Arrays.copyOf(warehouseNames, warehouseNames.length + 1);
+            names[names.length - 1] = name;
+            warehouseNames = names;
+            warehouseIds.put(name, names.length - 1);
+            return names.length - 1;
+        }
+    }
+
+    /** Id of the warehouse, or -1 if it has never been used. */
+    public int warehouseId(String name) {
+        Integer id = name == null ? null : warehouseIds.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String warehouseName(int id) {
+        return warehouseNames[id];
+    }
+
+    public int warehouseCount() {
+        return warehouseNames.length;
+    }
+
+    Locations locations(int sku) {
+        Locations[][] chunks = locations;
+        int c = sku >>> CHUNK_BITS;
+        if (c >= chunks.length) return NONE;
+        Locations l = chunks[c][sku & CHUNK_MASK];
+        return l == null ? NONE : l;
+    }
+
+    /** Adds {@code qty} to the product's stock in the warehouse, adding the warehouse to its candidates if new. */
+    public void give(int sku, int warehouse, int qty) {
+        while (true) {
+            Locations l = locations(sku);
+            int i = l.indexOf(warehouse);
+            if (i < 0) {
+                addCandidate(sku, warehouse);
+                continue;
+            }
+            int current = l.stock.get(i);
+            if (current == MOVED) continue;
+            if (l.stock.compareAndSet(i, current, Math.addExact(current, qty))) return;
+        }
+    }
+
+    /** Stock of the product in the warehouse (0 if it has none there). */
+    public int stock(int sku, int warehouse) {
+        while (true) {
+            Locations l = locations(sku);
+            int i = l.indexOf(warehouse);
+            if (i < 0) return 0;
+            int s = l.stock.get(i);
+            if (s != MOVED) return s;
+        }
+    }
+
+    /** Stock of the product over all warehouses. */
+    public int total(int sku) {
+        retry:
+        while (true) {
+            Locations l = locations(sku);
+            int total = 0;
+            for (int i = 0; i < l.warehouses.length; i++) {
+                int s = l.stock.get(i);
+                if (s == MOVED) continue retry;
+                total += s;
+            }
+            return total;
+        }
+    }
+
+    // Copy-on-write of the product's candidate list; old cells are frozen so in-flight CAS retry on the new list
+    private synchronized void addCandidate(int sku, int warehouse) {
+        Locations old = locations(sku);
+        if (old.indexOf(warehouse) >= 0) return;
+        int n = old.warehouses.length;
+        int[] warehouses = Arrays.copyOf(old.warehouses, n + 1);
+        warehouses[n] = warehouse;
+        AtomicIntegerArray stock = new AtomicIntegerArray(n + 1);
+        for (int i = 0; i < n; i++) stock.set(i, old.stock.getAndSet(i, MOVED));
+        int c = sku >>> CHUNK_BITS;
+        Locations[][] chunks = locations;
+        if (c >= chunks.length) {
+            chunks = Arrays.copyOf(chunks, c + 1);
+            for (int k = locations.length; k <= c; k++) chunks[k] = new Locations[1 << CHUNK_BITS];
+        }
+        chunks[c][sku & CHUNK_MASK] = new Locations(warehouses, stock);
+        locations = chunks;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.inventoryservice;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH latency of AllocationRouter.route (plus release, to keep stock steady) with 100 warehouses and
+ * 1M SKUs, each stocked in {@code locations} random warehouses. {@code policy} picks which rule the
+ * orders end up on. Run through BenchmarkMain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AllocationRouterBenchmark {
+
+    private static final int WAREHOUSES = 100;
+    private static final int SKUS = 1_000_000;
+    private static final int STOCK_PER_LOCATION = 1_000;
+
+    @Param({"4", "16"})
+    public int locations;
+
+    @Param({"PREFERRED", "MOST_STOCK", "SPLIT"})
+    public String policy;
+
+    private WarehouseStock stock;
+    private AllocationRouter router;
+    private String[] names;
+    // First warehouse each SKU was stocked in, for orders that name a warehouse holding the product
+    private int[] home;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stock = new WarehouseStock();
+        router = new AllocationRouter(stock);
+        names = new String[WAREHOUSES];
+        for (int w = 0; w < WAREHOUSES; w++) names[w] = "wh" + w;
+        for (String name : names) stock.warehouse(name);
+        home = new int[SKUS];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int sku = 0; sku < SKUS; sku++) {
+            home[sku] = -1;
+            for (int i = 0; i < locations; i++) {
+                int w = random.nextInt(WAREHOUSES);
+                if (home[sku] < 0) home[sku] = w;
+                stock.give(sku, w, STOCK_PER_LOCATION + random.nextInt(100));
+            }
+        }
+    }
+
+    @Benchmark
+    public Allocation routeAndRelease() {
+        int sku = ThreadLocalRandom.current().nextInt(SKUS);
+        Allocation a;
+        switch (policy) {
+            case "PREFERRED":
+                a = router.route(sku, "SKU", 1, names[home[sku]]);
+                break;
+            case "MOST_STOCK":
+                a = router.route(sku, "SKU", STOCK_PER_LOCATION, null);
+                break;
+            default:
+                a = router.route(sku, "SKU", STOCK_PER_LOCATION * 2 + 100, null);
+        }
+        if (a != null) router.release(sku, a);
+        return a;
+    }
+}
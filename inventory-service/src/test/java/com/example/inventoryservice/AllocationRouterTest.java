@@ -0,0 +1,184 @@
+package com.example.inventoryservice;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationRouterTest {
+
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryService = new InventoryService();
+        inventoryService.addWarehouseStock("TV", "Television", "east", 5);
+        inventoryService.addWarehouseStock("TV", "Television", "west", 8);
+        inventoryService.addWarehouseStock("TV", "Television", "north", 2);
+    }
+
+    @Test
+    void warehouseStockAddsUpToTheTotal() {
+        assertEquals(15, inventoryService.getStock("TV"));
+        assertEquals(8, inventoryService.getWarehouseStock("TV", "west"));
+        assertEquals(0, inventoryService.getWarehouseStock("TV", "south"));
+    }
+
+    @Test
+    void preferredWarehouseWinsWhenItCanShipEverything() {
+        Allocation a = inventoryService.allocate("TV", 2, "north");
+        assertEquals(Allocation.Policy.PREFERRED, a.getPolicy());
+        assertEquals("north", a.getLines().get(0).getWarehouse());
+        assertEquals(0, inventoryService.getWarehouseStock("TV", "north"));
+        assertEquals(13, inventoryService.getStock("TV"));
+    }
+
+    @Test
+    void mostStockWhenThePreferredWarehouseFallsShort() {
+        Allocation a = inventoryService.allocate("TV", 4, "north");
+        assertEquals(Allocation.Policy.MOST_STOCK, a.getPolicy());
+        assertEquals("west", a.getLines().get(0).getWarehouse());
+        assertEquals(4, inventoryService.getWarehouseStock("TV", "west"));
+
+        Allocation b = inventoryService.allocate("TV", 3, null);
+        assertEquals("east", b.getLines().get(0).getWarehouse()); // east now has the most
+    }
+
+    @Test
+    void splitShipmentTakesLargestStockFirst() {
+        Allocation a = inventoryService.allocate("TV", 14, "north");
+        assertEquals(Allocation.Policy.SPLIT, a.getPolicy());
+        assertTrue(a.isSplit());
+        assertEquals("west", a.getLines().get(0).getWarehouse());
+        assertEquals(8, a.getLines().get(0).getQuantity());
+        assertEquals("east", a.getLines().get(1).getWarehouse());
+        assertEquals(5, a.getLines().get(1).getQuantity());
+        assertEquals(1, a.getLines().get(2).getQuantity());
+        assertEquals(1, inventoryService.getStock("TV"));
+    }
+
+    @Test
+    void notEnoughAnywhereReservesNothing() {
+        assertNull(inventoryService.allocate("TV", 16, null));
+        assertEquals(15, inventoryService.getStock("TV"));
+        assertEquals(5, inventoryService.getWarehouseStock("TV", "east"));
+    }
+
+    @Test
+    void stockWithoutAWarehouseCannotBeAllocated() {
+        inventoryService.addProduct("PEN", "Pen", 10);
+        assertNull(inventoryService.allocate("PEN", 1, null));
+        assertEquals(10, inventoryService.getStock("PEN"));
+        assertTrue(inventoryService.reserveStock("PEN", 1));
+    }
+
+    // Reservations that pick no warehouse still take their stock out of the warehouses, most stock first,
+    // so an allocation afterwards cannot ship stock that is already reserved
+    @Test
+    void reservationsKeepTheWarehousesInStepWithTheTotal() {
+        assertTrue(inventoryService.reserveStock("TV", 6));
+        assertEquals(2, inventoryService.getWarehouseStock("TV", "west"));
+        inventoryService.reserveBatch("TV", List.of(new Order("o1", "TV", 4)));
+        assertTrue(inventoryService.reserveBasket(Map.of("TV", 2)));
+        assertEquals(3, inventoryService.getStock("TV"));
+        assertEquals(3, warehouseTotal());
+        assertNull(inventoryService.allocate("TV", 4, null));
+        assertNotNull(inventoryService.allocate("TV", 3, null));
+        assertEquals(0, warehouseTotal());
+        assertEquals(0, inventoryService.getStock("TV"));
+    }
+
+    // Stock without a warehouse is reserved first, so the warehouses keep what can still be allocated
+    @Test
+    void reservationsUseStockWithoutAWarehouseFirst() {
+        inventoryService.addProduct("TV", "Television", 4);
+        assertTrue(inventoryService.reserveStock("TV", 6));
+        assertEquals(13, inventoryService.getStock("TV"));
+        assertEquals(13, warehouseTotal());
+        assertEquals(6, inventoryService.getWarehouseStock("TV", "west"));
+        assertNotNull(inventoryService.allocate("TV", 13, null));
+    }
+
+    // A cancelled reservation goes back to the warehouses it was taken from, so reserve/cancel cycles
+    // never turn allocatable stock into stock without a warehouse
+    @Test
+    void cancelledReservationsCanBeAllocatedAgain() {
+        inventoryService.addWarehouseStock("RADIO", "Radio", "east", 10);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(inventoryService.reserveStock("RADIO", 10));
+            inventoryService.cancelReservation("RADIO", 10);
+        }
+        assertEquals(10, inventoryService.getStock("RADIO"));
+        assertEquals(10, inventoryService.getWarehouseStock("RADIO", "east"));
+        assertNotNull(inventoryService.allocate("RADIO", 1, null));
+        assertNotNull(inventoryService.allocate("RADIO", 9, null));
+    }
+
+    @Test
+    void cancellationsBeyondWhatWasTakenFromWarehousesHaveNoWarehouse() {
+        assertTrue(inventoryService.reserveStock("TV", 3));
+        inventoryService.restock("TV", 2);
+        inventoryService.cancelReservation("TV", 5);
+        assertEquals(19, inventoryService.getStock("TV"));
+        assertEquals(15, warehouseTotal());
+        assertEquals(8, inventoryService.getWarehouseStock("TV", "west"));
+    }
+
+    private int warehouseTotal() {
+        int sum = 0;
+        for (String w : new String[]{"east", "west", "north"}) sum += inventoryService.getWarehouseStock("TV", w);
+        return sum;
+    }
+
+    @Test
+    void releaseReturnsStockToItsWarehouses() {
+        Allocation a = inventoryService.allocate("TV", 14, null);
+        inventoryService.releaseAllocation(a);
+        assertEquals(15, inventoryService.getStock("TV"));
+        assertEquals(5, inventoryService.getWarehouseStock("TV", "east"));
+        assertEquals(8, inventoryService.getWarehouseStock("TV", "west"));
+        assertEquals(2, inventoryService.getWarehouseStock("TV", "north"));
+    }
+
+    // Allocations race with restocks that add new warehouses (replacing the candidate list): nothing is
+    // lost or oversold, and the warehouses add up to the total at the end
+    @Test
+    void concurrentAllocationsAndNewWarehouses() throws Exception {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread restocker = new Thread(() -> {
+            for (int w = 0; w < 40; w++) inventoryService.addWarehouseStock("TV", "Television", "wh" + w, 500);
+        });
+        Thread[] allocators = new Thread[4];
+        for (int t = 0; t < allocators.length; t++) {
+            allocators[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    for (int i = 0; i < 5_000; i++) {
+                        Allocation a = inventoryService.allocate("TV", 1 + random.nextInt(30), "wh" + random.nextInt(40));
+                        if (a != null && random.nextBoolean()) inventoryService.releaseAllocation(a);
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+        }
+        restocker.start();
+        for (Thread t : allocators) t.start();
+        restocker.join();
+        for (Thread t : allocators) t.join();
+        assertNull(failure.get());
+        int sum = 0;
+        for (String w : new String[]{"east", "west", "north"}) sum += inventoryService.getWarehouseStock("TV", w);
+        for (int w = 0; w < 40; w++) {
+            int s = inventoryService.getWarehouseStock("TV", "wh" + w);
+            assertTrue(s >= 0);
+            sum += s;
+        }
+        assertEquals(inventoryService.getStock("TV"), sum);
+    }
+}
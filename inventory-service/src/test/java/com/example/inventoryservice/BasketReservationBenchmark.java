@@ -0,0 +1,62 @@
+package com.example.inventoryservice;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH throughput of InventoryService.reserveBasket by basket size, with stock plentiful (every basket
+ * succeeds) or scarce (most baskets roll back). Baskets draw from a catalog of 256 SKUs.
+ * Run through BenchmarkMain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BasketReservationBenchmark {
+
+    private static final int SKUS = 256;
+    private static final int BASKETS = 1024;
+
+    @Param({"1", "2", "5", "10", "20"})
+    public int basketSize;
+
+    @Param({"plenty", "scarce"})
+    public String stock;
+
+    private InventoryService service;
+    private Map<String, Integer>[] baskets;
+
+    @Setup(Level.Iteration)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        service = new InventoryService();
+        // Scarce: one SKU in sixteen is out of stock, and a basket holding one rolls back the lines before it
+        for (int i = 0; i < SKUS; i++) {
+            int qty = "scarce".equals(stock) && i % 16 == 0 ? 0 : Integer.MAX_VALUE / 2;
+            service.addProduct("SKU" + i, "item", qty);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        baskets = new Map[BASKETS];
+        for (int b = 0; b < BASKETS; b++) {
+            Map<String, Integer> basket = new HashMap<>();
+            while (basket.size() < basketSize) basket.put("SKU" + random.nextInt(SKUS), 1);
+            baskets[b] = basket;
+        }
+    }
+
+    @Benchmark
+    public boolean reserveBasket() {
+        return service.reserveBasket(baskets[ThreadLocalRandom.current().nextInt(BASKETS)]);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.inventoryservice;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Shared launcher for this module's JMH benchmarks; every trial runs in a forked JVM.
+ * Arguments: a regex of the benchmarks to run, then a comma-separated list of thread counts (default 1,4).
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=InventoryContentionBenchmark -Dbenchmark.threads=1,2,4,8,16,32,64
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*";
+        String[] threads = (args.length > 1 ? args[1] : "1,4").split(",");
+        for (String t : threads) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(Integer.parseInt(t.trim()))
+                    .forks(1)
+                    .warmupIterations(1)
+                    .warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(3)
+                    .measurementTime(TimeValue.seconds(1))
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.inventoryservice;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Heap per SKU and full-GC pause with a large catalog: the previous map of Inventory objects against SkuTable.
+ * Run with: mvn test -Dtest=CatalogFootprintBenchmarkTest -Dbenchmark=true [-Dskus=2000000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CatalogFootprintBenchmarkTest {
+
+    private static final int SKUS = Integer.getInteger("skus", 2_000_000);
+
+    @Test
+    void bytesPerSkuAndGcPause() {
+        Map<String, Inventory> map = new ConcurrentHashMap<>();
+        measure("ConcurrentHashMap<String, Inventory>", i -> {
+            String id = "SKU-" + i;
+            map.put(id, new Inventory(id, "Product " + i, 100));
+        });
+        map.clear();
+        SkuTable table = new SkuTable();
+        measure("SkuTable", i -> table.add("SKU-" + i, "Product " + i, 100));
+        System.out.println("[DEBUG] SkuTable arrays: " + table.memoryBytes() / table.size() + " bytes/SKU");
+    }
+
+    // Holds the catalog in the consumer's closure while heap and GC are measured
+    private static void measure(String label, IntConsumer load) {
+        long before = usedAfterGc();
+        long gcBefore = gcMillis();
+        for (int i = 0; i < SKUS; i++) load.accept(i);
+        long loadGcMs = gcMillis() - gcBefore;
+        long start = System.nanoTime();
+        long after = usedAfterGc();
+        long fullGcMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("[DEBUG] " + label + ": " + SKUS + " SKUs, " + (after - before) / SKUS + " bytes/SKU, "
+                + "GC during load " + loadGcMs + " ms, full GC " + fullGcMs + " ms");
+    }
+
+    private static long usedAfterGc() {
+        System.gc();
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) total += Math.max(0, gc.getCollectionTime());
+        return total;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.inventoryservice;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH contention benchmark for stock reservations and reads, lock-free InventoryService against the
+ * previous synchronized implementation. {@code skus=1} puts every thread on one SKU (flash sale);
+ * {@code skus=1024} spreads them out. Run through BenchmarkMain at 1 to 64 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InventoryContentionBenchmark {
+
+    @Param({"lockfree", "synchronized"})
+    public String impl;
+
+    @Param({"1", "1024"})
+    public int skus;
+
+    private Stock stock;
+    private String[] ids;
+
+    interface Stock {
+        boolean reserve(String productId, int qty);
+        int get(String productId);
+    }
+
+    // The service as it was: one monitor for every SKU, exception as the out-of-stock path
+    static final class SynchronizedStock implements Stock {
+        private final Map<String, int[]> stock = new HashMap<>();
+
+        synchronized void add(String productId, int qty) { stock.put(productId, new int[]{qty}); }
+
+        @Override
+        public synchronized boolean reserve(String productId, int qty) {
+            int[] s = stock.get(productId);
+            try {
+                if (s[0] < qty) throw new IllegalStateException("Insufficient stock");
+                s[0] -= qty;
+                return true;
+            } catch (IllegalStateException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public synchronized int get(String productId) { return stock.get(productId)[0]; }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ids = new String[skus];
+        for (int i = 0; i < skus; i++) ids[i] = "SKU" + i;
+        if ("synchronized".equals(impl)) {
+            SynchronizedStock s = new SynchronizedStock();
+            for (String id : ids) s.add(id, Integer.MAX_VALUE / 2);
+            stock = s;
+        } else {
+            InventoryService service = new InventoryService();
+            for (String id : ids) service.addProduct(id, id, Integer.MAX_VALUE / 2);
+            stock = new Stock() {
+                @Override public boolean reserve(String productId, int qty) { return service.reserveStock(productId, qty); }
+                @Override public int get(String productId) { return service.getStock(productId); }
+            };
+        }
+    }
+
+    @Benchmark
+    public boolean reserve() {
+        return stock.reserve(ids[ThreadLocalRandom.current().nextInt(skus)], 1);
+    }
+
+    @Benchmark
+    public int getStock() {
+        return stock.get(ids[ThreadLocalRandom.current().nextInt(skus)]);
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.inventoryservice;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryPersistenceTest {
+
+    @TempDir
+    Path dir;
+
+    private InventoryPersistence persistence() {
+        return new InventoryPersistence(dir, 1 << 20, Duration.ofHours(1));
+    }
+
+    private static InventoryService service(InventoryPersistence persistence) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("persistence", persistence);
+        return new InventoryService(beans.getBeanProvider(InventoryPersistence.class),
+                beans.getBeanProvider(StockLevelPublisher.class));
+    }
+
+    private static Order order(String id, String product, int qty) {
+        Order o = new Order();
+        o.setId(id);
+        o.setProduct(product);
+        o.setQuantity(qty);
+        return o;
+    }
+
+    @Test
+    void recoversFromChangelogAfterCrash() {
+        InventoryPersistence first = persistence();
+        InventoryService service = service(first);
+        service.addProduct("A", "Book", 10);
+        service.addProduct("B", "Pen", 5);
+        service.addProduct("A", "Book", 2);
+        assertTrue(service.reserveStock("A", 3));
+        assertFalse(service.reserveStock("B", 6));
+        service.cancelReservation("B", 1);
+        service.restock("B", 4);
+        assertTrue(service.reserveBasket(Map.of("A", 1, "B", 2)));
+        assertFalse(service.reserveBasket(Map.of("A", 1, "B", 100)));
+        service.reserveBatch("A", List.of(order("o1", "A", 2), order("o2", "A", 100)));
+        first.halt();
+
+        InventoryService recovered = service(persistence());
+        assertEquals(6, recovered.getStock("A"));
+        assertEquals(8, recovered.getStock("B"));
+        assertEquals("Pen", recovered.getInventory("B").getProductName());
+    }
+
+    // A batch redelivered after a crash (its offsets were never committed) must not reserve its orders again,
+    // even when a checkpoint has dropped the segment that logged them
+    @Test
+    void redeliveredOrdersAreNotReservedTwiceAfterRestart() {
+        InventoryPersistence first = persistence();
+        InventoryService service = service(first);
+        service.addProduct("A", "Book", 10);
+        service.reserveBatch("A", List.of(order("o1", "A", 2), order("o2", "A", 3)));
+        first.checkpoint();
+        service.reserveBatch("A", List.of(order("o3", "A", 1)));
+        first.halt();
+
+        InventoryPersistence second = persistence();
+        InventoryService recovered = service(second);
+        assertEquals(4, recovered.getStock("A"));
+        List<ReservationOutcome> replayed = recovered.reserveBatch("A",
+                List.of(order("o1", "A", 2), order("o2", "A", 3), order("o3", "A", 1), order("o4", "A", 4)));
+        for (ReservationOutcome outcome : replayed) assertEquals(ReservationOutcome.Status.RESERVED, outcome.getStatus());
+        assertEquals(3, replayed.get(1).getQuantity());
+        assertEquals(0, recovered.getStock("A"));
+        second.checkpoint();
+        second.halt();
+
+        InventoryService again = service(persistence());
+        assertEquals(0, again.getStock("A"));
+        assertEquals(ReservationOutcome.Status.RESERVED, again.reserveBatch("A", List.of(order("o1", "A", 2))).get(0).getStatus());
+    }
+
+    // Warehouse stock, and what reservations took from each warehouse, survive a crash and a checkpoint
+    @Test
+    void warehouseStockIsRecovered() {
+        InventoryPersistence first = persistence();
+        InventoryService service = service(first);
+        service.addWarehouseStock("TV", "Television", "east", 5);
+        service.addWarehouseStock("TV", "Television", "west", 8);
+        Allocation shipped = service.allocate("TV", 2, "east");
+        assertNotNull(shipped);
+        first.checkpoint();
+        assertTrue(service.reserveStock("TV", 6));
+        service.releaseAllocation(shipped);
+        first.halt();
+
+        InventoryPersistence second = persistence();
+        InventoryService recovered = service(second);
+        assertEquals(7, recovered.getStock("TV"));
+        assertEquals(5, recovered.getWarehouseStock("TV", "east"));
+        assertEquals(2, recovered.getWarehouseStock("TV", "west"));
+        second.checkpoint();
+        recovered.cancelReservation("TV", 6);
+        second.halt();
+
+        InventoryService again = service(persistence());
+        assertEquals(13, again.getStock("TV"));
+        assertEquals(8, again.getWarehouseStock("TV", "west"));
+        assertNotNull(again.allocate("TV", 13, null));
+    }
+
+    @Test
+    void recoversFromCheckpointPlusChangelogTail() {
+        InventoryPersistence first = persistence();
+        InventoryService service = service(first);
+        for (int i = 0; i < 1000; i++) service.addProduct("SKU" + i, "Product " + i, i);
+        first.checkpoint();
+        service.reserveStock("SKU10", 4);
+        service.addProduct("NEW", "New product", 7);
+        first.halt();
+
+        InventoryService recovered = service(persistence());
+        assertEquals(6, recovered.getStock("SKU10"));
+        assertEquals(999, recovered.getStock("SKU999"));
+        assertEquals(7, recovered.getStock("NEW"));
+        assertEquals("Product 500", recovered.getInventory("SKU500").getProductName());
+    }
+
+    @Test
+    void closeCheckpointsAndDropsTheChangelog() {
+        InventoryPersistence first = persistence();
+        InventoryService service = service(first);
+        service.addProduct("A", "Book", 10);
+        service.reserveStock("A", 4);
+        first.close();
+        assertEquals(1, InventoryChangelog.segments(dir).size()); // the empty segment started by the checkpoint
+
+        InventoryService recovered = service(persistence());
+        assertEquals(6, recovered.getStock("A"));
+    }
+
+    @Test
+    void seedStockIsIgnoredOnceStateIsRecovered() {
+        InventoryPersistence first = persistence();
+        InventoryService service = service(first);
+        service.seedStock("A=10");
+        service.reserveStock("A", 3);
+        first.halt();
+
+        InventoryService recovered = service(persistence());
+        recovered.seedStock("A=10");
+        assertEquals(7, recovered.getStock("A"));
+    }
+
+    @Test
+    void tornTailIsIgnored() throws IOException {
+        InventoryPersistence first = persistence();
+        InventoryService service = service(first);
+        service.addProduct("A", "Book", 10);
+        service.reserveStock("A", 1);
+        service.reserveStock("A", 2);
+        first.halt();
+        // Cut the last record in half
+        Path segment = dir.resolve("changelog-00000000.log");
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 4);
+        }
+
+        InventoryService recovered = service(persistence());
+        assertEquals(9, recovered.getStock("A"));
+        assertTrue(Files.exists(dir.resolve("changelog-00000001.log")));
+    }
+
+    // Reservations keep running while checkpoints are taken; every acknowledged reservation survives
+    @Test
+    void checkpointsDuringConcurrentReservationsAreConsistent() throws Exception {
+        InventoryPersistence first = persistence();
+        InventoryService service = service(first);
+        for (int i = 0; i < 16; i++) service.addProduct("SKU" + i, "item", 100_000);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] workers = new Thread[4];
+        for (int t = 0; t < workers.length; t++) {
+            int offset = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 5_000; i++) {
+                        if (service.reserveStock("SKU" + ((i + offset) % 16), 1)) reserved.incrementAndGet();
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            workers[t].start();
+        }
+        for (int i = 0; i < 5; i++) {
+            first.checkpoint();
+            Thread.sleep(20);
+        }
+        for (Thread w : workers) w.join();
+        assertNull(failure.get());
+        assertTrue(first.getSyncs() < first.getRecords(), "group commit shares fsyncs");
+        first.halt();
+
+        InventoryService recovered = service(persistence());
+        int total = 0;
+        for (int i = 0; i < 16; i++) total += recovered.getStock("SKU" + i);
+        assertEquals(16 * 100_000 - reserved.get(), total);
+    }
+}
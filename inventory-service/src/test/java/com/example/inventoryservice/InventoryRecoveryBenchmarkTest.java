@@ -0,0 +1,91 @@
+package com.example.inventoryservice;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+/**
+ * Restart time with a large catalog (checkpoint + changelog tail), and durable reservation throughput with
+ * group commit. Run with: mvn test -Dtest=InventoryRecoveryBenchmarkTest -Dbenchmark=true [-Dskus=10000000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InventoryRecoveryBenchmarkTest {
+
+    private static final int SKUS = Integer.getInteger("skus", 10_000_000);
+    private static final int TAIL = 1_000_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restartTime() {
+        SkuTable table = new SkuTable();
+        for (int i = 0; i < SKUS; i++) table.add("SKU-" + i, "Product " + i, 1000);
+        int[] stocks = new int[SKUS];
+        table.copyStocks(stocks, SKUS);
+        long start = System.nanoTime();
+        InventoryCheckpoint.write(dir.resolve("checkpoint.bin"), 1, table, SKUS, stocks);
+        long writeMs = (System.nanoTime() - start) / 1_000_000;
+        table = null;
+        stocks = null;
+        try (InventoryChangelog tail = new InventoryChangelog(dir, 1, Long.MAX_VALUE)) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long position = 0;
+            for (int i = 0; i < TAIL; i++) position = tail.appendDelta(random.nextInt(SKUS), -1);
+            tail.sync(position);
+        }
+
+        InventoryPersistence persistence = new InventoryPersistence(dir, 256L << 20, Duration.ofHours(1));
+        start = System.nanoTime();
+        persistence.open(new SkuTable());
+        long recoverMs = (System.nanoTime() - start) / 1_000_000;
+        persistence.halt();
+        System.out.println("[DEBUG] " + SKUS + " SKUs: checkpoint write " + writeMs + " ms ("
+                + sizeMb(dir.resolve("checkpoint.bin")) + " MB), recovery incl. " + TAIL + " changelog records "
+                + recoverMs + " ms");
+    }
+
+    @Test
+    void groupCommitThroughput() throws Exception {
+        for (int threads : new int[]{1, 4, 16, 64}) {
+            Path runDir = Files.createTempDirectory(dir, "run");
+            InventoryPersistence persistence = new InventoryPersistence(runDir, 256L << 20, Duration.ofHours(1));
+            StaticListableBeanFactory beans = new StaticListableBeanFactory();
+            beans.addBean("persistence", persistence);
+            InventoryService service = new InventoryService(beans.getBeanProvider(InventoryPersistence.class),
+                    beans.getBeanProvider(StockLevelPublisher.class));
+            for (int i = 0; i < 1024; i++) service.addProduct("SKU" + i, "item", Integer.MAX_VALUE / 2);
+            long end = System.nanoTime() + 2_000_000_000L;
+            long records = persistence.getRecords();
+            long syncs = persistence.getSyncs();
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                workers[t] = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < end) service.reserveStock("SKU" + random.nextInt(1024), 1);
+                });
+                workers[t].start();
+            }
+            for (Thread w : workers) w.join();
+            records = persistence.getRecords() - records;
+            syncs = persistence.getSyncs() - syncs;
+            System.out.println("[DEBUG] " + threads + " threads: " + records / 2 + " durable reservations/s, "
+                    + records / Math.max(1, syncs) + " per fsync");
+            persistence.halt();
+        }
+    }
+
+    private static long sizeMb(Path file) {
+        try {
+            return Files.size(file) >> 20;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -1,5 +1,13 @@
 package com.example.inventoryservice;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -292,4 +300,92 @@ class InventoryServiceTest {
         assertEquals(1, inventoryService.getStock("ABC"));
         assertEquals(0, inventoryService.getStock("abc")); // case-sensitive
     }
+
+    // --- Multi-SKU basket reservation ---
+
+    @Test
+    void reserveBasketTakesEveryLine() {
+        inventoryService.addProduct("A", "a", 5);
+        inventoryService.addProduct("B", "b", 5);
+        assertTrue(inventoryService.reserveBasket(Map.of("A", 2, "B", 5)));
+        assertEquals(3, inventoryService.getStock("A"));
+        assertEquals(0, inventoryService.getStock("B"));
+    }
+
+    @Test
+    void reserveBasketTakesNothingWhenOneLineIsShort() {
+        inventoryService.addProduct("A", "a", 5);
+        inventoryService.addProduct("B", "b", 5);
+        inventoryService.addProduct("C", "c", 1);
+        assertFalse(inventoryService.reserveBasket(Map.of("A", 2, "B", 3, "C", 2)));
+        assertEquals(5, inventoryService.getStock("A"));
+        assertEquals(5, inventoryService.getStock("B"));
+        assertEquals(1, inventoryService.getStock("C"));
+    }
+
+    @Test
+    void reserveBasketRejectsInvalidLinesBeforeTakingStock() {
+        inventoryService.addProduct("A", "a", 5);
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.reserveBasket(Map.of("A", 1, "UNKNOWN", 1)));
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.reserveBasket(Map.of("A", 1, "B", 0)));
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.reserveBasket(Map.of()));
+        assertEquals(5, inventoryService.getStock("A"));
+    }
+
+    // Random overlapping baskets from many threads: stock never goes negative and every unit taken
+    // belongs to a basket that reported success
+    @Test
+    void concurrentBasketsAreAllOrNothing() throws Exception {
+        int skus = 8;
+        int threads = 8;
+        int basketsPerThread = 20_000;
+        for (int i = 0; i < skus; i++) inventoryService.addProduct("SKU" + i, "item", 5_000);
+        AtomicIntegerArray taken = new AtomicIntegerArray(skus);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                    for (int b = 0; b < basketsPerThread; b++) {
+                        Map<String, Integer> basket = new HashMap<>();
+                        int size = 1 + random.nextInt(skus);
+                        while (basket.size() < size) basket.put("SKU" + random.nextInt(skus), 1 + random.nextInt(3));
+                        if (inventoryService.reserveBasket(basket)) {
+                            basket.forEach((id, qty) -> taken.addAndGet(Integer.parseInt(id.substring(3)), qty));
+                        }
+                        for (int i = 0; i < skus; i++) {
+                            if (inventoryService.getStock("SKU" + i) < 0) throw new AssertionError("SKU" + i + " oversold");
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread w : workers) w.join();
+        assertNull(failure.get());
+        for (int i = 0; i < skus; i++) {
+            assertEquals(5_000 - taken.get(i), inventoryService.getStock("SKU" + i));
+        }
+    }
+
+    // Every basket holds the same two SKUs, so a partial reservation would make their stocks drift apart
+    @Test
+    void concurrentBasketsNeverLeavePartialReservations() throws Exception {
+        inventoryService.addProduct("X", "x", 100_000);
+        inventoryService.addProduct("Y", "y", 100_000);
+        Runnable worker = () -> {
+            for (int i = 0; i < 30_000; i++) inventoryService.reserveBasket(Map.of("X", 2, "Y", 2));
+        };
+        List<Thread> workers = List.of(new Thread(worker), new Thread(worker), new Thread(worker), new Thread(worker));
+        workers.forEach(Thread::start);
+        for (Thread w : workers) w.join();
+        assertEquals(inventoryService.getStock("X"), inventoryService.getStock("Y"));
+        assertEquals(0, inventoryService.getStock("X"));
+    }
 }
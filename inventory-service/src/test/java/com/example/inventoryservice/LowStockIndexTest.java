@@ -0,0 +1,154 @@
+package com.example.inventoryservice;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LowStockIndexTest {
+
+    private final List<LowStockAlert> sent = new ArrayList<>();
+    private InventoryService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new InventoryService();
+        service.setLowStockHysteresisPercent(20);
+        // Sent on the calling thread, so alerts can be checked right after the change
+        service.getLowStockIndex().setAlertSender(alert -> {
+            synchronized (sent) {
+                sent.add(alert);
+            }
+            return CompletableFuture.completedFuture(null);
+        }, Runnable::run);
+    }
+
+    @Test
+    void productTurnsLowBelowThresholdAndRecoversPastTheBand() {
+        service.addProduct("BOOK", "Book", 15);
+        service.setReorderThreshold("BOOK", 10);
+        assertTrue(service.getLowStockProducts().isEmpty());
+
+        service.reserveStock("BOOK", 6); // 9
+        assertEquals(List.of("BOOK"), service.getLowStockProducts());
+        service.restock("BOOK", 2); // 11: above the threshold, still inside the band
+        service.reserveStock("BOOK", 2); // 9
+        service.restock("BOOK", 2); // 11
+        assertEquals(List.of("BOOK"), service.getLowStockProducts());
+        service.restock("BOOK", 1); // 12 = 10 + 20%
+        assertTrue(service.getLowStockProducts().isEmpty());
+
+        assertEquals(2, sent.size());
+        assertEquals(LowStockAlert.Type.LOW, sent.get(0).getType());
+        assertEquals("BOOK", sent.get(0).getProductId());
+        assertEquals(9, sent.get(0).getStock());
+        assertEquals(10, sent.get(0).getThreshold());
+        assertEquals(LowStockAlert.Type.RECOVERED, sent.get(1).getType());
+        assertEquals(12, sent.get(1).getStock());
+        assertEquals(2, service.getLowStockIndex().getAlerts());
+    }
+
+    @Test
+    void settingThresholdAboveStockReportsLowAtOnceAndClearingItRecovers() {
+        service.addProduct("PEN", "Pen", 5);
+        service.setReorderThreshold("PEN", 50);
+        assertEquals(50, service.getReorderThreshold("PEN"));
+        assertEquals(List.of("PEN"), service.getLowStockProducts());
+        service.setReorderThreshold("PEN", 0);
+        assertTrue(service.getLowStockProducts().isEmpty());
+        assertEquals(List.of(LowStockAlert.Type.LOW, LowStockAlert.Type.RECOVERED),
+                sent.stream().map(LowStockAlert::getType).toList());
+    }
+
+    @Test
+    void productsWithoutThresholdAreNeverLow() {
+        service.addProduct("INK", "Ink", 1);
+        service.reserveStock("INK", 1);
+        assertTrue(service.getLowStockProducts().isEmpty());
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    void everyStockPathUpdatesTheIndex() {
+        service.addProduct("A", "A", 10);
+        service.addProduct("B", "B", 10);
+        service.setReorderThreshold("A", 5);
+        service.setReorderThreshold("B", 5);
+        assertTrue(service.reserveBasket(Map.of("A", 6, "B", 6)));
+        assertEquals(Set.of("A", "B"), new HashSet<>(service.getLowStockProducts()));
+        service.cancelReservation("A", 6);
+        assertEquals(List.of("B"), service.getLowStockProducts());
+
+        service.reserveBatch("A", List.of(new Order("o-1", "A", 6)));
+        assertEquals(Set.of("A", "B"), new HashSet<>(service.getLowStockProducts()));
+        service.addWarehouseStock("B", "B", "WH-1", 10);
+        assertEquals(List.of("A"), service.getLowStockProducts());
+    }
+
+    @Test
+    void invalidThresholdsAreRejected() {
+        service.addProduct("BOOK", "Book", 1);
+        assertThrows(IllegalArgumentException.class, () -> service.setReorderThreshold("BOOK", -1));
+        assertThrows(IllegalArgumentException.class, () -> service.setReorderThreshold("NOPE", 1));
+        assertThrows(IllegalArgumentException.class, () -> service.setReorderThreshold(" ", 1));
+    }
+
+    @Test
+    void queryReturnsOnlyLowProductsOfALargeCatalog() {
+        for (int i = 0; i < 100_000; i++) {
+            service.addProduct("SKU-" + i, "Product " + i, 100);
+            service.setReorderThreshold("SKU-" + i, 10);
+        }
+        for (int i = 0; i < 100_000; i += 10_000) service.reserveStock("SKU-" + i, 95);
+        List<String> low = service.getLowStockProducts();
+        assertEquals(10, low.size());
+        for (String productId : low) assertEquals(5, service.getStock(productId));
+    }
+
+    @Test
+    void concurrentChangesLeaveIndexConsistentAndAlertsAlternating() throws Exception {
+        int products = 8;
+        for (int p = 0; p < products; p++) {
+            service.addProduct("P" + p, "P" + p, 20);
+            service.setReorderThreshold("P" + p, 10);
+        }
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                // Each reservation is given back, so every product ends where it started
+                for (int i = 0; i < 20_000; i++) {
+                    String productId = "P" + (i % products);
+                    int qty = 1 + i % 7;
+                    if (service.reserveStock(productId, qty)) service.restock(productId, qty);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+
+        assertTrue(service.getLowStockProducts().isEmpty());
+        Map<String, LowStockAlert.Type> last = new HashMap<>();
+        for (LowStockAlert alert : sent) {
+            LowStockAlert.Type previous = last.put(alert.getProductId(), alert.getType());
+            assertNotEquals(alert.getType(), previous, "Repeated " + alert.getType() + " for " + alert.getProductId());
+        }
+        for (LowStockAlert.Type type : last.values()) assertEquals(LowStockAlert.Type.RECOVERED, type);
+    }
+}
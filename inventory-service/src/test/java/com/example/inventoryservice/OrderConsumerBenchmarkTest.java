@@ -0,0 +1,39 @@
+package com.example.inventoryservice;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reservation throughput of the batch listener per poll size, with an in-process outcome sender.
+ * Run with: mvn test -Dtest=OrderConsumerBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderConsumerBenchmarkTest {
+
+    private static final int ORDERS = 1_000_000;
+    private static final int PRODUCTS = 200;
+
+    @Test
+    void throughputByPollSize() throws Exception {
+        for (int pollSize : new int[]{1, 10, 100, 500}) {
+            InventoryService inventory = new InventoryService();
+            for (int p = 0; p < PRODUCTS; p++) inventory.addProduct("SKU" + p, "Product " + p, Integer.MAX_VALUE / 2);
+            OrderConsumer consumer = new OrderConsumer(inventory, outcome -> CompletableFuture.completedFuture(null), 1000);
+
+            List<List<Order>> polls = new ArrayList<>();
+            for (int i = 0; i < ORDERS; i += pollSize) {
+                List<Order> poll = new ArrayList<>(pollSize);
+                for (int j = i; j < i + pollSize; j++) poll.add(new Order("o" + j, "SKU" + (j % PRODUCTS), 1));
+                polls.add(poll);
+            }
+            long start = System.nanoTime();
+            for (List<Order> poll : polls) consumer.consumeOrders(poll);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("poll size %4d: %,d orders/s%n", pollSize, ORDERS * 1_000_000_000L / elapsed);
+        }
+    }
+}
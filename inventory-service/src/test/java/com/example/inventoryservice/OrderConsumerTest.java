@@ -0,0 +1,66 @@
+package com.example.inventoryservice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderConsumerTest {
+
+    private InventoryService inventoryService;
+    private List<ReservationOutcome> published;
+    private boolean brokerUp;
+    private OrderConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        inventoryService = new InventoryService();
+        inventoryService.seedStock("Book=3, Pen=10");
+        published = new ArrayList<>();
+        brokerUp = true;
+        consumer = new OrderConsumer(inventoryService, outcome -> {
+            if (!brokerUp) return CompletableFuture.failedFuture(new IllegalStateException("broker down"));
+            published.add(outcome);
+            return CompletableFuture.completedFuture(null);
+        }, 1000);
+    }
+
+    @Test
+    void batchIsReservedPerProductInArrivalOrder() throws Exception {
+        consumer.consumeOrders(List.of(
+                new Order("o1", "Book", 2),
+                new Order("o2", "Pen", 4),
+                new Order("o3", "Book", 2),   // only 1 Book left
+                new Order("o4", "Book", 1),
+                new Order("o5", "Ghost", 1),
+                new Order("o6", "", 1)));
+
+        assertEquals(0, inventoryService.getStock("Book"));
+        assertEquals(6, inventoryService.getStock("Pen"));
+        assertEquals(6, published.size());
+        assertEquals(List.of("o6", "o1", "o3", "o4", "o2", "o5"),
+                published.stream().map(ReservationOutcome::getOrderId).toList());
+        assertEquals(ReservationOutcome.Status.REJECTED, published.get(2).getStatus());
+        assertEquals("insufficient stock", published.get(2).getReason());
+        assertEquals(ReservationOutcome.Status.RESERVED, published.get(3).getStatus());
+        assertEquals("product not found", published.get(5).getReason());
+    }
+
+    @Test
+    void failedPublishFailsTheBatchAndRedeliveryDoesNotReserveTwice() throws Exception {
+        List<Order> batch = List.of(new Order("o1", "Pen", 4), new Order("o2", "Pen", 4));
+        brokerUp = false;
+        assertThrows(Exception.class, () -> consumer.consumeOrders(batch));
+        assertEquals(2, inventoryService.getStock("Pen"));
+
+        brokerUp = true;
+        consumer.consumeOrders(batch);
+        assertEquals(2, inventoryService.getStock("Pen"));
+        assertEquals(2, published.size());
+        assertTrue(published.stream().allMatch(o -> o.getStatus() == ReservationOutcome.Status.RESERVED));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.inventoryservice;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationHistoryTest {
+
+    private final long[] nowMillis = {Instant.parse("2026-01-01T00:00:00Z").toEpochMilli()};
+    private final Clock clock = new Clock() {
+        @Override public ZoneOffset getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return Instant.ofEpochMilli(nowMillis[0]); }
+    };
+
+    private ReservationOutcome reserved(String orderId) {
+        return new ReservationOutcome(orderId, "A", 1, ReservationOutcome.Status.RESERVED, null, 0, nowMillis[0]);
+    }
+
+    @Test
+    void redeliveryWithinTheTtlReplaysTheOutcome() {
+        ReservationHistory history = new ReservationHistory(Duration.ofMinutes(10), 100, clock);
+        AtomicInteger reservations = new AtomicInteger();
+        ReservationOutcome first = history.computeIfAbsent("o1", id -> {
+            reservations.incrementAndGet();
+            return reserved(id);
+        });
+        nowMillis[0] += Duration.ofMinutes(9).toMillis();
+        assertSame(first, history.computeIfAbsent("o1", id -> {
+            reservations.incrementAndGet();
+            return reserved(id);
+        }));
+        assertEquals(1, reservations.get());
+
+        nowMillis[0] += Duration.ofMinutes(2).toMillis();
+        history.computeIfAbsent("o2", this::reserved);
+        assertEquals(1, history.size());
+        assertEquals(1, history.getEvictions());
+    }
+
+    @Test
+    void oldestEntriesAreDroppedPastCapacity() {
+        ReservationHistory history = new ReservationHistory(Duration.ofHours(1), 1_000, clock);
+        for (int i = 0; i < 100_000; i++) history.computeIfAbsent("o" + i, this::reserved);
+        assertEquals(1_000, history.size());
+        assertEquals(1_000, history.queued());
+        assertEquals(99_000, history.getEvictions());
+        AtomicInteger again = new AtomicInteger();
+        history.computeIfAbsent("o99999", id -> {
+            again.incrementAndGet();
+            return reserved(id);
+        });
+        assertEquals(0, again.get());
+    }
+
+    @Test
+    void limitsMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ReservationHistory(Duration.ZERO, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ReservationHistory(Duration.ofMinutes(1), 0));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.inventoryservice;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SkuTableTest {
+
+    @Test
+    void internsIdsIntoDenseHandles() {
+        SkuTable table = new SkuTable();
+        assertEquals(0, table.add("SKU-A", "Book", 10));
+        assertEquals(1, table.add("SKU-B", "Pen", 5));
+        assertEquals(0, table.handle("SKU-A"));
+        assertEquals(1, table.handle("SKU-B"));
+        assertEquals(-1, table.handle("SKU-C"));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void addingAnExistingIdAddsStockAndKeepsTheName() {
+        SkuTable table = new SkuTable();
+        int h = table.add("SKU-A", "Book", 10);
+        assertEquals(h, table.add("SKU-A", "Other", 7));
+        assertEquals(17, table.stock(h));
+        assertEquals("Book", table.productName(h));
+    }
+
+    @Test
+    void storesIdsAndNamesVerbatim() {
+        SkuTable table = new SkuTable();
+        int h = table.add("größe-42 ✓", "Crème brûlée 🍮", 1);
+        assertEquals("größe-42 ✓", table.productId(h));
+        assertEquals("Crème brûlée 🍮", table.productName(h));
+        assertEquals(h, table.handle("größe-42 ✓"));
+    }
+
+    @Test
+    void takeAndGiveStock() {
+        SkuTable table = new SkuTable();
+        int h = table.add("SKU-A", "Book", 3);
+        assertTrue(table.tryTake(h, 2));
+        assertFalse(table.tryTake(h, 2));
+        assertEquals(1, table.stock(h));
+        table.give(h, 4);
+        assertEquals(5, table.stock(h));
+        table.setStock(h, Integer.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> table.give(h, 1));
+    }
+
+    // Crosses several column chunks, arena chunks and index resizes
+    @Test
+    void growsPastChunkAndIndexBoundaries() {
+        SkuTable table = new SkuTable();
+        int n = 300_000;
+        for (int i = 0; i < n; i++) assertEquals(i, table.add("SKU" + i, "Product number " + i, i));
+        assertEquals(n, table.size());
+        for (int i = 0; i < n; i += 997) {
+            int h = table.handle("SKU" + i);
+            assertEquals(i, h);
+            assertEquals(i, table.stock(h));
+            assertEquals("SKU" + i, table.productId(h));
+            assertEquals("Product number " + i, table.productName(h));
+        }
+        // Including ~20 bytes of id chars and ~22 bytes of name per SKU
+        assertTrue(table.memoryBytes() / n < 100, "bytes per SKU: " + table.memoryBytes() / n);
+    }
+
+    // 15-char ids take 16 arena chars each, so the first id arena chunk is filled exactly
+    @Test
+    void idArenaChunkFilledExactly() {
+        SkuTable table = new SkuTable();
+        int n = 70_000;
+        for (int i = 0; i < n; i++) table.add(String.format("SKU-%011d", i), "n", i);
+        for (int i = 65_530; i < 65_540; i++) {
+            int h = table.handle(String.format("SKU-%011d", i));
+            assertEquals(i, h);
+            assertEquals(String.format("SKU-%011d", i), table.productId(h));
+        }
+        assertEquals(0, table.handle(String.format("SKU-%011d", 0)));
+    }
+
+    // Readers never see a half-added product while the table grows underneath them
+    @Test
+    void lookupsDuringConcurrentAdds() throws Exception {
+        SkuTable table = new SkuTable();
+        int n = 200_000;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < n; i++) table.add("SKU" + i, "item", i);
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                while (table.size() < n) {
+                    int added = table.size();
+                    for (int i = Math.max(0, added - 100); i < added; i++) {
+                        int h = table.handle("SKU" + i);
+                        if (h != i || table.stock(h) != i) throw new AssertionError("SKU" + i + " -> " + h);
+                    }
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+        writer.start();
+        writer.join();
+        reader.join();
+        assertNull(failure.get());
+    }
+}
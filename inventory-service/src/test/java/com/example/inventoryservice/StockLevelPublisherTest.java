@@ -0,0 +1,169 @@
+package com.example.inventoryservice;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockLevelPublisherTest {
+
+    private final List<StockLevel> sent = new ArrayList<>();
+    private boolean brokerUp = true;
+    private StockLevelPublisher feed;
+    private InventoryService service;
+
+    @BeforeEach
+    void setUp() {
+        // Window of an hour: flushes happen only when the test calls flush()
+        feed = new StockLevelPublisher(level -> {
+            if (!brokerUp) return CompletableFuture.failedFuture(new IllegalStateException("broker down"));
+            synchronized (sent) {
+                sent.add(level);
+            }
+            return CompletableFuture.completedFuture(null);
+        }, Duration.ofHours(1), Duration.ofSeconds(15), Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC));
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("feed", feed);
+        service = new InventoryService(beans.getBeanProvider(InventoryPersistence.class),
+                beans.getBeanProvider(StockLevelPublisher.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    @Test
+    void hotSkuIsCoalescedToOneUpdatePerWindow() {
+        service.addProduct("HOT", "Flash sale item", 20_000);
+        for (int i = 0; i < 10_000; i++) service.reserveStock("HOT", 1);
+        assertEquals(1, feed.flush());
+        assertEquals(1, sent.size());
+        StockLevel level = sent.get(0);
+        assertEquals("HOT", level.getProductId());
+        assertEquals(10_000, level.getStock());
+        assertEquals(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli(), level.getTimestamp());
+        assertEquals(10_001, feed.getChanges());
+        assertEquals(0, feed.flush());
+    }
+
+    @Test
+    void everyKindOfChangeIsPublishedWithIncreasingVersions() {
+        service.addProduct("A", "a", 10);
+        service.addProduct("B", "b", 10);
+        feed.flush();
+        service.reserveBasket(Map.of("A", 1, "B", 2));
+        feed.flush();
+        service.cancelReservation("A", 1);
+        service.restock("B", 5);
+        service.reserveBatch("A", List.of(new Order("o1", "A", 4)));
+        feed.flush();
+
+        assertEquals(6, sent.size());
+        for (int i = 1; i < sent.size(); i++) assertTrue(sent.get(i).getVersion() > sent.get(i - 1).getVersion());
+        StockLevel lastA = sent.get(4).getProductId().equals("A") ? sent.get(4) : sent.get(5);
+        StockLevel lastB = sent.get(4).getProductId().equals("B") ? sent.get(4) : sent.get(5);
+        assertEquals(6, lastA.getStock());
+        assertEquals(13, lastB.getStock());
+    }
+
+    @Test
+    void refusedReservationsPublishNothing() {
+        service.addProduct("A", "a", 1);
+        feed.flush();
+        assertFalse(service.reserveStock("A", 2));
+        assertFalse(service.reserveBasket(Map.of("A", 2)));
+        assertEquals(0, feed.flush());
+    }
+
+    // A flush between a basket's take and its rollback would publish the dip; the rollback marks the line again
+    @Test
+    void rolledBackBasketLinesArePublishedAgain() {
+        service.addProduct("A", "a", 5);
+        service.addProduct("B", "b", 1);
+        feed.flush();
+        sent.clear();
+        assertFalse(service.reserveBasket(Map.of("A", 2, "B", 2)));
+        assertEquals(1, feed.flush());
+        assertEquals("A", sent.get(0).getProductId());
+        assertEquals(5, sent.get(0).getStock());
+    }
+
+    @Test
+    void failedSendIsRetriedOnTheNextFlush() {
+        service.addProduct("A", "a", 10);
+        brokerUp = false;
+        assertEquals(1, feed.flush());
+        assertEquals(1, feed.getFailed());
+        brokerUp = true;
+        service.reserveStock("A", 3);
+        assertEquals(1, feed.flush());
+        assertEquals(1, sent.size());
+        assertEquals(7, sent.get(0).getStock());
+    }
+
+    @Test
+    void versionsStartFromTheWallClock() {
+        service.addProduct("A", "a", 1);
+        feed.flush();
+        assertTrue(sent.get(0).getVersion() > Duration.ofMillis(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli()).toNanos());
+    }
+
+    // The order-service cache trusts a level for 30s after its timestamp; a SKU that sold out and never
+    // changes again must still always have a level that recent on the topic
+    @Test
+    void unchangedSkusStayFreshForTheStockCache() {
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        long[] nowMillis = {start.toEpochMilli()};
+        Clock clock = new Clock() {
+            @Override public ZoneOffset getZone() { return ZoneOffset.UTC; }
+            @Override public Clock withZone(java.time.ZoneId zone) { return this; }
+            @Override public Instant instant() { return Instant.ofEpochMilli(nowMillis[0]); }
+        };
+        List<StockLevel> levels = new ArrayList<>();
+        StockLevelPublisher refreshing = new StockLevelPublisher(level -> {
+            levels.add(level);
+            return CompletableFuture.completedFuture(null);
+        }, Duration.ofHours(1), Duration.ofSeconds(15), clock);
+        SkuTable table = new SkuTable();
+        int soldOut = table.add("SOLD", "Sold out", 0);
+        table.add("QUIET", "Never ordered", 7);
+        refreshing.start(table, true);
+        try {
+            long maxStalenessMillis = Duration.ofSeconds(30).toMillis();
+            // A flush every 200 ms window for two minutes; nothing changes after the first
+            for (int t = 0; t <= 120_000; t += 200) {
+                nowMillis[0] = start.toEpochMilli() + t;
+                refreshing.flush();
+                StockLevel latest = null;
+                for (StockLevel level : levels) {
+                    if (level.getProductId().equals("SOLD")) latest = level;
+                }
+                assertNotNull(latest);
+                assertEquals(0, latest.getStock());
+                assertTrue(nowMillis[0] - latest.getTimestamp() <= maxStalenessMillis / 2, "stale at t=" + t);
+            }
+            assertEquals(0, table.stock(soldOut));
+            assertTrue(levels.size() < 2 * (120 / 15 + 2), "refresh published " + levels.size() + " levels");
+        } finally {
+            refreshing.close();
+        }
+    }
+
+    @Test
+    void refreshMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new StockLevelPublisher(level -> CompletableFuture.completedFuture(null),
+                Duration.ofSeconds(1), Duration.ZERO, Clock.systemUTC()));
+    }
+}
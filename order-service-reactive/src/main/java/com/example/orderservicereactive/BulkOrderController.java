@@ -0,0 +1,133 @@
+package com.example.orderservicereactive;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+
+/**
+ * Exposes POST /orders:bulk; same NDJSON contract as order-service.
+ * The body is consumed with backpressure: at most {@code concurrency} lines are awaiting broker acks, and
+ * the next lines are only read from the connection as earlier ones are acknowledged. A single line may be
+ * no longer than the codecs' spring.codec.max-in-memory-size.
+ */
+@RestController
+public class BulkOrderController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final ObjectReader orderReader;
+    private final OrderProducer orderProducer;
+    private final int concurrency;
+    private final Duration ackTimeout;
+
+    public BulkOrderController(ObjectMapper objectMapper,
+                               OrderProducer orderProducer,
+                               @Value("${orders.bulk.concurrency:500}") int concurrency,
+                               @Value("${orders.ack-timeout-ms:10000}") long ackTimeoutMs) {
+        this.orderReader = objectMapper.readerFor(Order.class);
+        this.orderProducer = orderProducer;
+        this.concurrency = concurrency;
+        this.ackTimeout = Duration.ofMillis(ackTimeoutMs);
+    }
+
+    /** Result for one input line (or the trailing summary). */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class LineResult {
+        private Integer line;
+        private String orderId;
+        private String status;
+        private String error;
+        private Integer partition;
+        private Long offset;
+        private Long accepted;
+        private Long rejected;
+        private Long ordersPerSecond;
+
+        public Integer getLine() { return line; }
+        public String getOrderId() { return orderId; }
+        public String getStatus() { return status; }
+        public String getError() { return error; }
+        public Integer getPartition() { return partition; }
+        public Long getOffset() { return offset; }
+        public Long getAccepted() { return accepted; }
+        public Long getRejected() { return rejected; }
+        public Long getOrdersPerSecond() { return ordersPerSecond; }
+    }
+
+    @PostMapping(path = "/orders:bulk", consumes = NDJSON, produces = NDJSON)
+    public Flux<LineResult> placeOrders(@RequestBody Flux<String> lines) {
+        long start = System.nanoTime();
+        AtomicInteger lineNo = new AtomicInteger();
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+
+        Flux<LineResult> results = lines
+                .map(text -> Tuples.of(lineNo.incrementAndGet(), text))
+                .filter(l -> !l.getT2().isBlank())
+                .flatMapSequential(l -> submit(l.getT1(), l.getT2()), concurrency)
+                .doOnNext(r -> (r.error == null ? accepted : rejected).incrementAndGet());
+
+        return results.concatWith(Mono.fromSupplier(() -> {
+            long elapsedNanos = Math.max(1, System.nanoTime() - start);
+            LineResult summary = new LineResult();
+            summary.status = "SUMMARY";
+            summary.accepted = accepted.get();
+            summary.rejected = rejected.get();
+            summary.ordersPerSecond = (accepted.get() + rejected.get()) * 1_000_000_000L / elapsedNanos;
+            System.out.println("[DEBUG] Bulk ingestion: accepted=" + accepted.get() + ", rejected=" + rejected.get() +
+                    " in " + elapsedNanos / 1_000_000 + " ms");
+            return summary;
+        }));
+    }
+
+    private Mono<LineResult> submit(int line, String text) {
+        LineResult r = new LineResult();
+        r.line = line;
+        Order order;
+        try {
+            order = orderReader.readValue(text);
+        } catch (JsonProcessingException e) {
+            return Mono.just(reject(r, "malformed JSON: " + e.getOriginalMessage()));
+        }
+        r.orderId = order.getId();
+        String invalid = validate(order);
+        if (invalid != null) return Mono.just(reject(r, invalid));
+        return orderProducer.sendOrder(order)
+                .timeout(ackTimeout)
+                .map(receipt -> {
+                    r.status = "ACCEPTED";
+                    r.partition = receipt.getPartition();
+                    r.offset = receipt.getOffset();
+                    return r;
+                })
+                .onErrorResume(ex -> Mono.just(reject(r, "not acknowledged: " + ex)));
+    }
+
+    private static LineResult reject(LineResult r, String error) {
+        r.status = "REJECTED";
+        r.error = error;
+        return r;
+    }
+
+    static String validate(Order order) {
+        if (order == null) return "empty order";
+        if (order.getId() == null || order.getId().isBlank()) return "id is required";
+        if (order.getProduct() == null || order.getProduct().isBlank()) return "product is required";
+        if (order.getQuantity() <= 0) return "quantity must be positive";
+        return null;
+    }
+}
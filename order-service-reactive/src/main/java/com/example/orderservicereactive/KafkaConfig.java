@@ -0,0 +1,56 @@
+package com.example.orderservicereactive;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+
+@Configuration
+public class KafkaConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${orders.producer.compression:lz4}")
+    private String compression;
+
+    @Value("${orders.producer.linger-ms:5}")
+    private int lingerMs;
+
+    @Value("${orders.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${orders.producer.max-in-flight:1024}")
+    private int maxInFlight;
+
+    @Bean
+    public SenderOptions<String, OrderEvent> senderOptions() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        return SenderOptions.<String, OrderEvent>create(configProps)
+                .withKeySerializer(new StringSerializer())
+                .withValueSerializer(new JsonSerializer<>())
+                // Backpressure: no more than this many records awaiting acks
+                .maxInFlight(maxInFlight)
+                // Report a failed record through its SenderResult and keep the shared pipeline running
+                .stopOnError(false);
+    }
+
+    @Bean(destroyMethod = "close")
+    public KafkaSender<String, OrderEvent> kafkaSender(SenderOptions<String, OrderEvent> senderOptions) {
+        return KafkaSender.create(senderOptions);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.orderservicereactive;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Exposes a POST /orders endpoint to place new orders; same contract as order-service.
+ * In "acked" mode the response completes when the broker acknowledges the order event; "fire-and-forget"
+ * answers as soon as the send is started. No request thread waits in either mode.
+ */
+@RestController
+@RequestMapping("/orders")
+public class OrderController {
+
+    static final String FIRE_AND_FORGET = "fire-and-forget";
+
+    private final OrderProducer orderProducer;
+    private final String ackMode;
+    private final Duration ackTimeout;
+
+    public OrderController(OrderProducer orderProducer,
+                           @Value("${orders.ack-mode:acked}") String ackMode,
+                           @Value("${orders.ack-timeout-ms:10000}") long ackTimeoutMs) {
+        this.orderProducer = orderProducer;
+        this.ackMode = ackMode;
+        this.ackTimeout = Duration.ofMillis(ackTimeoutMs);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> placeOrder(@RequestBody Order order) {
+        if (FIRE_AND_FORGET.equals(ackMode)) {
+            orderProducer.sendOrder(order).subscribe(receipt -> { },
+                    ex -> System.out.println("[DEBUG] Order " + order.getId() + " not acknowledged: " + ex));
+            return Mono.just(ResponseEntity.ok("Order placed and sent to Kafka topic."));
+        }
+
+        // Only failures are logged: a blocking print per acknowledged order would stall the event loop
+        return orderProducer.sendOrder(order)
+                .timeout(ackTimeout)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(TimeoutException.class, ex -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body("Order " + order.getId() + " was not acknowledged within " + ackTimeout.toMillis() + " ms.")))
+                .onErrorResume(ex -> {
+                    System.out.println("[DEBUG] Order " + order.getId() + " not acknowledged: " + ex);
+                    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .body("Order " + order.getId() + " could not be written to Kafka."));
+                });
+    }
+}
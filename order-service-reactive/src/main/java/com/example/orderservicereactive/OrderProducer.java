@@ -0,0 +1,28 @@
+package com.example.orderservicereactive;
+
+import java.time.Instant;
+
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Service that sends Order events to the "orders" Kafka topic.
+ */
+@Service
+public class OrderProducer {
+
+    private static final String TOPIC = "orders";
+
+    private final OrderSender orderSender;
+
+    public OrderProducer(OrderSender orderSender) {
+        this.orderSender = orderSender;
+    }
+
+    // Emits the broker receipt, or an error if the record could not be written
+    public Mono<OrderReceipt> sendOrder(Order order) {
+        return Mono.defer(() -> orderSender.send(TOPIC, order.getId(),
+                new OrderEvent(order.getId(), order.getProduct(), order.getQuantity(), null, Instant.now())));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.orderservicereactive;
+
+/**
+ * Broker acknowledgement for a placed order: where the order event was written.
+ */
+public class OrderReceipt {
+    private String orderId;
+    private String topic;
+    private int partition;
+    private long offset;
+
+    public OrderReceipt() {}
+
+    public OrderReceipt(String orderId, String topic, int partition, long offset) {
+        this.orderId = orderId;
+        this.topic = topic;
+        this.partition = partition;
+        this.offset = offset;
+    }
+
+    public String getOrderId() { return orderId; }
+    public void setOrderId(String orderId) { this.orderId = orderId; }
+    public String getTopic() { return topic; }
+    public void setTopic(String topic) { this.topic = topic; }
+    public int getPartition() { return partition; }
+    public void setPartition(int partition) { this.partition = partition; }
+    public long getOffset() { return offset; }
+    public void setOffset(long offset) { this.offset = offset; }
+
+    @Override
+    public String toString() {
+        return "OrderReceipt{orderId='" + orderId + "', topic='" + topic + "', partition=" + partition + ", offset=" + offset + "}";
+    }
+}
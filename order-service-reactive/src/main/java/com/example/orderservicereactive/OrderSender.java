@@ -0,0 +1,11 @@
+package com.example.orderservicereactive;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Abstraction for sending orders to Kafka (or stub for tests).
+ * The returned Mono is lazy: nothing is sent until it is subscribed, and it emits once the broker acknowledges.
+ */
+public interface OrderSender {
+    Mono<OrderReceipt> send(String topic, String key, OrderEvent orderEvent);
+}
@@ -0,0 +1,88 @@
+package com.example.orderservicereactive;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+import reactor.util.concurrent.Queues;
+
+/**
+ * OrderSender on a single reactive Kafka pipeline shared by all requests.
+ *
+ * Orders are emitted into a bounded sink that feeds one KafkaSender.send flux, so the sender's maxInFlight
+ * applies to the whole service: while acks are pending it stops pulling from the sink, and once the sink
+ * is full new orders fail immediately instead of queueing without bound. Emission is serialized on the sink,
+ * and a full sink only fails the order being emitted; the pipeline itself keeps running.
+ */
+@Component
+public class ReactiveKafkaOrderSender implements OrderSender, AutoCloseable {
+
+    // Correlation metadata: routes each SenderResult back to the request waiting for it
+    private static final class Pending {
+        final String key;
+        final MonoSink<OrderReceipt> sink;
+
+        Pending(String key, MonoSink<OrderReceipt> sink) {
+            this.key = key;
+            this.sink = sink;
+        }
+    }
+
+    private final Sinks.Many<SenderRecord<String, OrderEvent, Pending>> outbound;
+    private final Disposable pipeline;
+
+    public ReactiveKafkaOrderSender(KafkaSender<String, OrderEvent> kafkaSender,
+                                    @Value("${orders.producer.queue-capacity:8192}") int queueCapacity) {
+        this.outbound = Sinks.many().unicast().onBackpressureBuffer(Queues.<SenderRecord<String, OrderEvent, Pending>>get(queueCapacity).get());
+        this.pipeline = kafkaSender.send(outbound.asFlux()).subscribe(ReactiveKafkaOrderSender::complete,
+                error -> System.out.println("[DEBUG] Order send pipeline terminated: " + error));
+    }
+
+    @Override
+    public Mono<OrderReceipt> send(String topic, String key, OrderEvent orderEvent) {
+        return Mono.create(sink -> {
+            SenderRecord<String, OrderEvent, Pending> record =
+                    SenderRecord.create(new ProducerRecord<>(topic, key, orderEvent), new Pending(key, sink));
+            Sinks.EmitResult result = emit(record);
+            if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                sink.error(new IllegalStateException("Order send queue is full"));
+            } else if (result.isFailure()) {
+                sink.error(new IllegalStateException("Order send pipeline is closed (" + result + ")"));
+            }
+        });
+    }
+
+    // tryEmitNext reports overflow instead of erroring the sink (which emitNext would do, ending the shared
+    // pipeline); the lock rules out FAIL_NON_SERIALIZED, so there is nothing to retry or spin on
+    private Sinks.EmitResult emit(SenderRecord<String, OrderEvent, Pending> record) {
+        synchronized (outbound) {
+            return outbound.tryEmitNext(record);
+        }
+    }
+
+    private static void complete(SenderResult<Pending> result) {
+        Pending pending = result.correlationMetadata();
+        if (result.exception() != null) {
+            pending.sink.error(result.exception());
+            return;
+        }
+        RecordMetadata metadata = result.recordMetadata();
+        pending.sink.success(new OrderReceipt(pending.key, metadata.topic(), metadata.partition(), metadata.offset()));
+    }
+
+    @Override
+    public void close() {
+        synchronized (outbound) {
+            outbound.tryEmitComplete();
+        }
+        pipeline.dispose();
+    }
+}
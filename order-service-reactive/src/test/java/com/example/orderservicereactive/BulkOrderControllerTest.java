@@ -0,0 +1,65 @@
+package com.example.orderservicereactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@WebFluxTest(value = BulkOrderController.class, properties = "orders.bulk.concurrency=2")
+class BulkOrderControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public OrderProducer orderProducer() {
+            AtomicLong offsets = new AtomicLong();
+            // Later lines are acked sooner, so results must still come back in line order
+            return new OrderProducer((topic, key, event) -> "fail".equals(key)
+                    ? Mono.error(new IllegalStateException("broker unavailable"))
+                    : Mono.delay(Duration.ofMillis(20 - Math.min(19, Long.parseLong(key))))
+                        .then(Mono.fromSupplier(() -> new OrderReceipt(key, topic, 0, offsets.getAndIncrement()))));
+        }
+    }
+
+    @Test
+    void testBulkResultsAreStreamedPerLineInOrder() {
+        String body = "{\"id\":\"1\",\"product\":\"Book\",\"quantity\":1}\n"
+                + "{\"id\":\"2\",\"product\":\"Pen\",\"quantity\":0}\n"
+                + "\n"
+                + "not json\n"
+                + "{\"id\":\"fail\",\"product\":\"Pen\",\"quantity\":1}\n"
+                + "{\"id\":\"5\",\"product\":\"Lamp\",\"quantity\":3}\n";
+
+        List<BulkOrderController.LineResult> results = webTestClient.post().uri("/orders:bulk")
+                .contentType(MediaType.parseMediaType(BulkOrderController.NDJSON))
+                .accept(MediaType.parseMediaType(BulkOrderController.NDJSON))
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BulkOrderController.LineResult.class)
+                .getResponseBody()
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(6, results.size());
+        assertEquals(List.of(1, 2, 4, 5, 6), results.subList(0, 5).stream().map(BulkOrderController.LineResult::getLine).toList());
+        assertEquals(List.of("ACCEPTED", "REJECTED", "REJECTED", "REJECTED", "ACCEPTED", "SUMMARY"),
+                results.stream().map(BulkOrderController.LineResult::getStatus).toList());
+        assertEquals(2L, results.get(5).getAccepted());
+        assertEquals(3L, results.get(5).getRejected());
+    }
+}
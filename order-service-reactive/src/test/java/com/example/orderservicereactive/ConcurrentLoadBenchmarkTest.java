@@ -0,0 +1,90 @@
+package com.example.orderservicereactive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Side-by-side load harness: N concurrent connections each placing orders through POST /orders.
+ * By default it targets this reactive service with a stub broker (5 ms ack latency). Point it at the MVC
+ * order-service (or a broker-backed instance of either) with -Dbenchmark.url=http://localhost:8082.
+ *
+ *   mvn test -Dtest=ConcurrentLoadBenchmarkTest -Dbenchmark=true [-Dbenchmark.connections=10000] [-Dbenchmark.url=...]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ConcurrentLoadBenchmarkTest {
+
+    @LocalServerPort
+    private int port;
+
+    @TestConfiguration
+    static class StubBroker {
+        @Bean
+        @Primary
+        public OrderSender stubOrderSender() {
+            AtomicInteger offsets = new AtomicInteger();
+            return (topic, key, event) -> Mono.delay(Duration.ofMillis(5))
+                    .map(t -> new OrderReceipt(key, topic, 0, offsets.getAndIncrement()));
+        }
+    }
+
+    @Test
+    void placeOrdersFromManyConnections() {
+        String baseUrl = System.getProperty("benchmark.url", "http://localhost:" + port);
+        int connections = Integer.getInteger("benchmark.connections", 10_000);
+        int requests = Integer.getInteger("benchmark.requests", connections * 5);
+
+        ConnectionProvider pool = ConnectionProvider.builder("benchmark")
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        WebClient client = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(pool)))
+                .build();
+
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        Flux.range(0, requests)
+                .flatMap(i -> {
+                    long sent = System.nanoTime();
+                    return client.post().uri("/orders")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue("{\"id\":\"B" + i + "\",\"product\":\"Book\",\"quantity\":1}")
+                            .retrieve()
+                            .toBodilessEntity()
+                            .doOnSuccess(r -> latencies[i] = System.nanoTime() - sent)
+                            .onErrorResume(ex -> {
+                                errors.incrementAndGet();
+                                latencies[i] = System.nanoTime() - sent;
+                                return Mono.empty();
+                            });
+                }, connections)
+                .blockLast(Duration.ofMinutes(10));
+        long elapsed = System.nanoTime() - start;
+        pool.dispose();
+
+        Arrays.sort(latencies);
+        System.out.printf("%s: %d connections, %d requests, %d errors, %.0f req/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                baseUrl, connections, requests, errors.get(), requests * 1e9 / elapsed,
+                latencies[requests / 2] / 1e6, latencies[(int) (requests * 0.99)] / 1e6, latencies[requests - 1] / 1e6);
+    }
+}
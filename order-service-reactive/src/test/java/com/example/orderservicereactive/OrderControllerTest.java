@@ -0,0 +1,54 @@
+package com.example.orderservicereactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@WebFluxTest(OrderController.class)
+class OrderControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public OrderProducer orderProducer() {
+            // stub broker: acks after a short delay; "fail" is never acknowledged
+            return new OrderProducer((topic, key, event) -> "fail".equals(key)
+                    ? Mono.error(new IllegalStateException("broker unavailable"))
+                    : Mono.delay(Duration.ofMillis(5)).thenReturn(new OrderReceipt(key, topic, 2, 42L)));
+        }
+    }
+
+    @Test
+    void testPlaceOrder() {
+        webTestClient.post().uri("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"id\":\"100\",\"product\":\"Book\",\"quantity\":1}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.orderId").isEqualTo("100")
+                .jsonPath("$.topic").isEqualTo("orders")
+                .jsonPath("$.partition").isEqualTo(2)
+                .jsonPath("$.offset").isEqualTo(42);
+    }
+
+    @Test
+    void testPlaceOrderNotAcknowledged() {
+        webTestClient.post().uri("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"id\":\"fail\",\"product\":\"Book\",\"quantity\":1}")
+                .exchange()
+                .expectStatus().isEqualTo(503);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.orderservicereactive;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.sender.KafkaOutbound;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+import reactor.kafka.sender.TransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveKafkaOrderSenderTest {
+
+    // Stub broker: takes one record at a time and acks nothing until the gate opens
+    static class GatedKafkaSender implements KafkaSender<String, OrderEvent> {
+        final Sinks.Empty<Void> gate = Sinks.empty();
+        final AtomicLong offsets = new AtomicLong();
+
+        @Override
+        public <T> Flux<SenderResult<T>> send(Publisher<? extends SenderRecord<String, OrderEvent, T>> records) {
+            return Flux.<SenderRecord<String, OrderEvent, T>>from(records)
+                    .concatMap(r -> gate.asMono().then(Mono.fromSupplier(() -> ack(r))), 1);
+        }
+
+        private <T> SenderResult<T> ack(SenderRecord<String, OrderEvent, T> record) {
+            RecordMetadata metadata = new RecordMetadata(new TopicPartition(record.topic(), 0),
+                    offsets.getAndIncrement(), 0, 0L, 0, 0);
+            return new SenderResult<T>() {
+                @Override public RecordMetadata recordMetadata() { return metadata; }
+                @Override public Exception exception() { return null; }
+                @Override public T correlationMetadata() { return record.correlationMetadata(); }
+            };
+        }
+
+        @Override
+        public <T> Flux<Flux<SenderResult<T>>> sendTransactionally(Publisher<? extends Publisher<? extends SenderRecord<String, OrderEvent, T>>> records) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override public TransactionManager transactionManager() { throw new UnsupportedOperationException(); }
+        @Override public KafkaOutbound<String, OrderEvent> createOutbound() { throw new UnsupportedOperationException(); }
+        @Override public <T> Mono<T> doOnProducer(Function<Producer<String, OrderEvent>, ? extends T> function) { throw new UnsupportedOperationException(); }
+        @Override public void close() { }
+    }
+
+    private static OrderEvent event(String id) {
+        return new OrderEvent(id, "Book", 1, null, null);
+    }
+
+    @Test
+    void overflowFailsOnlyTheOverflowingOrdersAndLaterSendsStillWork() {
+        GatedKafkaSender broker = new GatedKafkaSender();
+        ReactiveKafkaOrderSender sender = new ReactiveKafkaOrderSender(broker, 8);
+        AtomicInteger full = new AtomicInteger();
+        AtomicInteger acked = new AtomicInteger();
+        int orders = 100;
+        for (int i = 0; i < orders; i++) {
+            sender.send("orders", "o" + i, event("o" + i)).subscribe(r -> acked.incrementAndGet(), e -> {
+                if (e.getMessage().contains("queue is full")) full.incrementAndGet();
+            });
+        }
+        assertTrue(full.get() > 0, "the queue never filled");
+        assertEquals(0, acked.get());
+
+        broker.gate.tryEmitEmpty();
+        assertEquals(orders - full.get(), acked.get());
+        OrderReceipt receipt = sender.send("orders", "late", event("late")).block(Duration.ofSeconds(5));
+        assertNotNull(receipt);
+        assertEquals("late", receipt.getOrderId());
+        sender.close();
+    }
+}
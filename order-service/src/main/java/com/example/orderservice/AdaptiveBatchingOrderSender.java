@@ -0,0 +1,206 @@
+package com.example.orderservice;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OrderSender that coalesces orders into batches before handing them to the delegate, then flushes the
+ * producer so each batch goes out as one request.
+ *
+ * Linger and batch size follow an EWMA of the observed order rate: when idle every order is flushed
+ * immediately; under load the flusher waits up to {@code maxLinger} for about {@code rate * maxLinger}
+ * orders. While a flush is waiting for acks new orders keep queueing, so batches also grow with broker latency.
+ * Every accepted order's future completes: with the delegate's outcome once it was handed off, and with an
+ * error if it never was (the delegate threw, the sender closed, or the flusher died).
+ */
+public class AdaptiveBatchingOrderSender implements OrderSender, AutoCloseable {
+
+    private static final double RATE_ALPHA = 0.3;
+    // Below this many orders per linger window, waiting costs more latency than the batch saves
+    private static final int MIN_LINGER_BATCH = 4;
+
+    private final OrderSender delegate;
+    private final Runnable flush;
+    private final long maxLingerNanos;
+    private final int maxBatch;
+    private final long maxBlockMs;
+    private final BlockingQueue<Pending> queue;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    // Written by the flusher thread only
+    private volatile double rateEwma;
+    private long lastBatchNanos = System.nanoTime();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong orders = new AtomicLong();
+
+    private static final class Pending {
+        final String topic;
+        final String key;
+        final OrderEvent event;
+        final CompletableFuture<OrderReceipt> result = new CompletableFuture<>();
+        // Set once the delegate has the record; from then on its outcome completes the result
+        boolean handedOff;
+
+        Pending(String topic, String key, OrderEvent event) {
+            this.topic = topic;
+            this.key = key;
+            this.event = event;
+        }
+    }
+
+    public AdaptiveBatchingOrderSender(OrderSender delegate, Runnable flush, Duration maxLinger,
+                                       int maxBatch, int capacity, long maxBlockMs) {
+        this.delegate = delegate;
+        this.flush = flush;
+        this.maxLingerNanos = maxLinger.toNanos();
+        this.maxBatch = maxBatch;
+        this.maxBlockMs = maxBlockMs;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.flusher = new Thread(this::run, "order-batch-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public CompletableFuture<OrderReceipt> send(String topic, String key, OrderEvent orderEvent) {
+        if (!running) return CompletableFuture.failedFuture(new IllegalStateException("Order sender is closed"));
+        Pending p = new Pending(topic, key, orderEvent);
+        try {
+            if (!queue.offer(p, maxBlockMs, TimeUnit.MILLISECONDS)) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Order batch buffer is full"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        // Closed between the check and the offer: the flusher or close() may already be done with the queue
+        if (!running && queue.remove(p)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Order sender is closed"));
+        }
+        return p.result;
+    }
+
+    // Orders to wait for before flushing: about one linger window's worth at the current rate
+    int targetBatchSize() {
+        long target = Math.round(rateEwma * maxLingerNanos / 1_000_000_000.0);
+        return (int) Math.max(1, Math.min(maxBatch, target));
+    }
+
+    long lingerNanos(int targetBatch) {
+        if (targetBatch < MIN_LINGER_BATCH || rateEwma <= 0) return 0;
+        return Math.min(maxLingerNanos, (long) (targetBatch / rateEwma * 1_000_000_000L));
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - batch.size());
+
+                int target = targetBatchSize();
+                long deadline = System.nanoTime() + lingerNanos(target);
+                while (batch.size() < target) {
+                    long wait = deadline - System.nanoTime();
+                    if (wait <= 0) break;
+                    Pending next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                if (!running) continue;
+                // Nothing will send what is queued any more: stop accepting orders and fail the rest
+                running = false;
+                failUnsent(batch, e);
+                failQueued(e);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.out.println("[DEBUG] Order batch failed: " + e);
+                failUnsent(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void sendBatch(List<Pending> batch) {
+        batches.incrementAndGet();
+        orders.addAndGet(batch.size());
+        for (Pending p : batch) {
+            CompletableFuture<OrderReceipt> sent;
+            try {
+                sent = delegate.send(p.topic, p.key, p.event);
+            } catch (RuntimeException e) {
+                // Only this record failed to reach the producer; the others in the batch still go
+                p.result.completeExceptionally(e);
+                continue;
+            }
+            p.handedOff = true;
+            sent.whenComplete((receipt, ex) -> {
+                if (ex != null) p.result.completeExceptionally(ex);
+                else p.result.complete(receipt);
+            });
+        }
+        // Push the batch to the broker now instead of waiting out the producer's linger.ms; if that fails the
+        // records are still in the producer and their acks decide the outcome
+        try {
+            flush.run();
+        } catch (RuntimeException e) {
+            System.out.println("[DEBUG] Order batch flush failed: " + e);
+        }
+
+        long now = System.nanoTime();
+        double rate = batch.size() * 1_000_000_000.0 / Math.max(1, now - lastBatchNanos);
+        rateEwma = rateEwma == 0 ? rate : RATE_ALPHA * rate + (1 - RATE_ALPHA) * rateEwma;
+        lastBatchNanos = now;
+    }
+
+    // Records the delegate never got; those it did are completed by their own acks
+    private static void failUnsent(List<Pending> batch, Throwable cause) {
+        for (Pending p : batch) {
+            if (!p.handedOff) p.result.completeExceptionally(cause);
+        }
+    }
+
+    private void failQueued(Throwable cause) {
+        Pending p;
+        while ((p = queue.poll()) != null) p.result.completeExceptionally(cause);
+    }
+
+    public double getRateEwma() { return rateEwma; }
+    public long getBatchCount() { return batches.get(); }
+    public long getOrderCount() { return orders.get(); }
+    public double getAverageBatchSize() {
+        long b = batches.get();
+        return b == 0 ? 0 : (double) orders.get() / b;
+    }
+
+    // Stop accepting orders, send what is queued and wait for the flusher to finish
+    @Override
+    public void close() {
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Left behind by a flusher that did not finish in time
+        failQueued(new IllegalStateException("Order sender is closed"));
+    }
+
+    Thread getFlusher() {
+        return flusher;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.orderservice;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Adaptive admission control in front of the producer, so a slow broker turns into fast 503s instead of
+ * request threads blocking in KafkaTemplate.send.
+ *
+ * The concurrency limit follows AIMD: it grows by about one per window of successful acks and is cut by
+ * {@code backoff} when an ack is slow or fails, or the producer buffer is filling up. BULK requests may
+ * only use {@code bulkShare} of the limit and are refused first when the buffer is under pressure.
+ */
+@Component
+public class AdmissionLimiter implements MeterBinder {
+
+    public enum Priority { INTERACTIVE, BULK }
+
+    private static final double BULK_BUFFER_THRESHOLD = 0.8;
+    private static final double ALL_BUFFER_THRESHOLD = 0.95;
+    private static final long DECREASE_INTERVAL_NANOS = Duration.ofMillis(100).toNanos();
+    private static final long BUFFER_SAMPLE_NANOS = Duration.ofMillis(100).toNanos();
+
+    private final DoubleSupplier bufferUtilization;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoff;
+    private final double bulkShare;
+    private final long retryAfterSeconds;
+
+    private volatile double limit;
+    private long lastDecreaseNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double lastBufferUtilization;
+    private volatile long lastBufferSampleNanos = System.nanoTime() - BUFFER_SAMPLE_NANOS;
+
+    private final AtomicLong[] admitted = {new AtomicLong(), new AtomicLong()};
+    private final AtomicLong[] rejected = {new AtomicLong(), new AtomicLong()};
+
+    @Autowired
+    public AdmissionLimiter(ObjectProvider<KafkaTemplate<String, OrderEvent>> kafkaTemplate,
+                            @Value("${orders.admission.initial-limit:100}") int initialLimit,
+                            @Value("${orders.admission.min-limit:4}") int minLimit,
+                            @Value("${orders.admission.max-limit:5000}") int maxLimit,
+                            @Value("${orders.admission.latency-target:PT0.25S}") Duration latencyTarget,
+                            @Value("${orders.admission.bulk-share:0.5}") double bulkShare,
+                            @Value("${orders.admission.retry-after-seconds:1}") long retryAfterSeconds) {
+        this(() -> producerBufferUtilization(kafkaTemplate.getIfAvailable()),
+                initialLimit, minLimit, maxLimit, latencyTarget, bulkShare, retryAfterSeconds);
+    }
+
+    AdmissionLimiter(DoubleSupplier bufferUtilization, int initialLimit, int minLimit, int maxLimit,
+                     Duration latencyTarget, double bulkShare, long retryAfterSeconds) {
+        this.bufferUtilization = bufferUtilization;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.backoff = 0.9;
+        this.bulkShare = bulkShare;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Runs {@code send} if the request is admitted; otherwise returns a future failed with
+     * OverloadedException without calling it. The ack latency of admitted sends feeds the limit.
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, Supplier<CompletableFuture<T>> send) {
+        if (!tryAcquire(priority)) {
+            rejected[priority.ordinal()].incrementAndGet();
+            return CompletableFuture.failedFuture(new OverloadedException(
+                    "Order intake is overloaded (" + priority + "), retry later", retryAfterSeconds));
+        }
+        admitted[priority.ordinal()].incrementAndGet();
+        long start = System.nanoTime();
+        CompletableFuture<T> sent;
+        try {
+            sent = send.get();
+        } catch (RuntimeException e) {
+            release(System.nanoTime() - start, false);
+            throw e;
+        }
+        return sent.whenComplete((r, ex) -> release(System.nanoTime() - start, ex == null));
+    }
+
+    // Whether a request of this priority would currently be admitted; does not take a permit
+    public boolean wouldAdmit(Priority priority) {
+        double utilization = bufferUtilization();
+        if (utilization >= ALL_BUFFER_THRESHOLD) return false;
+        if (priority == Priority.BULK && utilization >= BULK_BUFFER_THRESHOLD) return false;
+        return inFlight.get() + 1 <= Math.max(1, priority == Priority.BULK ? limit * bulkShare : limit);
+    }
+
+    boolean tryAcquire(Priority priority) {
+        double utilization = bufferUtilization();
+        if (utilization >= ALL_BUFFER_THRESHOLD) return false;
+        double allowed = limit;
+        if (priority == Priority.BULK) {
+            if (utilization >= BULK_BUFFER_THRESHOLD) return false;
+            allowed *= bulkShare;
+        }
+        while (true) {
+            int current = inFlight.get();
+            if (current + 1 > Math.max(1, allowed)) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    void release(long latencyNanos, boolean success) {
+        int nowInFlight = inFlight.decrementAndGet();
+        if (!success || latencyNanos > latencyTargetNanos || bufferUtilization() >= BULK_BUFFER_THRESHOLD) {
+            decrease();
+        } else if (nowInFlight + 1 >= limit / 2) {
+            // Only grow while the limit is actually being used
+            increase();
+        }
+    }
+
+    private synchronized void increase() {
+        limit = Math.min(maxLimit, limit + 1.0 / limit);
+    }
+
+    // At most one cut per interval, so one burst of slow acks does not collapse the limit
+    private synchronized void decrease() {
+        long now = System.nanoTime();
+        if (now - lastDecreaseNanos < DECREASE_INTERVAL_NANOS) return;
+        lastDecreaseNanos = now;
+        limit = Math.max(minLimit, limit * backoff);
+    }
+
+    double bufferUtilization() {
+        long now = System.nanoTime();
+        if (now - lastBufferSampleNanos >= BUFFER_SAMPLE_NANOS) {
+            lastBufferUtilization = bufferUtilization.getAsDouble();
+            lastBufferSampleNanos = now;
+        }
+        return lastBufferUtilization;
+    }
+
+    // Share of the producer's record accumulator in use, from the client's own metrics
+    static double producerBufferUtilization(KafkaTemplate<String, OrderEvent> template) {
+        if (template == null) return 0;
+        double available = Double.NaN, total = Double.NaN;
+        try {
+            for (Map.Entry<MetricName, ? extends Metric> e : template.metrics().entrySet()) {
+                if (!"producer-metrics".equals(e.getKey().group())) continue;
+                if ("buffer-available-bytes".equals(e.getKey().name())) available = ((Number) e.getValue().metricValue()).doubleValue();
+                if ("buffer-total-bytes".equals(e.getKey().name())) total = ((Number) e.getValue().metricValue()).doubleValue();
+            }
+        } catch (RuntimeException e) {
+            return 0;
+        }
+        if (Double.isNaN(available) || Double.isNaN(total) || total <= 0) return 0;
+        return 1.0 - available / total;
+    }
+
+    public double getLimit() { return limit; }
+    public int getInFlight() { return inFlight.get(); }
+    public long getRejected(Priority priority) { return rejected[priority.ordinal()].get(); }
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("orders.admission.limit", this, AdmissionLimiter::getLimit).register(registry);
+        Gauge.builder("orders.admission.inflight", inFlight, AtomicInteger::get).register(registry);
+        Gauge.builder("orders.admission.buffer.utilization", this, l -> l.lastBufferUtilization).register(registry);
+        for (Priority p : Priority.values()) {
+            String tag = p.name().toLowerCase();
+            FunctionCounter.builder("orders.admission.admitted", admitted[p.ordinal()], AtomicLong::get).tag("priority", tag).register(registry);
+            FunctionCounter.builder("orders.admission.rejected", rejected[p.ordinal()], AtomicLong::get).tag("priority", tag).register(registry);
+        }
+    }
+}
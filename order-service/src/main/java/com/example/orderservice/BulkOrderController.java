@@ -0,0 +1,282 @@
+package com.example.orderservice;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Exposes POST /orders:bulk for partners pushing orders in bursts.
+ * The NDJSON body is read one line at a time and sent in batches; at most one batch of orders is held in
+ * memory, and a line longer than {@code orders.bulk.max-line-chars} is rejected without being buffered.
+ * The response streams one result line per input line, followed by a summary line.
+ * Bulk traffic runs at BULK priority, so it is shed before interactive orders when the producer backs up.
+ */
+@RestController
+public class BulkOrderController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final ObjectReader orderReader;
+    private final ObjectWriter resultWriter;
+    private final OrderProducer orderProducer;
+    private final AdmissionLimiter admissionLimiter;
+    private final StockAvailabilityCache stockCache;
+    private final int batchSize;
+    private final int maxLineChars;
+    private final long ackTimeoutMs;
+
+    public BulkOrderController(ObjectMapper objectMapper,
+                               OrderProducer orderProducer,
+                               AdmissionLimiter admissionLimiter,
+                               ObjectProvider<StockAvailabilityCache> stockCache,
+                               @Value("${orders.bulk.batch-size:500}") int batchSize,
+                               @Value("${orders.bulk.max-line-chars:65536}") int maxLineChars,
+                               @Value("${orders.ack-timeout-ms:10000}") long ackTimeoutMs) {
+        this.orderReader = objectMapper.readerFor(Order.class);
+        this.resultWriter = objectMapper.writer();
+        this.orderProducer = orderProducer;
+        this.admissionLimiter = admissionLimiter;
+        this.stockCache = stockCache.getIfAvailable();
+        this.batchSize = batchSize;
+        this.maxLineChars = maxLineChars;
+        this.ackTimeoutMs = ackTimeoutMs;
+    }
+
+    /** Result for one input line (or the trailing summary). */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class LineResult {
+        private Integer line;
+        private String orderId;
+        private String status;
+        private String error;
+        private Integer partition;
+        private Long offset;
+        private Long accepted;
+        private Long rejected;
+        private Long ordersPerSecond;
+
+        public Integer getLine() { return line; }
+        public String getOrderId() { return orderId; }
+        public String getStatus() { return status; }
+        public String getError() { return error; }
+        public Integer getPartition() { return partition; }
+        public Long getOffset() { return offset; }
+        public Long getAccepted() { return accepted; }
+        public Long getRejected() { return rejected; }
+        public Long getOrdersPerSecond() { return ordersPerSecond; }
+    }
+
+    // A line waiting for its batch to be acknowledged; ack is null for lines rejected on validation
+    private static final class Pending {
+        final int line;
+        final String orderId;
+        final CompletableFuture<OrderReceipt> ack;
+        final String error;
+
+        Pending(int line, String orderId, CompletableFuture<OrderReceipt> ack, String error) {
+            this.line = line;
+            this.orderId = orderId;
+            this.ack = ack;
+            this.error = error;
+        }
+
+        boolean isShed() {
+            return ack != null && ack.isCompletedExceptionally() && OrderController.shed(ack) != null;
+        }
+    }
+
+    @PostMapping(path = "/orders:bulk", consumes = NDJSON)
+    public void placeOrders(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long start = System.nanoTime();
+        if (!admissionLimiter.wouldAdmit(AdmissionLimiter.Priority.BULK)) {
+            // Refuse before reading the body
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admissionLimiter.getRetryAfterSeconds()));
+            return;
+        }
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Writer out = response.getWriter();
+
+        long[] counts = new long[2]; // accepted, rejected
+        List<Pending> batch = new ArrayList<>(batchSize);
+        try (LineReader reader = new LineReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8), maxLineChars)) {
+            String text;
+            int lineNo = 0;
+            while ((text = reader.next()) != null) {
+                lineNo++;
+                if (reader.isTooLong()) {
+                    batch.add(new Pending(lineNo, null, null, "line is longer than " + maxLineChars + " characters"));
+                    if (batch.size() >= batchSize) flush(batch, out, counts);
+                    continue;
+                }
+                if (text.isBlank()) continue;
+                Pending p = submit(lineNo, text);
+                if (p.isShed() && !batch.isEmpty()) {
+                    // Out of bulk permits: wait for this batch's acks to hand them back, then try once more
+                    flush(batch, out, counts);
+                    p = submit(lineNo, text);
+                }
+                batch.add(p);
+                if (batch.size() >= batchSize) flush(batch, out, counts);
+            }
+        }
+        flush(batch, out, counts);
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        LineResult summary = new LineResult();
+        summary.status = "SUMMARY";
+        summary.accepted = counts[0];
+        summary.rejected = counts[1];
+        summary.ordersPerSecond = (counts[0] + counts[1]) * 1_000_000_000L / elapsedNanos;
+        out.write(resultWriter.writeValueAsString(summary));
+        out.write('\n');
+        out.flush();
+        System.out.println("[DEBUG] Bulk ingestion: accepted=" + counts[0] + ", rejected=" + counts[1] +
+                " in " + elapsedNanos / 1_000_000 + " ms");
+    }
+
+    private Pending submit(int lineNo, String text) {
+        Order order;
+        try {
+            order = orderReader.readValue(text);
+        } catch (JsonProcessingException e) {
+            return new Pending(lineNo, null, null, "malformed JSON: " + e.getOriginalMessage());
+        }
+        String invalid = validate(order);
+        if (invalid != null) return new Pending(lineNo, order.getId(), null, invalid);
+        if (OrderController.checkStock(stockCache, order) != null) return new Pending(lineNo, order.getId(), null, "out of stock");
+        return new Pending(lineNo, order.getId(),
+                admissionLimiter.submit(AdmissionLimiter.Priority.BULK, () -> orderProducer.sendOrder(order)), null);
+    }
+
+    /**
+     * Splits a body into lines on '\n' (dropping a trailing '\r'). A line longer than {@code maxChars} is
+     * cut off there and the rest of it skipped, so it never has to fit in memory.
+     */
+    static final class LineReader implements AutoCloseable {
+        private final Reader in;
+        private final int maxChars;
+        private final char[] buf = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int pos;
+        private int limit;
+        private boolean tooLong;
+
+        LineReader(Reader in, int maxChars) {
+            this.in = in;
+            this.maxChars = maxChars;
+        }
+
+        /** The next line, or null at the end of the input. */
+        String next() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            while (true) {
+                if (pos == limit) {
+                    int n = in.read(buf, 0, buf.length);
+                    if (n <= 0) return line.length() > 0 || tooLong ? finish() : null;
+                    pos = 0;
+                    limit = n;
+                }
+                int start = pos;
+                while (pos < limit && buf[pos] != '\n') pos++;
+                append(start, pos);
+                if (pos < limit) {
+                    pos++;
+                    return finish();
+                }
+            }
+        }
+
+        /** Whether the line last returned was cut off at maxChars. */
+        boolean isTooLong() {
+            return tooLong;
+        }
+
+        private void append(int from, int to) {
+            int room = maxChars - line.length();
+            if (to - from > room) {
+                tooLong = true;
+                line.append(buf, from, Math.max(0, room));
+            } else {
+                line.append(buf, from, to - from);
+            }
+        }
+
+        private String finish() {
+            int end = line.length();
+            if (end > 0 && line.charAt(end - 1) == '\r') end--;
+            return line.substring(0, end);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    static String validate(Order order) {
+        if (order == null) return "empty order";
+        if (order.getId() == null || order.getId().isBlank()) return "id is required";
+        if (order.getProduct() == null || order.getProduct().isBlank()) return "product is required";
+        if (order.getQuantity() <= 0) return "quantity must be positive";
+        return null;
+    }
+
+    // Wait for the batch's acks in line order, stream the results and release the batch
+    private void flush(List<Pending> batch, Writer out, long[] counts) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ackTimeoutMs);
+        for (Pending p : batch) {
+            LineResult r = new LineResult();
+            r.line = p.line;
+            r.orderId = p.orderId;
+            r.error = p.error;
+            if (p.ack != null) {
+                try {
+                    OrderReceipt receipt = p.ack.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    r.partition = receipt.getPartition();
+                    r.offset = receipt.getOffset();
+                } catch (ExecutionException e) {
+                    r.error = e.getCause() instanceof OverloadedException
+                            ? "shed: " + e.getCause().getMessage()
+                            : "not acknowledged: " + e.getCause();
+                } catch (TimeoutException e) {
+                    r.error = "not acknowledged within " + ackTimeoutMs + " ms";
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    r.error = "interrupted";
+                }
+            }
+            r.status = r.error == null ? "ACCEPTED" : "REJECTED";
+            counts[r.error == null ? 0 : 1]++;
+            out.write(resultWriter.writeValueAsString(r));
+            out.write('\n');
+        }
+        out.flush();
+        batch.clear();
+    }
+}
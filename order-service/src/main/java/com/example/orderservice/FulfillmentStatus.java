@@ -0,0 +1,19 @@
+package com.example.orderservice;
+
+/**
+ * Fulfillment saga status as published by fulfillment-service on the fulfillment-events topic.
+ * Keep in sync with fulfillment-service's model.FulfillmentStatus; the ordinal is stored by the status view.
+ */
+public enum FulfillmentStatus {
+    NEW,
+    ALLOCATING,
+    ALLOCATED,
+    PAYMENT_PENDING,
+    PAYMENT_RECEIVED,
+    SHIPPING,
+    SHIPPED,
+    DELIVERED,
+    CANCELLED,
+    FAILED,
+    COMPENSATED
+}
@@ -0,0 +1,172 @@
+package com.example.orderservice;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Streaming detector for products that dominate the order stream (flash sales).
+ *
+ * Frequencies are estimated with a Count-Min sketch, so memory is fixed regardless of catalogue size.
+ * A product is hot once its estimated share of recent orders reaches {@code hotFraction}; at most
+ * {@code topK} products are hot at a time. All counters are halved every {@code decayInterval}, and a
+ * hot product cools down once its share falls below half the threshold. Every change to the hot set
+ * produces a new versioned {@link HotKeyMapping} for the mapping listener.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.partitioning.strategy", havingValue = "product")
+public class HotKeyDetector implements MeterBinder {
+
+    private static final int DEPTH = 4;
+
+    private final AtomicLongArray sketch;
+    private final int mask;
+    private final AtomicLong total = new AtomicLong();
+    private final int topK;
+    private final double hotFraction;
+    private final long minSamples;
+    private final int split;
+    private final long decayIntervalNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong nextDecayNanos;
+
+    private final Set<String> hot = ConcurrentHashMap.newKeySet();
+    private volatile HotKeyMapping mapping = new HotKeyMapping(0, 0, Collections.emptyMap());
+    private volatile Consumer<HotKeyMapping> mappingListener = m -> {};
+    private final AtomicLong promotions = new AtomicLong();
+
+    @Autowired
+    public HotKeyDetector(@Value("${orders.partitioning.hot-key.width:4096}") int width,
+                          @Value("${orders.partitioning.hot-key.top-k:16}") int topK,
+                          @Value("${orders.partitioning.hot-key.fraction:0.05}") double hotFraction,
+                          @Value("${orders.partitioning.hot-key.min-samples:1000}") long minSamples,
+                          @Value("${orders.partitioning.hot-key.split:4}") int split,
+                          @Value("${orders.partitioning.hot-key.decay-interval:PT10S}") Duration decayInterval) {
+        this(width, topK, hotFraction, minSamples, split, decayInterval, System::nanoTime);
+    }
+
+    HotKeyDetector(int width, int topK, double hotFraction, long minSamples, int split,
+                   Duration decayInterval, LongSupplier nanoClock) {
+        int w = Integer.highestOneBit(Math.max(16, width - 1) << 1);
+        this.sketch = new AtomicLongArray(DEPTH * w);
+        this.mask = w - 1;
+        this.topK = topK;
+        this.hotFraction = hotFraction;
+        this.minSamples = minSamples;
+        this.split = split;
+        this.decayIntervalNanos = decayInterval.toNanos();
+        this.nanoClock = nanoClock;
+        this.nextDecayNanos = new AtomicLong(nanoClock.getAsLong() + decayIntervalNanos);
+    }
+
+    /** Counts one order for the product; promotes it to the hot set if it crossed the threshold. */
+    public void record(String product) {
+        if (product == null) return;
+        maybeDecay();
+        int h1 = Utils.murmur2(product.getBytes(StandardCharsets.UTF_8));
+        int h2 = (h1 >>> 16) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, sketch.incrementAndGet(cell(row, h1, h2)));
+        }
+        long n = total.incrementAndGet();
+        if (n >= minSamples && estimate >= hotFraction * n && !hot.contains(product)) {
+            promote(product, estimate);
+        }
+    }
+
+    public long estimate(String product) {
+        int h1 = Utils.murmur2(product.getBytes(StandardCharsets.UTF_8));
+        int h2 = (h1 >>> 16) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) estimate = Math.min(estimate, sketch.get(cell(row, h1, h2)));
+        return estimate;
+    }
+
+    // Number of sub-partitions the product is spread over; 1 when it is not hot
+    public int splitFor(String product) {
+        return hot.contains(product) ? split : 1;
+    }
+
+    public HotKeyMapping getMapping() {
+        return mapping;
+    }
+
+    public void setMappingListener(Consumer<HotKeyMapping> mappingListener) {
+        this.mappingListener = mappingListener;
+    }
+
+    private int cell(int row, int h1, int h2) {
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+
+    private synchronized void promote(String product, long estimate) {
+        if (hot.contains(product)) return;
+        if (hot.size() >= topK) {
+            // Replace the coolest hot product, but only if the newcomer is hotter
+            String coolest = null;
+            long coolestCount = Long.MAX_VALUE;
+            for (String p : hot) {
+                long c = estimate(p);
+                if (c < coolestCount) { coolest = p; coolestCount = c; }
+            }
+            if (coolest == null || coolestCount >= estimate) return;
+            hot.remove(coolest);
+        }
+        hot.add(product);
+        promotions.incrementAndGet();
+        System.out.println("[DEBUG] Hot product detected: " + product + " (~" + estimate + " of " + total.get() + " orders)");
+        publish();
+    }
+
+    private void maybeDecay() {
+        long now = nanoClock.getAsLong();
+        long next = nextDecayNanos.get();
+        if (now - next < 0 || !nextDecayNanos.compareAndSet(next, now + decayIntervalNanos)) return;
+        for (int i = 0; i < sketch.length(); i++) {
+            long v = sketch.get(i);
+            if (v != 0) sketch.getAndAdd(i, -(v >>> 1));
+        }
+        long t = total.get();
+        total.getAndAdd(-(t >>> 1));
+        synchronized (this) {
+            long n = Math.max(1, total.get());
+            boolean changed = hot.removeIf(p -> estimate(p) < hotFraction * n / 2);
+            if (changed) publish();
+        }
+    }
+
+    // Called with the monitor held, so mapping versions are published in order
+    private void publish() {
+        Map<String, Integer> splits = new TreeMap<>();
+        for (String p : hot) splits.put(p, split);
+        HotKeyMapping next = new HotKeyMapping(mapping.getVersion() + 1, System.currentTimeMillis(), splits);
+        mapping = next;
+        mappingListener.accept(next);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("orders.partitioning.hot.keys", hot, Set::size).register(registry);
+        FunctionCounter.builder("orders.partitioning.hot.promotions", promotions, AtomicLong::get).register(registry);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.orderservice;
+
+import java.util.Map;
+
+/**
+ * Versioned hot-product routing published to "orders-hot-keys": each hot product and the number of
+ * sub-partitions its orders are spread over (see {@link ProductPartitioner#partitionsFor}). Products not
+ * listed live on a single partition, so consumers only need to merge per-product results for these.
+ */
+public class HotKeyMapping {
+    private long version;
+    private long generatedAt;
+    private Map<String, Integer> splits;
+
+    public HotKeyMapping() {}
+
+    public HotKeyMapping(long version, long generatedAt, Map<String, Integer> splits) {
+        this.version = version;
+        this.generatedAt = generatedAt;
+        this.splits = splits;
+    }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    public long getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(long generatedAt) { this.generatedAt = generatedAt; }
+    public Map<String, Integer> getSplits() { return splits; }
+    public void setSplits(Map<String, Integer> splits) { this.splits = splits; }
+}
@@ -0,0 +1,48 @@
+package com.example.orderservice;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes every new HotKeyMapping to the "orders-hot-keys" topic so that consumers know which
+ * products are split across partitions and must be merged. Sends run on their own thread, in version
+ * order, so a slow broker never holds up order intake.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.partitioning.strategy", havingValue = "product")
+public class HotKeyMappingPublisher implements AutoCloseable {
+
+    public static final String TOPIC = "orders-hot-keys";
+
+    private final KafkaTemplate<String, HotKeyMapping> kafkaTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "hot-key-mapping-publisher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public HotKeyMappingPublisher(HotKeyDetector detector, KafkaTemplate<String, HotKeyMapping> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+        detector.setMappingListener(mapping -> executor.execute(() -> publish(mapping)));
+    }
+
+    private void publish(HotKeyMapping mapping) {
+        try {
+            kafkaTemplate.send(TOPIC, "orders", mapping).whenComplete((r, ex) -> {
+                if (ex != null) System.out.println("[DEBUG] Failed to publish hot-key mapping v" + mapping.getVersion() + ": " + ex.getMessage());
+            });
+            System.out.println("[DEBUG] Published hot-key mapping v" + mapping.getVersion() + ": " + mapping.getSplits());
+        } catch (RuntimeException e) {
+            System.out.println("[DEBUG] Failed to publish hot-key mapping v" + mapping.getVersion() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
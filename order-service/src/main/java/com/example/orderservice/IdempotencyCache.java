@@ -0,0 +1,162 @@
+package com.example.orderservice;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Remembers the outcome of each Idempotency-Key so client retries of POST /orders are answered from the
+ * original send instead of publishing the order again.
+ *
+ * Bounded and TTL-evicting: all entries share one TTL, so insertion order is expiry order and a FIFO
+ * queue is enough to evict. A retry that arrives while the first send is still in flight is coalesced
+ * onto the same future. Failed sends are forgotten so that a retry can go through; their queue entries
+ * still count against max-entries until they reach the head, so the queue stays bounded however many
+ * sends fail.
+ */
+@Component
+public class IdempotencyCache implements MeterBinder {
+
+    public enum Outcome { NEW, HIT, COALESCED, CONFLICT }
+
+    /** Result of a lookup: the future to answer from, and how it was obtained. */
+    public static class Lookup {
+        private final Outcome outcome;
+        private final CompletableFuture<OrderReceipt> future;
+
+        Lookup(Outcome outcome, CompletableFuture<OrderReceipt> future) {
+            this.outcome = outcome;
+            this.future = future;
+        }
+
+        public Outcome getOutcome() { return outcome; }
+        public CompletableFuture<OrderReceipt> getFuture() { return future; }
+        public boolean isReplay() { return outcome == Outcome.HIT || outcome == Outcome.COALESCED; }
+    }
+
+    private static final class Entry {
+        final String key;
+        final String fingerprint;
+        final CompletableFuture<OrderReceipt> future = new CompletableFuture<>();
+        final long expiresAtNanos;
+
+        Entry(String key, String fingerprint, long expiresAtNanos) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    // Size of insertionOrder, which is O(n) to ask the queue for
+    private final AtomicInteger queued = new AtomicInteger();
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public IdempotencyCache(@Value("${orders.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${orders.idempotency.max-entries:100000}") int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the future for this key, calling {@code send} only if the key is new (or expired).
+     * The fingerprint identifies the request body; reusing a key for a different order is a CONFLICT.
+     */
+    public Lookup lookup(String key, String fingerprint, Supplier<CompletableFuture<OrderReceipt>> send) {
+        long now = System.nanoTime();
+        while (true) {
+            Entry existing = entries.get(key);
+            if (existing != null && now - existing.expiresAtNanos >= 0) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (existing != null) {
+                if (!existing.fingerprint.equals(fingerprint)) {
+                    conflicts.incrementAndGet();
+                    return new Lookup(Outcome.CONFLICT, existing.future);
+                }
+                if (existing.future.isDone()) {
+                    hits.incrementAndGet();
+                    return new Lookup(Outcome.HIT, existing.future);
+                }
+                coalesced.incrementAndGet();
+                return new Lookup(Outcome.COALESCED, existing.future);
+            }
+
+            Entry created = new Entry(key, fingerprint, now + ttlNanos);
+            if (entries.putIfAbsent(key, created) != null) continue; // lost the race; re-read
+            misses.incrementAndGet();
+            insertionOrder.add(created);
+            queued.incrementAndGet();
+            evict(now);
+
+            CompletableFuture<OrderReceipt> sent;
+            try {
+                sent = send.get();
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            sent.whenComplete((receipt, ex) -> {
+                if (ex != null) {
+                    entries.remove(key, created);
+                    created.future.completeExceptionally(ex);
+                } else {
+                    created.future.complete(receipt);
+                }
+            });
+            return new Lookup(Outcome.NEW, created.future);
+        }
+    }
+
+    // Drop expired and forgotten (failed, lazily expired) entries from the head, then the oldest ones while
+    // the queue is over capacity; bounding the queue rather than the map keeps forgotten entries from piling up
+    private void evict(long now) {
+        Entry head;
+        while ((head = insertionOrder.peek()) != null
+                && (now - head.expiresAtNanos >= 0 || entries.get(head.key) != head || queued.get() > maxEntries)) {
+            if (!insertionOrder.remove(head)) continue;
+            queued.decrementAndGet();
+            if (entries.remove(head.key, head)) evictions.incrementAndGet();
+        }
+    }
+
+    public int size() { return entries.size(); }
+    int queued() { return queued.get(); }
+    public long getHits() { return hits.get(); }
+    public long getCoalesced() { return coalesced.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getConflicts() { return conflicts.get(); }
+    public long getEvictions() { return evictions.get(); }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("orders.idempotency.requests", hits, AtomicLong::get).tag("result", "hit").register(registry);
+        FunctionCounter.builder("orders.idempotency.requests", coalesced, AtomicLong::get).tag("result", "coalesced").register(registry);
+        FunctionCounter.builder("orders.idempotency.requests", misses, AtomicLong::get).tag("result", "miss").register(registry);
+        FunctionCounter.builder("orders.idempotency.requests", conflicts, AtomicLong::get).tag("result", "conflict").register(registry);
+        FunctionCounter.builder("orders.idempotency.evictions", evictions, AtomicLong::get).register(registry);
+        Gauge.builder("orders.idempotency.size", entries, Map::size).register(registry);
+    }
+}
@@ -5,22 +5,65 @@ import java.util.Map;
 
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 @Configuration
 public class KafkaConfig {
 
+    // none, gzip, snappy, lz4 or zstd
+    @Value("${orders.producer.compression:lz4}")
+    private String compression;
+
+    // Upper bound only: AdaptiveBatchingOrderSender flushes earlier when the order rate is low
+    @Value("${orders.producer.linger-ms:20}")
+    private int lingerMs;
+
+    @Value("${orders.producer.batch-size:65536}")
+    private int batchSize;
+
+    // How long send() may block on metadata or a full buffer before failing
+    @Value("${orders.producer.max-block-ms:60000}")
+    private long maxBlockMs;
+
+    // order-id (default): spread orders evenly; product: one partition per product, hot products split
+    @Value("${orders.partitioning.strategy:order-id}")
+    private String partitioningStrategy;
+
+    @Autowired
+    private ObjectProvider<HotKeyDetector> hotKeyDetector;
+
     @Bean
     public ProducerFactory<String, OrderEvent> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        // Idempotent delivery: retries cannot duplicate or reorder orders within a partition
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        if ("product".equals(partitioningStrategy)) {
+            configProps.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, ProductPartitioner.class);
+            // Handed to ProductPartitioner.configure as-is, so the partitioner sees the live hot set
+            configProps.put(ProductPartitioner.HOT_KEY_DETECTOR_CONFIG, hotKeyDetector.getObject());
+        }
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
@@ -28,4 +71,31 @@ public class KafkaConfig {
     public KafkaTemplate<String, OrderEvent> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+
+    @Bean
+    @ConditionalOnProperty(name = "orders.partitioning.strategy", havingValue = "product")
+    public KafkaTemplate<String, HotKeyMapping> hotKeyMappingTemplate() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps));
+    }
+
+    /**
+     * Listener containers for the local read views, which replay their topic from the beginning on every start
+     * under a group of their own. They never commit offsets: nothing would read them, and without offsets the
+     * broker drops each view's group as soon as its instance stops.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> readViewListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ObjectProvider<ConsumerFactory<Object, Object>> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory.getObject());
+        // Records are never acknowledged, so MANUAL commits nothing
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
 }
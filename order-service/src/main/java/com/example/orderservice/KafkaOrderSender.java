@@ -1,9 +1,20 @@
 package com.example.orderservice;
 
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+/**
+ * OrderSender that writes order events with the KafkaTemplate; the receipt completes when the broker acks.
+ * The send call itself is not always asynchronous: while topic metadata is missing or the producer buffer
+ * is full, KafkaTemplate.send blocks the caller for up to max.block.ms (orders.producer.max-block-ms).
+ * With orders.batching.enabled that caller is the batch flusher thread, otherwise it is the request thread.
+ * When that wait times out, or the event cannot be serialized, the send throws; the failure is returned as a
+ * failed receipt instead, so callers handle it like any broker error.
+ */
 @Component
 public class KafkaOrderSender implements OrderSender {
 
@@ -15,7 +26,14 @@ public class KafkaOrderSender implements OrderSender {
     }
 
     @Override
-    public void send(String topic, String key, OrderEvent orderEvent) {
-        kafkaTemplate.send(topic, key, orderEvent);
+    public CompletableFuture<OrderReceipt> send(String topic, String key, OrderEvent orderEvent) {
+        try {
+            return kafkaTemplate.send(topic, key, orderEvent).thenApply(result -> {
+                RecordMetadata metadata = result.getRecordMetadata();
+                return new OrderReceipt(key, metadata.topic(), metadata.partition(), metadata.offset());
+            });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
 }
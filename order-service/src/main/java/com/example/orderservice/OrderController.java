@@ -1,22 +1,140 @@
 package com.example.orderservice;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 /**
  * Exposes a POST /orders endpoint to place new orders.
+ * In "acked" mode the response is deferred until the broker acknowledges the order event, without
+ * holding a servlet thread; "fire-and-forget" answers as soon as the event is handed to the producer.
+ * Requests carrying an Idempotency-Key header are deduplicated: a retry is answered from the original send.
+ * Sends go through the AdmissionLimiter; shed requests get an immediate 503 with Retry-After.
+ * With the stock-availability cache enabled, orders for products known to be out of stock get a 409.
  */
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
 
+    static final String FIRE_AND_FORGET = "fire-and-forget";
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String REPLAYED = "Idempotent-Replayed";
+
     @Autowired
     private OrderProducer orderProducer;
 
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+
+    @Autowired
+    private AdmissionLimiter admissionLimiter;
+
+    @Autowired(required = false)
+    private StockAvailabilityCache stockCache;
+
+    @Value("${orders.ack-mode:acked}")
+    private String ackMode;
+
+    @Value("${orders.ack-timeout-ms:10000}")
+    private long ackTimeoutMs;
+
     @PostMapping
-    public ResponseEntity<String> placeOrder(@RequestBody Order order) {
-        orderProducer.sendOrder(order);
-        return ResponseEntity.ok("Order placed and sent to Kafka topic.");
+    public DeferredResult<ResponseEntity<?>> placeOrder(@RequestBody Order order,
+                                                        @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        long start = System.nanoTime();
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(ackTimeoutMs);
+        // The stock check is part of the send, so idempotent replays are still answered from the original ack
+        Supplier<CompletableFuture<OrderReceipt>> send = () -> {
+            CompletableFuture<OrderReceipt> refused = checkStock(stockCache, order);
+            if (refused != null) return refused;
+            return admissionLimiter.submit(AdmissionLimiter.Priority.INTERACTIVE, () -> orderProducer.sendOrder(order));
+        };
+        CompletableFuture<OrderReceipt> ack;
+        boolean replayed = false;
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            IdempotencyCache.Lookup lookup = idempotencyCache.lookup(idempotencyKey, fingerprint(order), send);
+            if (lookup.getOutcome() == IdempotencyCache.Outcome.CONFLICT) {
+                result.setResult(ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                        .body("Idempotency-Key " + idempotencyKey + " was already used for a different order."));
+                return result;
+            }
+            ack = lookup.getFuture();
+            replayed = lookup.isReplay();
+        } else {
+            ack = send.get();
+        }
+
+        if (ack.isCompletedExceptionally()) {
+            ResponseEntity<?> shed = shed(ack);
+            if (shed == null) shed = outOfStock(ack);
+            if (shed != null) {
+                result.setResult(shed);
+                return result;
+            }
+        }
+
+        if (FIRE_AND_FORGET.equals(ackMode) && !ack.isCompletedExceptionally()) {
+            result.setResult(ResponseEntity.ok().header(REPLAYED, String.valueOf(replayed))
+                    .body("Order placed and sent to Kafka topic."));
+            return result;
+        }
+
+        result.onTimeout(() -> result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("Order " + order.getId() + " was not acknowledged within " + ackTimeoutMs + " ms.")));
+        boolean replay = replayed;
+        ack.whenComplete((receipt, ex) -> {
+            if (ex != null && shed(ack) != null) {
+                result.setResult(shed(ack));
+            } else if (ex != null) {
+                System.out.println("[DEBUG] Order " + order.getId() + " not acknowledged: " + ex);
+                result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body("Order " + order.getId() + " could not be written to Kafka."));
+            } else {
+                System.out.println("[DEBUG] Order acknowledged in " + (System.nanoTime() - start) / 1_000 + " us: " + receipt);
+                result.setResult(ResponseEntity.ok().header(REPLAYED, String.valueOf(replay)).body(receipt));
+            }
+        });
+        return result;
+    }
+
+    // 503 with Retry-After if the send was refused by admission control, otherwise null
+    static ResponseEntity<?> shed(CompletableFuture<?> ack) {
+        if (!(failureCause(ack) instanceof OverloadedException overloaded)) return null;
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(overloaded.getRetryAfterSeconds()))
+                .body(overloaded.getMessage());
+    }
+
+    // 409 if the order was refused by the stock-availability cache, otherwise null
+    static ResponseEntity<?> outOfStock(CompletableFuture<?> ack) {
+        if (!(failureCause(ack) instanceof OutOfStockException outOfStock)) return null;
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(outOfStock.getMessage());
+    }
+
+    // A failed future if the cache knows the order cannot be fulfilled, otherwise null
+    static CompletableFuture<OrderReceipt> checkStock(StockAvailabilityCache stockCache, Order order) {
+        if (stockCache == null || order.getProduct() == null) return null;
+        if (stockCache.check(order.getProduct(), order.getQuantity()) != StockAvailabilityCache.Verdict.OUT_OF_STOCK) return null;
+        return CompletableFuture.failedFuture(new OutOfStockException(
+                "Product " + order.getProduct() + " is out of stock for quantity " + order.getQuantity() + "."));
+    }
+
+    private static Throwable failureCause(CompletableFuture<?> ack) {
+        Throwable cause = ack.handle((r, ex) -> ex).join();
+        while (cause instanceof CompletionException && cause.getCause() != null) cause = cause.getCause();
+        return cause;
+    }
+
+    // Identifies the request body behind an idempotency key
+    static String fingerprint(Order order) {
+        return order.getId() + '|' + order.getProduct() + '|' + order.getQuantity();
     }
 }
@@ -4,9 +4,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service that sends Order events to the "orders" Kafka topic.
+ * Orders the broker acknowledges are recorded in OrderService, which serves the GET /orders queries.
  */
 @Service
 public class OrderProducer {
@@ -14,13 +16,27 @@ public class OrderProducer {
     private static final String TOPIC = "orders";
 
     private final OrderSender orderSender;
+    private HotKeyDetector hotKeyDetector;
+    private OrderService orderService;
 
     @Autowired
     public OrderProducer(OrderSender orderSender) {
         this.orderSender = orderSender;
     }
 
-    public void sendOrder(Order order) {
+    // Present only with orders.partitioning.strategy=product
+    @Autowired(required = false)
+    public void setHotKeyDetector(HotKeyDetector hotKeyDetector) {
+        this.hotKeyDetector = hotKeyDetector;
+    }
+
+    @Autowired(required = false)
+    public void setOrderService(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    // Completes with the broker receipt, or exceptionally if the record could not be written
+    public CompletableFuture<OrderReceipt> sendOrder(Order order) {
         OrderEvent orderEvent = new OrderEvent(
             order.getId(),
             order.getProduct(),
@@ -28,6 +44,18 @@ public class OrderProducer {
             null, // customerId is not available in Order class
             Instant.now()
         );
-        orderSender.send(TOPIC, order.getId(), orderEvent);
+        if (hotKeyDetector != null) hotKeyDetector.record(order.getProduct());
+        CompletableFuture<OrderReceipt> sent = orderSender.send(TOPIC, order.getId(), orderEvent);
+        if (orderService != null) sent.thenAccept(receipt -> record(order));
+        return sent;
+    }
+
+    // A resent order id (a client retry without an idempotency key) is already recorded and kept as is
+    private void record(Order order) {
+        try {
+            orderService.recordOrder(order);
+        } catch (IllegalArgumentException e) {
+            System.out.println("[DEBUG] Order " + order.getId() + " not recorded for queries: " + e.getMessage());
+        }
     }
 }
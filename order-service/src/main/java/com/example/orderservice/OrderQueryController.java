@@ -0,0 +1,49 @@
+package com.example.orderservice;
+
+import java.time.Instant;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exposes GET /orders queries served from OrderService's secondary indexes.
+ * Examples: ?status=PENDING, ?product=Book&status=PENDING, ?from=2024-01-01T10:00:00Z.
+ * Results are paginated; pass the returned nextCursor as ?cursor= to get the next page.
+ */
+@RestController
+@RequestMapping("/orders")
+public class OrderQueryController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final OrderService orderService;
+
+    public OrderQueryController(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    @GetMapping
+    public OrderService.OrderPage findOrders(@RequestParam(required = false) OrderService.Status status,
+                                             @RequestParam(required = false) String product,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "50") int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        try {
+            if (product != null) return orderService.findByProduct(product, status, cursor, limit);
+            if (status != null) return orderService.findByStatus(status, cursor, limit);
+            if (from != null) return orderService.findCreatedBetween(from, to != null ? to : Instant.now(), cursor, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "One of status, product or from is required");
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.orderservice;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Abstraction for sending orders to Kafka (or stub for tests).
+ * The returned future completes once the broker acknowledges the record.
  */
 public interface OrderSender {
-    void send(String topic, String key, OrderEvent orderEvent);
+    CompletableFuture<OrderReceipt> send(String topic, String key, OrderEvent orderEvent);
 }
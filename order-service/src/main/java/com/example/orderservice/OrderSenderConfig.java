@@ -0,0 +1,60 @@
+package com.example.orderservice;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.kafka.core.KafkaTemplate;
+
+/**
+ * Composes the OrderSender used by OrderProducer: the Kafka sender wrapped in adaptive micro-batching,
+ * and optionally in the local spool that takes over while Kafka is unavailable.
+ */
+@Configuration
+public class OrderSenderConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "orders.batching.enabled", havingValue = "true", matchIfMissing = true)
+    public AdaptiveBatchingOrderSender batchingOrderSender(KafkaOrderSender kafkaOrderSender,
+                                                           KafkaTemplate<String, OrderEvent> kafkaTemplate,
+                                                           @Value("${orders.batching.max-linger-ms:20}") long maxLingerMs,
+                                                           @Value("${orders.batching.max-batch:1000}") int maxBatch,
+                                                           @Value("${orders.batching.capacity:50000}") int capacity,
+                                                           @Value("${orders.batching.max-block-ms:1000}") long maxBlockMs) {
+        return new AdaptiveBatchingOrderSender(kafkaOrderSender, kafkaTemplate::flush,
+                Duration.ofMillis(maxLingerMs), maxBatch, capacity, maxBlockMs);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "orders.spool.enabled", havingValue = "true")
+    public SpoolingOrderSender spoolingOrderSender(KafkaOrderSender kafkaOrderSender,
+                                                   ObjectProvider<AdaptiveBatchingOrderSender> batchingOrderSender,
+                                                   @Value("${orders.spool.file:order-service/spool/orders.spool}") String file,
+                                                   @Value("${orders.spool.capacity-bytes:67108864}") int capacityBytes,
+                                                   @Value("${orders.spool.failover-after:PT2S}") Duration failoverAfter,
+                                                   @Value("${orders.spool.drain-batch:500}") int drainBatch,
+                                                   @Value("${orders.spool.drain-timeout:PT30S}") Duration drainTimeout,
+                                                   @Value("${orders.spool.retry-backoff:PT1S}") Duration retryBackoff) {
+        AdaptiveBatchingOrderSender batching = batchingOrderSender.getIfAvailable();
+        OrderSender delegate = batching != null ? batching : kafkaOrderSender;
+        return new SpoolingOrderSender(delegate, new OrderSpool(Path.of(file), capacityBytes),
+                failoverAfter, drainBatch, drainTimeout, retryBackoff);
+    }
+
+    // The outermost decorator; its lifecycle is managed by its own bean definition
+    @Bean(destroyMethod = "")
+    @Primary
+    public OrderSender orderSender(KafkaOrderSender kafkaOrderSender,
+                                   ObjectProvider<AdaptiveBatchingOrderSender> batchingOrderSender,
+                                   ObjectProvider<SpoolingOrderSender> spoolingOrderSender) {
+        SpoolingOrderSender spooling = spoolingOrderSender.getIfAvailable();
+        if (spooling != null) return spooling;
+        AdaptiveBatchingOrderSender batching = batchingOrderSender.getIfAvailable();
+        return batching != null ? batching : kafkaOrderSender;
+    }
+}
@@ -1,37 +1,137 @@
 package com.example.orderservice;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
 
 /**
  * Simulates business logic for orders: placement, update, cancel, inventory decrement, etc.
+ * Safe for concurrent use: stock is decremented with a per-product CAS, and status transitions are
+ * serialized per order, so unrelated orders and products never contend.
+ * Secondary indexes by status, product and creation time are maintained on every write and back the
+ * paginated query methods.
+ * Retention is bounded: an order is kept for {@code retention} from its creation and at most
+ * {@code maxEntries} are kept; the oldest are evicted first, from the map and every index.
  */
+@Service
 public class OrderService {
 
     // Possible order status values
     public enum Status { PENDING, SHIPPED, DELIVERED, CANCELLED, FAILED }
 
-    // Internal state: orderId → OrderRecord (holds order and status)
-    private final Map<String, OrderRecord> orderMap = new TreeMap<>(String::compareTo);
+    private static final Duration DEFAULT_RETENTION = Duration.ofHours(24);
+    private static final int DEFAULT_MAX_ENTRIES = 1_000_000;
+
+    // Internal state: orderId → OrderRecord (holds order and status), ordered by id
+    private final ConcurrentMap<String, OrderRecord> orderMap = new ConcurrentSkipListMap<>();
 
     // Simulated inventory (productId → quantity)
-    private final Map<String, Integer> inventory = new HashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> inventory = new ConcurrentHashMap<>();
+
+    // Secondary indexes, each sorted by order id (or creation time) and pointing straight at the record:
+    // status → orders, product → orders, product + status → orders, creation time → orders
+    private final Map<Status, ConcurrentSkipListMap<String, OrderRecord>> byStatus = new EnumMap<>(Status.class);
+    private final ConcurrentMap<String, ConcurrentSkipListMap<String, OrderRecord>> byProduct = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Map<Status, ConcurrentSkipListMap<String, OrderRecord>>> byProductStatus = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<TimeKey, OrderRecord> byTime = new ConcurrentSkipListMap<>();
+
+    // Size of orderMap, which is O(n) to ask the map for
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong evictions = new AtomicLong();
+    private final long retentionMillis;
+    private final int maxEntries;
+    private final Clock clock;
+
+    public OrderService() {
+        this(Clock.systemUTC());
+    }
+
+    OrderService(Clock clock) {
+        this(DEFAULT_RETENTION, DEFAULT_MAX_ENTRIES, clock);
+    }
+
+    @Autowired
+    public OrderService(@Value("${orders.query.retention:PT24H}") Duration retention,
+                        @Value("${orders.query.max-entries:1000000}") int maxEntries) {
+        this(retention, maxEntries, Clock.systemUTC());
+    }
+
+    OrderService(Duration retention, int maxEntries, Clock clock) {
+        if (retention.isNegative() || retention.isZero()) throw new IllegalArgumentException("Order retention must be positive");
+        if (maxEntries <= 0) throw new IllegalArgumentException("Order retention size must be positive");
+        this.retentionMillis = retention.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        for (Status s : Status.values()) byStatus.put(s, new ConcurrentSkipListMap<>());
+    }
 
     // -- Core model for order state --
     public static class OrderRecord {
         private final Order order;
-        private Status status;
-        public OrderRecord(Order o, Status s) { this.order = o; this.status = s; }
+        private volatile Status status;
+        // Set under the record's lock once it is evicted; its status no longer changes
+        private boolean evicted;
+        private final Instant createdAt;
+        public OrderRecord(Order o, Status s) { this(o, s, Instant.now()); }
+        public OrderRecord(Order o, Status s, Instant createdAt) { this.order = o; this.status = s; this.createdAt = createdAt; }
         public Order getOrder() { return order; }
+        // Changed only through OrderService, under the record's lock, so the status indexes stay in step
         public Status getStatus() { return status; }
-        public void setStatus(Status s) { this.status = s; }
         public int getQuantity() { return order.getQuantity(); }
+        public Instant getCreatedAt() { return createdAt; }
+    }
+
+    // Time index entry, ordered by creation time then order id
+    private static final class TimeKey implements Comparable<TimeKey> {
+        final long epochMillis;
+        final String orderId;
+
+        TimeKey(long epochMillis, String orderId) {
+            this.epochMillis = epochMillis;
+            this.orderId = orderId;
+        }
+
+        @Override
+        public int compareTo(TimeKey o) {
+            int c = Long.compare(epochMillis, o.epochMillis);
+            return c != 0 ? c : orderId.compareTo(o.orderId);
+        }
+
+        String cursor() { return epochMillis + ":" + orderId; }
+
+        // Cursor format is "<epochMillis>:<orderId>"; order ids may themselves contain ':'
+        static TimeKey fromCursor(String cursor) {
+            int sep = cursor.indexOf(':');
+            if (sep < 0) throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            return new TimeKey(Long.parseLong(cursor.substring(0, sep)), cursor.substring(sep + 1));
+        }
+    }
+
+    /** One page of query results; pass nextCursor back to get the following page (null when done). */
+    public static class OrderPage {
+        private final List<OrderRecord> orders;
+        private final String nextCursor;
+        public OrderPage(List<OrderRecord> orders, String nextCursor) { this.orders = orders; this.nextCursor = nextCursor; }
+        public List<OrderRecord> getOrders() { return orders; }
+        public String getNextCursor() { return nextCursor; }
     }
 
     /**
      * Setup: Add/override stock for a product directly (used only for setup and testing).
      */
     public void setProductStock(String productId, int quantity) {
-        inventory.put(productId, quantity);
+        inventory.computeIfAbsent(productId, k -> new AtomicInteger()).set(quantity);
     }
 
     /**
@@ -45,27 +145,123 @@ public class OrderService {
         if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
         if (orderMap.containsKey(orderId)) throw new IllegalStateException("Duplicate order id");
 
-        int stock = inventory.getOrDefault(productId, 0);
-        if (stock < quantity) return false;
+        if (!tryDecrementStock(productId, quantity)) return false;
 
         Order order = new Order(orderId, productId, quantity);
-        orderMap.put(orderId, new OrderRecord(order, Status.PENDING));
-        inventory.put(productId, stock - quantity);
+        OrderRecord rec = new OrderRecord(order, Status.PENDING, clock.instant());
+        if (orderMap.putIfAbsent(orderId, rec) != null) {
+            // Lost a race with a concurrent placement of the same id: give the stock back
+            restoreStock(productId, quantity);
+            throw new IllegalStateException("Duplicate order id");
+        }
+        index(rec);
+        evict();
         return true;
     }
 
+    /**
+     * Records an order accepted by the order endpoints as PENDING, without touching the simulated
+     * inventory (stock is reserved downstream by the fulfillment saga).
+     * Returns false if an order with that id is already recorded.
+     */
+    public boolean recordOrder(Order order) {
+        if (order.getId() == null || order.getId().isEmpty()) throw new IllegalArgumentException("Order ID required");
+        if (order.getProduct() == null || order.getProduct().isEmpty()) throw new IllegalArgumentException("Product ID required");
+        OrderRecord rec = new OrderRecord(order, Status.PENDING, clock.instant());
+        if (orderMap.putIfAbsent(order.getId(), rec) != null) return false;
+        index(rec);
+        evict();
+        return true;
+    }
+
+    private void index(OrderRecord rec) {
+        size.incrementAndGet();
+        String orderId = rec.order.getId();
+        String productId = rec.order.getProduct();
+        byProduct.computeIfAbsent(productId, k -> new ConcurrentSkipListMap<>()).put(orderId, rec);
+        byTime.put(new TimeKey(rec.createdAt.toEpochMilli(), orderId), rec);
+        synchronized (rec) {
+            // Evicted as soon as it reached the time index (a tiny maxEntries)
+            if (rec.evicted) return;
+            byStatus.get(rec.status).put(orderId, rec);
+            productStatusIndex(productId, rec.status).put(orderId, rec);
+        }
+    }
+
+    // The time index is in creation order, so its head is always the next order to expire or to make room
+    private void evict() {
+        long expired = clock.millis() - retentionMillis;
+        Map.Entry<TimeKey, OrderRecord> head;
+        while ((head = byTime.firstEntry()) != null
+                && (head.getKey().epochMillis <= expired || size.get() > maxEntries)) {
+            if (byTime.remove(head.getKey(), head.getValue())) remove(head.getValue());
+        }
+    }
+
+    private void remove(OrderRecord rec) {
+        String orderId = rec.order.getId();
+        String productId = rec.order.getProduct();
+        synchronized (rec) {
+            rec.evicted = true;
+            byStatus.get(rec.status).remove(orderId, rec);
+            productStatusIndex(productId, rec.status).remove(orderId, rec);
+        }
+        ConcurrentSkipListMap<String, OrderRecord> products = byProduct.get(productId);
+        if (products != null) products.remove(orderId, rec);
+        if (orderMap.remove(orderId, rec)) size.decrementAndGet();
+        evictions.incrementAndGet();
+    }
+
+    private ConcurrentSkipListMap<String, OrderRecord> productStatusIndex(String productId, Status status) {
+        Map<Status, ConcurrentSkipListMap<String, OrderRecord>> perStatus = byProductStatus.computeIfAbsent(productId, k -> {
+            Map<Status, ConcurrentSkipListMap<String, OrderRecord>> m = new EnumMap<>(Status.class);
+            for (Status s : Status.values()) m.put(s, new ConcurrentSkipListMap<>());
+            return m;
+        });
+        return perStatus.get(status);
+    }
+
+    // Called under the record's lock. The id is added to the new status before it leaves the old one,
+    // so a concurrent query never misses it; queries re-check the record's current status.
+    private void moveStatus(OrderRecord rec, Status newStatus) {
+        Status old = rec.status;
+        rec.status = newStatus;
+        if (old == newStatus) return;
+        String orderId = rec.order.getId();
+        String productId = rec.order.getProduct();
+        byStatus.get(newStatus).put(orderId, rec);
+        productStatusIndex(productId, newStatus).put(orderId, rec);
+        byStatus.get(old).remove(orderId);
+        productStatusIndex(productId, old).remove(orderId);
+    }
+
+    // Conditional decrement: never lets stock go below zero, retries only on contention
+    private boolean tryDecrementStock(String productId, int quantity) {
+        AtomicInteger stock = inventory.get(productId);
+        if (stock == null) return false;
+        while (true) {
+            int current = stock.get();
+            if (current < quantity) return false;
+            if (stock.compareAndSet(current, current - quantity)) return true;
+        }
+    }
+
+    private void restoreStock(String productId, int quantity) {
+        inventory.computeIfAbsent(productId, k -> new AtomicInteger()).addAndGet(quantity);
+    }
+
     /**
      * Cancel an order: restores inventory and sets CANCELLED.
      */
     public boolean cancelOrder(String orderId) {
         OrderRecord rec = orderMap.get(orderId);
         if (rec == null) return false;
-        if (rec.status == Status.CANCELLED) return false;
-        // Restore inventory
-        String productId = rec.order.getProduct();
-        int qty = rec.order.getQuantity();
-        inventory.put(productId, inventory.getOrDefault(productId, 0) + qty);
-        rec.status = Status.CANCELLED;
+        synchronized (rec) {
+            if (rec.evicted || rec.status == Status.CANCELLED) return false;
+            moveStatus(rec, Status.CANCELLED);
+        }
+        // Restore inventory; only the one cancel that flipped the status gets here
+        restoreStock(rec.order.getProduct(), rec.order.getQuantity());
         return true;
     }
 
@@ -76,10 +272,12 @@ public class OrderService {
         OrderRecord rec = orderMap.get(orderId);
         if (rec == null) return false;
         if (newStatus == null) return false;
-        // Prohibit invalid status transitions
-        if (rec.status == Status.CANCELLED) return false;
-        if (rec.status == Status.DELIVERED && newStatus != Status.DELIVERED) return false;
-        rec.status = newStatus;
+        synchronized (rec) {
+            // Prohibit invalid status transitions
+            if (rec.evicted || rec.status == Status.CANCELLED) return false;
+            if (rec.status == Status.DELIVERED && newStatus != Status.DELIVERED) return false;
+            moveStatus(rec, newStatus);
+        }
         return true;
     }
 
@@ -90,18 +288,77 @@ public class OrderService {
         return orderMap.get(orderId);
     }
 
+    /**
+     * Orders in a status, ordered by id, starting after the cursor (an order id, or null for the first page).
+     */
+    public OrderPage findByStatus(Status status, String cursor, int limit) {
+        return page(byStatus.get(status), cursor, limit, rec -> rec.status == status);
+    }
+
+    /**
+     * Orders for a product, optionally restricted to one status, ordered by id.
+     */
+    public OrderPage findByProduct(String productId, Status status, String cursor, int limit) {
+        if (!byProduct.containsKey(productId)) return new OrderPage(Collections.emptyList(), null);
+        if (status == null) return page(byProduct.get(productId), cursor, limit, rec -> true);
+        return page(productStatusIndex(productId, status), cursor, limit, rec -> rec.status == status);
+    }
+
+    /**
+     * Orders created in [from, to), oldest first. The cursor is the nextCursor of the previous page.
+     */
+    public OrderPage findCreatedBetween(Instant from, Instant to, String cursor, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be positive");
+        NavigableMap<TimeKey, OrderRecord> range = cursor == null
+                ? byTime.tailMap(new TimeKey(from.toEpochMilli(), ""), true)
+                : byTime.tailMap(TimeKey.fromCursor(cursor), false);
+        long toMillis = to.toEpochMilli();
+        List<OrderRecord> result = new ArrayList<>(Math.min(limit, 64));
+        TimeKey last = null;
+        for (Map.Entry<TimeKey, OrderRecord> e : range.entrySet()) {
+            if (e.getKey().epochMillis >= toMillis) break;
+            if (result.size() == limit) return new OrderPage(result, last.cursor());
+            result.add(e.getValue());
+            last = e.getKey();
+        }
+        return new OrderPage(result, null);
+    }
+
+    // Walks an id index from the cursor, skipping entries whose record no longer matches
+    private OrderPage page(NavigableMap<String, OrderRecord> index, String cursor, int limit, Predicate<OrderRecord> matches) {
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be positive");
+        NavigableMap<String, OrderRecord> from = cursor == null ? index : index.tailMap(cursor, false);
+        List<OrderRecord> result = new ArrayList<>(Math.min(limit, 64));
+        for (OrderRecord rec : from.values()) {
+            if (!matches.test(rec)) continue;
+            if (result.size() == limit) return new OrderPage(result, result.get(limit - 1).order.getId());
+            result.add(rec);
+        }
+        return new OrderPage(result, null);
+    }
+
     /**
      * Lists all current product stock levels.
      */
     public Map<String, Integer> getInventory() {
-        return new HashMap<>(inventory);
+        Map<String, Integer> snapshot = new HashMap<>();
+        inventory.forEach((productId, stock) -> snapshot.put(productId, stock.get()));
+        return snapshot;
     }
 
+    public int size() { return size.get(); }
+    public long getEvictions() { return evictions.get(); }
+
     /**
      * Clear all recorded orders/inventory (for test resets).
      */
     public void reset() {
         orderMap.clear();
+        size.set(0);
         inventory.clear();
+        byStatus.values().forEach(Map::clear);
+        byProduct.clear();
+        byProductStatus.clear();
+        byTime.clear();
     }
 }
@@ -0,0 +1,239 @@
+package com.example.orderservice;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only, memory-mapped file of orders waiting to be written to Kafka.
+ *
+ * Layout: a header {@code [int magic][int epoch][long drainPosition]} followed by records
+ * {@code [int length][int epoch][payload]}. The length and epoch are written together, as one long, after
+ * the payload, so a record only counts once it is complete; records carry the epoch of the spool run they
+ * belong to, so leftovers of an earlier run are never mistaken for new records. When the drainer catches up
+ * the spool rewinds to the start and the epoch is bumped. On open, records are replayed from the persisted
+ * drain position. A record that cannot be decoded is returned by {@link #read} without an event, so the
+ * drainer can skip past it.
+ */
+public class OrderSpool implements AutoCloseable {
+
+    private static final int MAGIC = 0x4F53504C; // "OSPL"
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    /** A spooled order and the position right after it (the drain position once it is sent). */
+    public static class Entry {
+        private final long next;
+        private final String topic;
+        private final String key;
+        private final OrderEvent event;
+
+        Entry(long next, String topic, String key, OrderEvent event) {
+            this.next = next;
+            this.topic = topic;
+            this.key = key;
+            this.event = event;
+        }
+
+        public long getNext() { return next; }
+        public String getTopic() { return topic; }
+        public String getKey() { return key; }
+        /** The spooled order, or null if the record could not be decoded. */
+        public OrderEvent getEvent() { return event; }
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final Object syncLock = new Object();
+
+    private int epoch;
+    private volatile long writePosition;
+    private volatile long drainPosition;
+    private volatile long syncedPosition;
+
+    public OrderSpool(Path file, int capacityBytes) {
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.capacity = capacityBytes;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            epoch = 1;
+            buffer.putInt(0, MAGIC);
+            writeHeader(HEADER_BYTES);
+        }
+        epoch = buffer.getInt(4);
+        long position = buffer.getLong(8);
+        drainPosition = position;
+        // Recover the write position: the end of the last complete record of this epoch
+        while (position + RECORD_HEADER_BYTES <= capacity) {
+            int length = buffer.getInt((int) position);
+            if (length <= 0 || position + RECORD_HEADER_BYTES + length > capacity
+                    || buffer.getInt((int) position + 4) != epoch) break;
+            position += RECORD_HEADER_BYTES + length;
+        }
+        writePosition = position;
+        syncedPosition = position;
+    }
+
+    /**
+     * Appends an order and returns the position right after it; pass that to {@link #sync} before
+     * acknowledging. Throws IllegalStateException if the spool is full.
+     */
+    public synchronized long append(String topic, String key, OrderEvent event) {
+        byte[] payload = encode(topic, key, event);
+        long position = writePosition;
+        long end = position + RECORD_HEADER_BYTES + payload.length;
+        if (end > capacity) throw new IllegalStateException("Order spool is full (" + capacity + " bytes)");
+        int p = (int) position;
+        buffer.put(p + RECORD_HEADER_BYTES, payload);
+        // Length and epoch in one store: a stale length left by an earlier epoch never pairs with this epoch
+        buffer.putLong(p, (long) payload.length << 32 | (epoch & 0xFFFFFFFFL));
+        writePosition = end;
+        return end;
+    }
+
+    // Group commit: one force() covers every record appended before it started
+    public void sync(long upTo) {
+        if (syncedPosition >= upTo) return;
+        synchronized (syncLock) {
+            if (syncedPosition >= upTo) return;
+            long target = writePosition;
+            buffer.force();
+            syncedPosition = target;
+        }
+    }
+
+    /** Reads up to {@code max} records from the drain position; called by the drainer only. */
+    public List<Entry> read(int max) {
+        List<Entry> entries = new ArrayList<>();
+        long position = drainPosition;
+        long end = writePosition;
+        while (position < end && entries.size() < max) {
+            int p = (int) position;
+            int length = buffer.getInt(p);
+            if (length <= 0 || position + RECORD_HEADER_BYTES + length > end) {
+                // Nothing after a broken length can be framed; give up the rest of what was written
+                entries.add(new Entry(end, null, null, null));
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(p + RECORD_HEADER_BYTES, payload);
+            position += RECORD_HEADER_BYTES + length;
+            try {
+                entries.add(decode(position, payload));
+            } catch (RuntimeException e) {
+                entries.add(new Entry(position, null, null, null));
+            }
+        }
+        return entries;
+    }
+
+    /** Marks everything before {@code position} as written to Kafka; rewinds the spool once it is empty. */
+    public synchronized void commitDrain(long position) {
+        synchronized (syncLock) {
+            if (position >= writePosition) {
+                // Clear the first record before the epoch moves on, so nothing of this run can pass as the next
+                buffer.putLong(HEADER_BYTES, 0L);
+                epoch++;
+                writePosition = HEADER_BYTES;
+                syncedPosition = HEADER_BYTES;
+                position = HEADER_BYTES;
+            }
+            drainPosition = position;
+            writeHeader(position);
+            buffer.force(0, HEADER_BYTES);
+        }
+    }
+
+    public boolean isEmpty() {
+        return drainPosition >= writePosition;
+    }
+
+    public long pendingBytes() {
+        return Math.max(0, writePosition - drainPosition);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void writeHeader(long drain) {
+        buffer.putInt(4, epoch);
+        buffer.putLong(8, drain);
+    }
+
+    private static byte[] encode(String topic, String key, OrderEvent event) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeString(out, topic);
+            writeString(out, key);
+            writeString(out, event.getOrderId());
+            writeString(out, event.getProduct());
+            out.writeInt(event.getQuantity());
+            writeString(out, event.getCustomerId());
+            out.writeLong(event.getCreated().getEpochSecond());
+            out.writeInt(event.getCreated().getNano());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Entry decode(long next, byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        String topic = readString(in);
+        String key = readString(in);
+        String orderId = readString(in);
+        String product = readString(in);
+        int quantity = in.getInt();
+        String customerId = readString(in);
+        Instant created = Instant.ofEpochSecond(in.getLong(), in.getInt());
+        return new Entry(next, topic, key, new OrderEvent(orderId, product, quantity, customerId, created));
+    }
+
+    // Length-prefixed UTF-8, -1 for null
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        String s = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return s;
+    }
+
+    @Override
+    public void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
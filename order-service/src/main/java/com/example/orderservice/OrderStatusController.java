@@ -0,0 +1,33 @@
+package com.example.orderservice;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exposes GET /orders/{id}: the order's latest fulfillment status from the local status view,
+ * without calling fulfillment-service.
+ */
+@RestController
+@RequestMapping("/orders")
+public class OrderStatusController {
+
+    private final ObjectProvider<OrderStatusProjection> statusView;
+
+    public OrderStatusController(ObjectProvider<OrderStatusProjection> statusView) {
+        this.statusView = statusView;
+    }
+
+    @GetMapping("/{id}")
+    public OrderStatusProjection.StatusView getOrderStatus(@PathVariable String id) {
+        OrderStatusProjection view = statusView.getIfAvailable();
+        if (view == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order status view is not enabled");
+        OrderStatusProjection.StatusView status = view.get(id);
+        if (status == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No fulfillment status for order " + id);
+        return status;
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.orderservice;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Local read view of fulfillment progress: orderId -> last FulfillmentStatus and when it was reached,
+ * consumed from the fulfillment-events topic.
+ *
+ * Stored in an open-addressing table of primitive arrays (a 64-bit fingerprint of the order id, the status
+ * ordinal and an epoch-millis timestamp; 18 bytes per slot), so memory is fixed at startup. Once
+ * {@code maxEntries} orders are held, a CLOCK sweep evicts an order that has not been read or updated
+ * since the last sweep (approximate LRU). A single listener thread writes; lookups use StampedLock
+ * optimistic reads and never block on each other. Fingerprints make a false hit possible but vanishingly
+ * unlikely (about n / 2^64 per lookup).
+ * Each status is also passed on to OrderService, so the GET /orders status queries follow fulfillment.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.status-view.enabled", havingValue = "true")
+public class OrderStatusProjection implements MeterBinder {
+
+    private static final FulfillmentStatus[] STATUSES = FulfillmentStatus.values();
+    private static final int BYTES_PER_SLOT = Long.BYTES + Long.BYTES + 1 + 1;
+
+    private static final ObjectReader eventReader = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .enable(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_AS_NULL)
+            .readerFor(StatusEvent.class);
+
+    /** The fields of a fulfillment event the view needs. */
+    static class StatusEvent {
+        public String orderId;
+        public FulfillmentStatus status;
+        public Instant timestamp;
+    }
+
+    /** Last known fulfillment status of an order. */
+    public static class StatusView {
+        private final String orderId;
+        private final FulfillmentStatus status;
+        private final Instant updatedAt;
+
+        StatusView(String orderId, FulfillmentStatus status, Instant updatedAt) {
+            this.orderId = orderId;
+            this.status = status;
+            this.updatedAt = updatedAt;
+        }
+
+        public String getOrderId() { return orderId; }
+        public FulfillmentStatus getStatus() { return status; }
+        public Instant getUpdatedAt() { return updatedAt; }
+    }
+
+    private final long[] keys;
+    private final long[] timestamps;
+    private final byte[] statuses;
+    private final byte[] referenced;
+    private final int mask;
+    private final int maxEntries;
+    private final StampedLock lock = new StampedLock();
+
+    // Guarded by the write lock
+    private int size;
+    private int hand;
+
+    // Null outside the application context (tests)
+    private OrderService orderService;
+
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public OrderStatusProjection(@Value("${orders.status-view.max-entries:500000}") int maxEntries) {
+        // Load factor at most 0.75 keeps linear probe sequences short
+        int capacity = Integer.highestOneBit(Math.max(16, (int) Math.ceil(maxEntries / 0.75) - 1) << 1);
+        this.keys = new long[capacity];
+        this.timestamps = new long[capacity];
+        this.statuses = new byte[capacity];
+        this.referenced = new byte[capacity];
+        this.mask = capacity - 1;
+        this.maxEntries = maxEntries;
+    }
+
+    @Autowired(required = false)
+    public void setOrderService(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    // A unique group per instance: every instance builds the view for all orders. It commits no offsets, so
+    // each start replays the topic and the group leaves nothing behind on the broker
+    @KafkaListener(topics = "${orders.status-view.topic:fulfillment-events}",
+            groupId = "order-service-status-view-${random.uuid}",
+            containerFactory = "readViewListenerContainerFactory",
+            properties = {"auto.offset.reset=earliest", "enable.auto.commit=false"})
+    public void onFulfillmentEvent(String json) {
+        StatusEvent event;
+        try {
+            event = eventReader.readValue(json);
+        } catch (Exception e) {
+            System.out.println("[DEBUG] Skipping unreadable fulfillment event: " + e.getMessage());
+            return;
+        }
+        if (event == null || event.orderId == null || event.status == null) return;
+        update(event.orderId, event.status, event.timestamp != null ? event.timestamp : Instant.now());
+        if (orderService != null) orderService.updateStatus(event.orderId, orderStatus(event.status));
+    }
+
+    // The order's status as the GET /orders queries report it; every step before SHIPPED is still PENDING
+    static OrderService.Status orderStatus(FulfillmentStatus status) {
+        switch (status) {
+            case SHIPPED: return OrderService.Status.SHIPPED;
+            case DELIVERED: return OrderService.Status.DELIVERED;
+            case CANCELLED:
+            case COMPENSATED: return OrderService.Status.CANCELLED;
+            case FAILED: return OrderService.Status.FAILED;
+            default: return OrderService.Status.PENDING;
+        }
+    }
+
+    /** Records the order's latest status; events of one order arrive in order (keyed by orderId). */
+    public void update(String orderId, FulfillmentStatus status, Instant at) {
+        long key = fingerprint(orderId);
+        long stamp = lock.writeLock();
+        try {
+            int slot = find(key);
+            if (slot < 0) {
+                if (size >= maxEntries) evictOne();
+                slot = home(key);
+                while (keys[slot] != 0) slot = (slot + 1) & mask;
+                keys[slot] = key;
+                size++;
+            }
+            timestamps[slot] = at.toEpochMilli();
+            statuses[slot] = (byte) status.ordinal();
+            referenced[slot] = 1;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        updates.incrementAndGet();
+    }
+
+    /** Last known status of the order, or null if the view does not hold it. */
+    public StatusView get(String orderId) {
+        long key = fingerprint(orderId);
+        long stamp = lock.tryOptimisticRead();
+        int slot = find(key);
+        byte status = slot < 0 ? 0 : statuses[slot];
+        long at = slot < 0 ? 0 : timestamps[slot];
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slot = find(key);
+                status = slot < 0 ? 0 : statuses[slot];
+                at = slot < 0 ? 0 : timestamps[slot];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (slot < 0) return null;
+        referenced[slot] = 1; // racy on purpose: a lost mark only makes eviction slightly less accurate
+        return new StatusView(orderId, STATUSES[status], Instant.ofEpochMilli(at));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Fixed footprint of the table, independent of how many orders it holds
+    public long memoryBytes() {
+        return (long) keys.length * BYTES_PER_SLOT;
+    }
+
+    // Bounded by the capacity even if the arrays change underneath an optimistic read
+    private int find(long key) {
+        int slot = home(key);
+        for (int probes = 0; probes <= mask; probes++) {
+            long k = keys[slot];
+            if (k == key) return slot;
+            if (k == 0) return -1;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // CLOCK: clear reference marks until an unmarked order is found, then remove it
+    private void evictOne() {
+        while (true) {
+            hand = (hand + 1) & mask;
+            if (keys[hand] == 0) continue;
+            if (referenced[hand] != 0) {
+                referenced[hand] = 0;
+                continue;
+            }
+            remove(hand);
+            evictions.incrementAndGet();
+            return;
+        }
+    }
+
+    // Backward-shift deletion keeps probe sequences intact without tombstones
+    private void remove(int slot) {
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            long k = keys[next];
+            if (k == 0) break;
+            int home = home(k);
+            boolean stays = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (stays) continue;
+            keys[hole] = k;
+            timestamps[hole] = timestamps[next];
+            statuses[hole] = statuses[next];
+            referenced[hole] = referenced[next];
+            hole = next;
+        }
+        keys[hole] = 0;
+        referenced[hole] = 0;
+        size--;
+    }
+
+    private int home(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    static long fingerprint(String orderId) {
+        long high = Utils.murmur2(orderId.getBytes(StandardCharsets.UTF_8));
+        long key = (high << 32) | (orderId.hashCode() & 0xFFFFFFFFL);
+        return key == 0 ? 1 : key;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("orders.status-view.orders", this, OrderStatusProjection::size).register(registry);
+        Gauge.builder("orders.status-view.memory.bytes", this, OrderStatusProjection::memoryBytes).register(registry);
+        FunctionCounter.builder("orders.status-view.updates", updates, AtomicLong::get).register(registry);
+        FunctionCounter.builder("orders.status-view.evictions", evictions, AtomicLong::get).register(registry);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.orderservice;
+
+/**
+ * Thrown when the stock-availability cache refuses an order that could not be fulfilled anyway.
+ */
+public class OutOfStockException extends RuntimeException {
+
+    public OutOfStockException(String message) {
+        super(message);
+    }
+}
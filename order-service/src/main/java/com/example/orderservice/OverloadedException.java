@@ -0,0 +1,18 @@
+package com.example.orderservice;
+
+/**
+ * Thrown when admission control sheds a request; carries the Retry-After hint for the client.
+ */
+public class OverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public OverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.orderservice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+/**
+ * Routes order events by product instead of by order id, so a single consumer owns each product's
+ * allocation and never contends with other instances for the same stock counter.
+ *
+ * Products flagged by the {@link HotKeyDetector} are spread over a small run of consecutive partitions
+ * starting at the product's home partition; the order id picks one. A retry lands on the same partition
+ * only while the product's split is unchanged: if the product turns hot or cools down in between, the
+ * retry may go to another partition of the run (or back to the home partition) and be consumed out of
+ * order with the first attempt. Records that are not order events fall back to hashing the record key.
+ */
+public class ProductPartitioner implements Partitioner {
+
+    /** Producer config entry holding the shared HotKeyDetector instance. */
+    public static final String HOT_KEY_DETECTOR_CONFIG = "orders.hot-key-detector";
+
+    private HotKeyDetector detector;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object detector = configs.get(HOT_KEY_DETECTOR_CONFIG);
+        if (detector instanceof HotKeyDetector) this.detector = (HotKeyDetector) detector;
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        int numPartitions = cluster.partitionsForTopic(topic).size();
+        if (value instanceof OrderEvent) {
+            OrderEvent event = (OrderEvent) value;
+            if (event.getProduct() != null) {
+                int split = detector == null ? 1 : detector.splitFor(event.getProduct());
+                return partitionFor(event.getProduct(), event.getOrderId(), split, numPartitions);
+            }
+        }
+        return keyBytes == null ? 0 : Utils.toPositive(Utils.murmur2(keyBytes)) % numPartitions;
+    }
+
+    static int homePartition(String product, int numPartitions) {
+        return Utils.toPositive(Utils.murmur2(product.getBytes(StandardCharsets.UTF_8))) % numPartitions;
+    }
+
+    static int partitionFor(String product, String orderId, int split, int numPartitions) {
+        int home = homePartition(product, numPartitions);
+        if (split <= 1 || orderId == null) return home;
+        int sub = Utils.toPositive(Utils.murmur2(orderId.getBytes(StandardCharsets.UTF_8))) % Math.min(split, numPartitions);
+        return (home + sub) % numPartitions;
+    }
+
+    // Partitions a product's orders may be on, given its split from the published HotKeyMapping
+    public static int[] partitionsFor(String product, int split, int numPartitions) {
+        int home = homePartition(product, numPartitions);
+        int[] partitions = new int[Math.max(1, Math.min(split, numPartitions))];
+        for (int i = 0; i < partitions.length; i++) partitions[i] = (home + i) % numPartitions;
+        return partitions;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.orderservice;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * OrderSender that keeps accepting orders while Kafka is unavailable.
+ *
+ * While the broker is healthy orders go straight to the delegate. When a send fails, or is not
+ * acknowledged within {@code failoverAfter}, the sender degrades: that order and every following one is
+ * appended to the {@link OrderSpool} and acknowledged once the spool is fsynced (receipt partition
+ * {@link #SPOOLED_PARTITION}). A drainer thread replays the spool through the delegate in batches, in
+ * spool order, and switches back to direct sends once the spool is empty. Delivery from the spool is
+ * at-least-once: a batch that fails part-way is sent again, and a timed-out direct send may still land,
+ * so consumers dedupe by order id. A spooled record that cannot be decoded is logged, counted and skipped
+ * rather than blocking the spool.
+ */
+public class SpoolingOrderSender implements OrderSender, MeterBinder, AutoCloseable {
+
+    /** Receipt partition of an order that was acknowledged from the local spool. */
+    public static final int SPOOLED_PARTITION = -1;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final OrderSender delegate;
+    private final OrderSpool spool;
+    private final long failoverAfterMs;
+    private final int drainBatch;
+    private final long drainTimeoutMs;
+    private final long retryBackoffNanos;
+    private final Thread drainer;
+    private volatile boolean running = true;
+    private volatile boolean degraded;
+
+    private final AtomicLong spooled = new AtomicLong();
+    private final AtomicLong drained = new AtomicLong();
+    private final AtomicLong failovers = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    public SpoolingOrderSender(OrderSender delegate, OrderSpool spool, Duration failoverAfter,
+                               int drainBatch, Duration drainTimeout, Duration retryBackoff) {
+        this.delegate = delegate;
+        this.spool = spool;
+        this.failoverAfterMs = failoverAfter.toMillis();
+        this.drainBatch = drainBatch;
+        this.drainTimeoutMs = drainTimeout.toMillis();
+        this.retryBackoffNanos = retryBackoff.toNanos();
+        // Orders left over from a previous run are drained before new orders go direct
+        this.degraded = !spool.isEmpty();
+        this.drainer = new Thread(this::drain, "order-spool-drainer");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    @Override
+    public CompletableFuture<OrderReceipt> send(String topic, String key, OrderEvent orderEvent) {
+        if (!running) return CompletableFuture.failedFuture(new IllegalStateException("Order sender is closed"));
+        // Once anything is spooled, later orders queue behind it so the topic sees them in order
+        if (degraded || !spool.isEmpty()) return spool(topic, key, orderEvent);
+        CompletableFuture<OrderReceipt> sent;
+        try {
+            sent = delegate.send(topic, key, orderEvent);
+        } catch (RuntimeException e) {
+            failover(e);
+            return spool(topic, key, orderEvent);
+        }
+        return sent.orTimeout(failoverAfterMs, TimeUnit.MILLISECONDS).handle((receipt, ex) -> {
+            if (ex == null) return CompletableFuture.completedFuture(receipt);
+            failover(ex);
+            return spool(topic, key, orderEvent);
+        }).thenCompose(f -> f);
+    }
+
+    private CompletableFuture<OrderReceipt> spool(String topic, String key, OrderEvent orderEvent) {
+        try {
+            long end = spool.append(topic, key, orderEvent);
+            spool.sync(end);
+            spooled.incrementAndGet();
+            LockSupport.unpark(drainer);
+            return CompletableFuture.completedFuture(new OrderReceipt(key, topic, SPOOLED_PARTITION, end));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void failover(Throwable cause) {
+        if (degraded) return;
+        degraded = true;
+        failovers.incrementAndGet();
+        System.out.println("[DEBUG] Kafka unavailable, spooling orders locally: " + cause);
+    }
+
+    private void drain() {
+        while (running) {
+            List<OrderSpool.Entry> entries;
+            try {
+                entries = spool.read(drainBatch);
+            } catch (RuntimeException e) {
+                System.out.println("[DEBUG] Reading order spool failed, retrying: " + e);
+                LockSupport.parkNanos(retryBackoffNanos);
+                continue;
+            }
+            if (entries.isEmpty()) {
+                if (degraded) {
+                    degraded = false;
+                    System.out.println("[DEBUG] Order spool drained, sending directly to Kafka again");
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            // Records that could not be decoded are not sent; they are skipped when the batch is committed
+            List<OrderSpool.Entry> batch = new ArrayList<>(entries.size());
+            for (OrderSpool.Entry e : entries) {
+                if (e.getEvent() != null) batch.add(e);
+            }
+            if (batch.isEmpty() || sendBatch(batch)) {
+                spool.commitDrain(entries.get(entries.size() - 1).getNext());
+                drained.addAndGet(batch.size());
+                int unreadable = entries.size() - batch.size();
+                if (unreadable > 0) {
+                    skipped.addAndGet(unreadable);
+                    System.out.println("[DEBUG] Skipped " + unreadable + " unreadable order spool record(s)");
+                }
+            } else {
+                degraded = true;
+                LockSupport.parkNanos(retryBackoffNanos);
+            }
+        }
+    }
+
+    // Pipelines the whole batch through the delegate and waits for every ack
+    private boolean sendBatch(List<OrderSpool.Entry> batch) {
+        List<CompletableFuture<OrderReceipt>> acks = new ArrayList<>(batch.size());
+        try {
+            for (OrderSpool.Entry e : batch) acks.add(delegate.send(e.getTopic(), e.getKey(), e.getEvent()));
+            CompletableFuture.allOf(acks.toArray(new CompletableFuture[0])).get(drainTimeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            System.out.println("[DEBUG] Draining order spool failed, retrying: " + e);
+            return false;
+        }
+    }
+
+    public boolean isDegraded() { return degraded; }
+    public long getSpooledCount() { return spooled.get(); }
+    public long getDrainedCount() { return drained.get(); }
+    public long getSkippedCount() { return skipped.get(); }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("orders.spool.pending.bytes", spool, OrderSpool::pendingBytes).register(registry);
+        Gauge.builder("orders.spool.degraded", this, s -> s.degraded ? 1 : 0).register(registry);
+        FunctionCounter.builder("orders.spool.spooled", spooled, AtomicLong::get).register(registry);
+        FunctionCounter.builder("orders.spool.drained", drained, AtomicLong::get).register(registry);
+        FunctionCounter.builder("orders.spool.failovers", failovers, AtomicLong::get).register(registry);
+        FunctionCounter.builder("orders.spool.skipped", skipped, AtomicLong::get).register(registry);
+    }
+
+    // Stop accepting orders; whatever is still spooled stays on disk and is drained on the next start
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(drainTimeoutMs + TimeUnit.NANOSECONDS.toMillis(retryBackoffNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        spool.close();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.orderservice;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Read-only, eventually consistent replica of inventory stock, fed by the compacted "stock-levels" topic.
+ *
+ * Every instance consumes the whole topic under its own group id, which commits no offsets, and replays it
+ * from the beginning on startup. Records that cannot be read are logged, counted and skipped. Entries are immutable and replaced by version, so lookups are a single lock-free map read.
+ * An order is only refused when the cache is sure: the product's stock level is fresher than
+ * {@code maxStaleness} and lower than the quantity ordered. Unknown or stale products are let through
+ * and left to the fulfillment saga. The inventory feed republishes every product each
+ * {@code inventory.stock-feed.refresh}, so a product that stops changing (a sold-out one) stays fresh; that
+ * refresh must be well under {@code maxStaleness}.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.stock-cache.enabled", havingValue = "true")
+public class StockAvailabilityCache implements MeterBinder {
+
+    public static final String TOPIC = "stock-levels";
+
+    public enum Verdict { AVAILABLE, OUT_OF_STOCK, UNKNOWN, STALE }
+
+    private final Map<String, StockLevel> levels = new ConcurrentHashMap<>();
+    private final long maxStalenessMillis;
+    private final Clock clock;
+
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong outOfOrder = new AtomicLong();
+    private final AtomicLong unreadable = new AtomicLong();
+    private final AtomicLong[] verdicts = {new AtomicLong(), new AtomicLong(), new AtomicLong(), new AtomicLong()};
+
+    @Autowired
+    public StockAvailabilityCache(@Value("${orders.stock-cache.max-staleness:PT30S}") Duration maxStaleness) {
+        this(maxStaleness, Clock.systemUTC());
+    }
+
+    StockAvailabilityCache(Duration maxStaleness, Clock clock) {
+        this.maxStalenessMillis = maxStaleness.toMillis();
+        this.clock = clock;
+    }
+
+    // A unique group per instance: each instance must see every product, not a share of the partitions
+    @KafkaListener(topics = TOPIC, groupId = "order-service-stock-cache-${random.uuid}",
+            containerFactory = "readViewListenerContainerFactory",
+            properties = {"auto.offset.reset=earliest", "enable.auto.commit=false"})
+    public void onStockLevel(@Header(KafkaHeaders.RECEIVED_KEY) String productId,
+                             @Payload(required = false) String json) {
+        if (json == null) {
+            // Tombstone: the product was removed from inventory
+            levels.remove(productId);
+            return;
+        }
+        StockLevel level;
+        try {
+            level = KafkaSerdeUtil.fromJson(json, StockLevel.class);
+        } catch (RuntimeException e) {
+            level = null;
+        }
+        if (level != null && level.getProductId() == null) level.setProductId(productId);
+        if (level == null || level.getProductId() == null) {
+            unreadable.incrementAndGet();
+            System.out.println("[DEBUG] Skipping unreadable stock level for " + productId + ": " + json);
+            return;
+        }
+        apply(level);
+    }
+
+    /** Applies a stock level unless a newer version of the product is already held. */
+    public void apply(StockLevel level) {
+        StockLevel merged = levels.merge(level.getProductId(), level,
+                (current, next) -> next.getVersion() > current.getVersion() ? next : current);
+        if (merged == level) applied.incrementAndGet();
+        else outOfOrder.incrementAndGet();
+    }
+
+    public Verdict check(String product, int quantity) {
+        Verdict verdict = verdict(levels.get(product), quantity);
+        verdicts[verdict.ordinal()].incrementAndGet();
+        return verdict;
+    }
+
+    private Verdict verdict(StockLevel level, int quantity) {
+        if (level == null) return Verdict.UNKNOWN;
+        if (clock.millis() - level.getTimestamp() > maxStalenessMillis) return Verdict.STALE;
+        return level.getStock() >= quantity ? Verdict.AVAILABLE : Verdict.OUT_OF_STOCK;
+    }
+
+    public StockLevel get(String product) {
+        return levels.get(product);
+    }
+
+    public long getUnreadable() { return unreadable.get(); }
+
+    // Orders refused at the edge, i.e. fulfillment sagas that never had to start and fail
+    public long getSagasAvoided() {
+        return verdicts[Verdict.OUT_OF_STOCK.ordinal()].get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("orders.stock-cache.products", levels, Map::size).register(registry);
+        FunctionCounter.builder("orders.stock-cache.updates", applied, AtomicLong::get).tag("result", "applied").register(registry);
+        FunctionCounter.builder("orders.stock-cache.updates", outOfOrder, AtomicLong::get).tag("result", "ignored").register(registry);
+        FunctionCounter.builder("orders.stock-cache.updates", unreadable, AtomicLong::get).tag("result", "unreadable").register(registry);
+        for (Verdict v : Verdict.values()) {
+            FunctionCounter.builder("orders.stock-cache.checks", verdicts[v.ordinal()], AtomicLong::get)
+                    .tag("verdict", v.name().toLowerCase()).register(registry);
+        }
+        FunctionCounter.builder("orders.stock-cache.sagas.avoided", this, StockAvailabilityCache::getSagasAvoided).register(registry);
+    }
+}
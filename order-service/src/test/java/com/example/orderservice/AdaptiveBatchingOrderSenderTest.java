@@ -0,0 +1,108 @@
+package com.example.orderservice;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveBatchingOrderSenderTest {
+
+    // Stub producer: acks immediately; flush simulates a broker round trip
+    private final AtomicInteger sends = new AtomicInteger();
+    private final AtomicInteger flushes = new AtomicInteger();
+    private final OrderSender delegate = (topic, key, event) -> {
+        int offset = sends.getAndIncrement();
+        return CompletableFuture.completedFuture(new OrderReceipt(key, topic, 0, offset));
+    };
+    private final Runnable flush = () -> {
+        flushes.incrementAndGet();
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    };
+
+    private static OrderEvent event(String id) {
+        return new OrderEvent(id, "Pen", 1, null, Instant.now());
+    }
+
+    @Test
+    void testIdleOrdersAreFlushedWithoutLinger() throws Exception {
+        try (AdaptiveBatchingOrderSender sender = new AdaptiveBatchingOrderSender(delegate, flush, Duration.ofMillis(500), 100, 1000, 100)) {
+            long start = System.nanoTime();
+            OrderReceipt receipt = sender.send("orders", "A", event("A")).get(5, TimeUnit.SECONDS);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            assertEquals("A", receipt.getOrderId());
+            assertTrue(elapsedMs < 400, "idle order should not wait for the max linger, took " + elapsedMs + " ms");
+            assertEquals(1, sender.getBatchCount());
+        }
+    }
+
+    @Test
+    void testBurstIsCoalescedIntoBatches() throws Exception {
+        try (AdaptiveBatchingOrderSender sender = new AdaptiveBatchingOrderSender(delegate, flush, Duration.ofMillis(10), 200, 10_000, 1000)) {
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            List<CompletableFuture<OrderReceipt>> acks = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                String id = "O" + i;
+                acks.add(CompletableFuture.supplyAsync(() -> sender.send("orders", id, event(id)), pool).thenCompose(f -> f));
+            }
+            CompletableFuture.allOf(acks.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+            pool.shutdown();
+
+            assertEquals(2000, sender.getOrderCount());
+            assertEquals(2000, sends.get());
+            assertTrue(flushes.get() < 1000, "expected coalesced flushes, got " + flushes.get());
+            assertTrue(sender.getAverageBatchSize() > 2, "average batch " + sender.getAverageBatchSize());
+        }
+    }
+
+    @Test
+    void testClosedSenderRejectsOrders() {
+        AdaptiveBatchingOrderSender sender = new AdaptiveBatchingOrderSender(delegate, flush, Duration.ofMillis(10), 10, 10, 10);
+        sender.close();
+        assertThrows(Exception.class, () -> sender.send("orders", "X", event("X")).get(1, TimeUnit.SECONDS));
+    }
+
+    // A record the delegate refused fails alone; records it accepted are answered by their own acks
+    @Test
+    void testOnlyRecordsNotHandedOffAreFailed() throws Exception {
+        OrderSender picky = (topic, key, event) -> {
+            if ("bad".equals(key)) throw new IllegalArgumentException("cannot serialize");
+            return delegate.send(topic, key, event);
+        };
+        Runnable failingFlush = () -> {
+            throw new IllegalStateException("flush failed");
+        };
+        try (AdaptiveBatchingOrderSender sender = new AdaptiveBatchingOrderSender(picky, failingFlush, Duration.ofMillis(10), 10, 10, 100)) {
+            CompletableFuture<OrderReceipt> good = sender.send("orders", "good", event("good"));
+            CompletableFuture<OrderReceipt> bad = sender.send("orders", "bad", event("bad"));
+            assertEquals("good", good.get(5, TimeUnit.SECONDS).getOrderId());
+            assertThrows(Exception.class, () -> bad.get(5, TimeUnit.SECONDS));
+            assertEquals("later", sender.send("orders", "later", event("later")).get(5, TimeUnit.SECONDS).getOrderId());
+        }
+    }
+
+    // A flusher that dies must not leave accepted orders waiting forever
+    @Test
+    void testDeadFlusherFailsQueuedAndLaterOrders() throws Exception {
+        AdaptiveBatchingOrderSender sender = new AdaptiveBatchingOrderSender(delegate, flush, Duration.ofMillis(10), 10, 10, 10);
+        sender.getFlusher().interrupt();
+        sender.getFlusher().join(5_000);
+        assertThrows(Exception.class, () -> sender.send("orders", "X", event("X")).get(1, TimeUnit.SECONDS));
+        sender.close();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.orderservice;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionLimiterTest {
+
+    private final double[] buffer = {0.0};
+
+    private AdmissionLimiter limiter(int initialLimit) {
+        return new AdmissionLimiter(() -> buffer[0], initialLimit, 2, 1000, Duration.ofMillis(100), 0.5, 3);
+    }
+
+    @Test
+    void excessRequestsFailFastWithRetryAfter() {
+        AdmissionLimiter limiter = limiter(4);
+        List<CompletableFuture<String>> pending = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            pending.add(limiter.submit(AdmissionLimiter.Priority.INTERACTIVE, CompletableFuture::new));
+        }
+        boolean[] called = {false};
+        CompletableFuture<String> shed = limiter.submit(AdmissionLimiter.Priority.INTERACTIVE, () -> {
+            called[0] = true;
+            return new CompletableFuture<>();
+        });
+
+        assertFalse(called[0]);
+        CompletionException e = assertThrows(CompletionException.class, shed::join);
+        OverloadedException overloaded = assertInstanceOf(OverloadedException.class, e.getCause());
+        assertEquals(3, overloaded.getRetryAfterSeconds());
+        assertEquals(1, limiter.getRejected(AdmissionLimiter.Priority.INTERACTIVE));
+        assertEquals(4, limiter.getInFlight());
+    }
+
+    @Test
+    void bulkShedsBeforeInteractive() {
+        AdmissionLimiter limiter = limiter(4);
+        assertTrue(limiter.tryAcquire(AdmissionLimiter.Priority.BULK));
+        assertTrue(limiter.tryAcquire(AdmissionLimiter.Priority.BULK));
+        assertFalse(limiter.tryAcquire(AdmissionLimiter.Priority.BULK), "bulk may only use half the limit");
+        assertTrue(limiter.tryAcquire(AdmissionLimiter.Priority.INTERACTIVE));
+
+        AdmissionLimiter pressured = limiter(100);
+        buffer[0] = 0.85;
+        assertFalse(pressured.wouldAdmit(AdmissionLimiter.Priority.BULK));
+        assertTrue(pressured.wouldAdmit(AdmissionLimiter.Priority.INTERACTIVE));
+    }
+
+    @Test
+    void fullProducerBufferShedsEverything() {
+        buffer[0] = 0.99;
+        AdmissionLimiter limiter = limiter(100);
+        assertFalse(limiter.tryAcquire(AdmissionLimiter.Priority.INTERACTIVE));
+    }
+
+    @Test
+    void limitGrowsOnFastAcksAndBacksOffOnSlowOnes() throws Exception {
+        AdmissionLimiter limiter = limiter(10);
+        // Keep the limit busy (growth only happens while at least half of it is in use)
+        for (int i = 0; i < 6; i++) assertTrue(limiter.tryAcquire(AdmissionLimiter.Priority.INTERACTIVE));
+        for (int i = 0; i < 100; i++) {
+            limiter.release(Duration.ofMillis(5).toNanos(), true);
+            assertTrue(limiter.tryAcquire(AdmissionLimiter.Priority.INTERACTIVE));
+        }
+        double grown = limiter.getLimit();
+        assertTrue(grown > 10, "limit " + grown);
+
+        assertTrue(limiter.tryAcquire(AdmissionLimiter.Priority.INTERACTIVE));
+        limiter.release(Duration.ofSeconds(1).toNanos(), true);
+        double cut = limiter.getLimit();
+        assertEquals(grown * 0.9, cut, 1e-9);
+
+        // A second slow ack within the same interval does not cut again
+        assertTrue(limiter.tryAcquire(AdmissionLimiter.Priority.INTERACTIVE));
+        limiter.release(Duration.ofSeconds(1).toNanos(), false);
+        assertEquals(cut, limiter.getLimit(), 1e-9);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.orderservice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import(AdmissionLimiter.class)
+@WebMvcTest(value = BulkOrderController.class, properties = {"orders.bulk.batch-size=2", "orders.bulk.max-line-chars=100"})
+class BulkOrderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public OrderProducer orderProducer() {
+            AtomicLong offsets = new AtomicLong();
+            return new OrderProducer(null) {
+                @Override
+                public CompletableFuture<OrderReceipt> sendOrder(Order order) {
+                    if ("fail".equals(order.getId())) {
+                        return CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"));
+                    }
+                    return CompletableFuture.completedFuture(new OrderReceipt(order.getId(), "orders", 0, offsets.getAndIncrement()));
+                }
+            };
+        }
+    }
+
+    @Test
+    void testBulkResultsAreStreamedPerLine() throws Exception {
+        String body = "{\"id\":\"1\",\"product\":\"Book\",\"quantity\":1}\n"
+                + "{\"id\":\"2\",\"product\":\"Pen\",\"quantity\":0}\n"
+                + "\n"
+                + "not json\n"
+                + "{\"id\":\"fail\",\"product\":\"Pen\",\"quantity\":1}\n"
+                + "{\"id\":\"5\",\"product\":\"Lamp\",\"quantity\":3}\n";
+
+        String response = mockMvc.perform(post("/orders:bulk")
+                .contentType(BulkOrderController.NDJSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = response.lines().toList();
+        assertEquals(6, lines.size());
+        BulkOrderController.LineResult first = KafkaSerdeUtil.fromJson(lines.get(0), BulkOrderController.LineResult.class);
+        assertEquals("ACCEPTED", first.getStatus());
+        assertEquals(0L, first.getOffset());
+        assertTrue(lines.get(1).contains("\"line\":2") && lines.get(1).contains("quantity must be positive"));
+        assertTrue(lines.get(2).contains("\"line\":4") && lines.get(2).contains("malformed JSON"));
+        assertTrue(lines.get(3).contains("\"orderId\":\"fail\"") && lines.get(3).contains("REJECTED"));
+        assertTrue(lines.get(4).contains("\"line\":6") && lines.get(4).contains("ACCEPTED"));
+        assertTrue(lines.get(5).contains("\"accepted\":2") && lines.get(5).contains("\"rejected\":3"));
+    }
+
+    @Test
+    void testOverlongLineIsRejectedAndReadingContinues() throws Exception {
+        String body = "{\"id\":\"1\",\"product\":\"Book\",\"quantity\":1}\r\n"
+                + "{\"id\":\"big\",\"product\":\"" + "x".repeat(50_000) + "\",\"quantity\":1}\n"
+                + "{\"id\":\"3\",\"product\":\"Pen\",\"quantity\":2}";
+
+        String response = mockMvc.perform(post("/orders:bulk")
+                .contentType(BulkOrderController.NDJSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = response.lines().toList();
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0).contains("\"line\":1") && lines.get(0).contains("ACCEPTED"));
+        assertTrue(lines.get(1).contains("\"line\":2") && lines.get(1).contains("longer than 100 characters"));
+        assertTrue(lines.get(2).contains("\"line\":3") && lines.get(2).contains("ACCEPTED"));
+        assertTrue(lines.get(3).contains("\"accepted\":2") && lines.get(3).contains("\"rejected\":1"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.orderservice;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotKeyDetectorTest {
+
+    private final long[] now = {0};
+
+    private HotKeyDetector detector(int topK) {
+        return new HotKeyDetector(1024, topK, 0.05, 100, 4, Duration.ofSeconds(10), () -> now[0]);
+    }
+
+    @Test
+    void dominantProductBecomesHotAndIsPublished() {
+        HotKeyDetector detector = detector(16);
+        List<HotKeyMapping> published = new ArrayList<>();
+        detector.setMappingListener(published::add);
+
+        for (int i = 0; i < 2000; i++) {
+            detector.record("sku-" + i);
+            if (i % 4 == 0) detector.record("flash-sale");
+        }
+
+        assertEquals(4, detector.splitFor("flash-sale"));
+        assertEquals(1, detector.splitFor("sku-7"));
+        assertEquals(1, published.size());
+        assertEquals(4, published.get(0).getSplits().get("flash-sale"));
+        assertEquals(1, published.get(0).getVersion());
+        assertTrue(detector.estimate("flash-sale") >= 500);
+    }
+
+    @Test
+    void hotProductCoolsDownAfterDecay() {
+        HotKeyDetector detector = detector(16);
+        for (int i = 0; i < 500; i++) {
+            detector.record("flash-sale");
+            detector.record("sku-" + i);
+        }
+        assertEquals(4, detector.splitFor("flash-sale"));
+
+        // The sale ends: several decay windows of regular traffic only
+        for (int window = 0; window < 6; window++) {
+            now[0] += Duration.ofSeconds(11).toNanos();
+            for (int i = 0; i < 1000; i++) detector.record("sku-" + window + "-" + i);
+        }
+
+        assertEquals(1, detector.splitFor("flash-sale"));
+        assertTrue(detector.getMapping().getSplits().isEmpty());
+        assertEquals(2, detector.getMapping().getVersion());
+    }
+
+    @Test
+    void hotSetIsBoundedByTopK() {
+        HotKeyDetector detector = detector(2);
+        for (int i = 0; i < 1000; i++) {
+            detector.record("a");
+            detector.record("b");
+            if (i >= 500) {
+                detector.record("c");
+                detector.record("c");
+                detector.record("c");
+            }
+        }
+
+        assertEquals(2, detector.getMapping().getSplits().size());
+        assertEquals(4, detector.splitFor("c"));
+    }
+}
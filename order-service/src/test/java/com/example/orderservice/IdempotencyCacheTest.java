@@ -0,0 +1,89 @@
+package com.example.orderservice;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyCacheTest {
+
+    private final AtomicInteger sends = new AtomicInteger();
+
+    private CompletableFuture<OrderReceipt> pendingSend(CompletableFuture<OrderReceipt> ack) {
+        sends.incrementAndGet();
+        return ack;
+    }
+
+    @Test
+    void inFlightDuplicatesCoalesceAndLaterRetriesHit() {
+        IdempotencyCache cache = new IdempotencyCache(Duration.ofMinutes(5), 100);
+        CompletableFuture<OrderReceipt> broker = new CompletableFuture<>();
+
+        IdempotencyCache.Lookup first = cache.lookup("k1", "o1|Pen|1", () -> pendingSend(broker));
+        IdempotencyCache.Lookup duplicate = cache.lookup("k1", "o1|Pen|1", () -> pendingSend(broker));
+        assertEquals(IdempotencyCache.Outcome.NEW, first.getOutcome());
+        assertEquals(IdempotencyCache.Outcome.COALESCED, duplicate.getOutcome());
+        assertSame(first.getFuture(), duplicate.getFuture());
+
+        broker.complete(new OrderReceipt("o1", "orders", 0, 9L));
+        IdempotencyCache.Lookup retry = cache.lookup("k1", "o1|Pen|1", () -> pendingSend(broker));
+        assertEquals(IdempotencyCache.Outcome.HIT, retry.getOutcome());
+        assertEquals(9L, retry.getFuture().join().getOffset());
+
+        assertEquals(1, sends.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getCoalesced());
+    }
+
+    @Test
+    void keyReusedForDifferentOrderConflicts() {
+        IdempotencyCache cache = new IdempotencyCache(Duration.ofMinutes(5), 100);
+        cache.lookup("k1", "o1|Pen|1", () -> pendingSend(new CompletableFuture<>()));
+        assertEquals(IdempotencyCache.Outcome.CONFLICT,
+                cache.lookup("k1", "o2|Pen|1", () -> pendingSend(new CompletableFuture<>())).getOutcome());
+        assertEquals(1, sends.get());
+    }
+
+    @Test
+    void failedSendIsForgottenSoRetryResends() {
+        IdempotencyCache cache = new IdempotencyCache(Duration.ofMinutes(5), 100);
+        cache.lookup("k1", "o1|Pen|1", () -> pendingSend(CompletableFuture.failedFuture(new IllegalStateException("down"))));
+        IdempotencyCache.Lookup retry = cache.lookup("k1", "o1|Pen|1",
+                () -> pendingSend(CompletableFuture.completedFuture(new OrderReceipt("o1", "orders", 0, 1L))));
+        assertEquals(IdempotencyCache.Outcome.NEW, retry.getOutcome());
+        assertEquals(2, sends.get());
+    }
+
+    // A broker outage: every retry fails, and the failed entries must not pile up in the eviction queue
+    @Test
+    void failedSendsDoNotGrowTheQueuePastCapacity() {
+        IdempotencyCache cache = new IdempotencyCache(Duration.ofHours(24), 10);
+        for (int i = 0; i < 1_000; i++) {
+            cache.lookup("k" + i, "f", () -> pendingSend(CompletableFuture.failedFuture(new IllegalStateException("down"))));
+            assertTrue(cache.queued() <= 10, "queued " + cache.queued());
+        }
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    void entriesExpireAndCapacityIsBounded() throws Exception {
+        IdempotencyCache expiring = new IdempotencyCache(Duration.ofMillis(20), 100);
+        expiring.lookup("k1", "f", () -> pendingSend(CompletableFuture.completedFuture(null)));
+        Thread.sleep(40);
+        assertEquals(IdempotencyCache.Outcome.NEW,
+                expiring.lookup("k1", "f", () -> pendingSend(CompletableFuture.completedFuture(null))).getOutcome());
+
+        IdempotencyCache bounded = new IdempotencyCache(Duration.ofMinutes(5), 10);
+        for (int i = 0; i < 50; i++) {
+            bounded.lookup("k" + i, "f", () -> pendingSend(CompletableFuture.completedFuture(null)));
+        }
+        assertTrue(bounded.size() <= 10, "size " + bounded.size());
+        assertEquals(40, bounded.getEvictions());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.orderservice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import({IdempotencyCache.class, AdmissionLimiter.class})
+@WebMvcTest(value = OrderController.class, properties = "orders.ack-mode=fire-and-forget")
+class OrderControllerFireAndForgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public OrderProducer orderProducer() {
+            return new OrderProducer(null) {
+                @Override
+                public CompletableFuture<OrderReceipt> sendOrder(Order order) {
+                    if ("fail".equals(order.getId())) {
+                        return CompletableFuture.failedFuture(new IllegalStateException("send timed out"));
+                    }
+                    // never acknowledged; fire-and-forget must not wait for it
+                    return new CompletableFuture<>();
+                }
+            };
+        }
+    }
+
+    @Test
+    void testPlaceOrderWithoutWaitingForAck() throws Exception {
+        String orderJson = "{\"id\":\"100\",\"product\":\"Book\",\"quantity\":1}";
+
+        MvcResult pending = mockMvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(orderJson))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Order placed and sent to Kafka topic."));
+    }
+
+    // A send that failed before returning is known to be lost, so it is not answered as placed
+    @Test
+    void testSendThatAlreadyFailedIsServiceUnavailable() throws Exception {
+        MvcResult pending = mockMvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":\"fail\",\"product\":\"Book\",\"quantity\":1}"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending)).andExpect(status().isServiceUnavailable());
+    }
+}
@@ -1,26 +1,34 @@
 package com.example.orderservice;
 
 import org.junit.jupiter.api.Test;
-import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 
+@Import({IdempotencyCache.class, AdmissionLimiter.class})
 @WebMvcTest(OrderController.class)
 class OrderControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
-    @Autowired
-    private OrderProducer orderProducer;
+    private static final AtomicInteger sends = new AtomicInteger();
 
     @TestConfiguration
     static class TestConfig {
@@ -28,8 +36,13 @@ class OrderControllerTest {
         public OrderProducer orderProducer() {
             return new OrderProducer(null) {
                 @Override
-                public void sendOrder(Order order) {
-                    // no-op for controller test stub
+                public CompletableFuture<OrderReceipt> sendOrder(Order order) {
+                    sends.incrementAndGet();
+                    // stub broker: "fail" is never acknowledged
+                    if ("fail".equals(order.getId())) {
+                        return CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"));
+                    }
+                    return CompletableFuture.completedFuture(new OrderReceipt(order.getId(), "orders", 2, 42L));
                 }
             };
         }
@@ -39,10 +52,58 @@ class OrderControllerTest {
     void testPlaceOrder() throws Exception {
         String orderJson = "{\"id\":\"100\",\"product\":\"Book\",\"quantity\":1}";
 
-        mockMvc.perform(post("/orders")
+        MvcResult pending = mockMvc.perform(post("/orders")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(orderJson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
                 .andExpect(status().isOk())
-                .andExpect(content().string("Order placed and sent to Kafka topic."));
+                .andExpect(jsonPath("$.orderId").value("100"))
+                .andExpect(jsonPath("$.topic").value("orders"))
+                .andExpect(jsonPath("$.partition").value(2))
+                .andExpect(jsonPath("$.offset").value(42));
+    }
+
+    @Test
+    void testPlaceOrderNotAcknowledged() throws Exception {
+        String orderJson = "{\"id\":\"fail\",\"product\":\"Book\",\"quantity\":1}";
+
+        MvcResult pending = mockMvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(orderJson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void testRetryWithIdempotencyKeyIsNotResent() throws Exception {
+        String orderJson = "{\"id\":\"200\",\"product\":\"Book\",\"quantity\":1}";
+        int before = sends.get();
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            MvcResult pending = mockMvc.perform(post("/orders")
+                    .header("Idempotency-Key", "key-200")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(orderJson))
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(pending))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Idempotent-Replayed", String.valueOf(attempt > 0)))
+                    .andExpect(jsonPath("$.orderId").value("200"));
+        }
+        assertEquals(before + 1, sends.get());
+
+        // Same key, different order
+        MvcResult conflict = mockMvc.perform(post("/orders")
+                .header("Idempotency-Key", "key-200")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":\"201\",\"product\":\"Book\",\"quantity\":1}"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(conflict)).andExpect(status().isUnprocessableEntity());
     }
 }
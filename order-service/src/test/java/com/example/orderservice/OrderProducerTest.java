@@ -1,8 +1,12 @@
 package com.example.orderservice;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CompletableFuture;
+
 class OrderProducerTest {
 
     @Test
@@ -11,8 +15,9 @@ class OrderProducerTest {
         final boolean[] sendCalled = {false};
         OrderSender sender = new OrderSender() {
             @Override
-            public void send(String topic, String key, OrderEvent orderEvent) {
+            public CompletableFuture<OrderReceipt> send(String topic, String key, OrderEvent orderEvent) {
                 sendCalled[0] = true;
+                return CompletableFuture.completedFuture(new OrderReceipt(key, topic, 0, 7L));
             }
         };
         OrderProducer orderProducer = new OrderProducer(sender);
@@ -20,9 +25,28 @@ class OrderProducerTest {
         Order order = new Order("id5", "Pen", 5);
 
         // Act
-        orderProducer.sendOrder(order);
+        OrderReceipt receipt = orderProducer.sendOrder(order).join();
 
         // Assert
         assertTrue(sendCalled[0], "KafkaTemplate.send should have been called");
+        assertEquals("orders", receipt.getTopic());
+        assertEquals("id5", receipt.getOrderId());
+        assertEquals(7L, receipt.getOffset());
+    }
+
+    @Test
+    void testAcknowledgedOrdersBecomeQueryable() {
+        OrderService orderService = new OrderService();
+        OrderProducer orderProducer = new OrderProducer((topic, key, event) -> "lost".equals(key)
+                ? CompletableFuture.failedFuture(new IllegalStateException("broker down"))
+                : CompletableFuture.completedFuture(new OrderReceipt(key, topic, 0, 1L)));
+        orderProducer.setOrderService(orderService);
+
+        orderProducer.sendOrder(new Order("kept", "Pen", 1)).join();
+        orderProducer.sendOrder(new Order("lost", "Pen", 1));
+
+        assertEquals(OrderService.Status.PENDING, orderService.getOrderRecord("kept").getStatus());
+        assertNull(orderService.getOrderRecord("lost"));
+        assertEquals(1, orderService.findByProduct("Pen", null, null, 10).getOrders().size());
     }
 }
@@ -0,0 +1,57 @@
+package com.example.orderservice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(OrderQueryController.class)
+class OrderQueryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public OrderService orderService() {
+            OrderService svc = new OrderService();
+            svc.setProductStock("Book", 10);
+            svc.setProductStock("Pen", 10);
+            svc.placeOrder("a", "Book", 1);
+            svc.placeOrder("b", "Book", 1);
+            svc.placeOrder("c", "Pen", 1);
+            svc.updateStatus("b", OrderService.Status.SHIPPED);
+            return svc;
+        }
+    }
+
+    @Test
+    void testPendingOrdersForProduct() throws Exception {
+        mockMvc.perform(get("/orders").param("product", "Book").param("status", "PENDING"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(1))
+                .andExpect(jsonPath("$.orders[0].order.id").value("a"));
+    }
+
+    @Test
+    void testPagination() throws Exception {
+        mockMvc.perform(get("/orders").param("status", "PENDING").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[0].order.id").value("a"))
+                .andExpect(jsonPath("$.nextCursor").value("a"));
+        mockMvc.perform(get("/orders").param("status", "PENDING").param("cursor", "a"))
+                .andExpect(jsonPath("$.orders[0].order.id").value("c"));
+    }
+
+    @Test
+    void testQueryWithoutCriteriaIsRejected() throws Exception {
+        mockMvc.perform(get("/orders")).andExpect(status().isBadRequest());
+    }
+}
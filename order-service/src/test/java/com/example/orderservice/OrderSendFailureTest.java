@@ -0,0 +1,83 @@
+package com.example.orderservice;
+
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// KafkaTemplate.send throws when metadata or buffer space does not arrive within max.block.ms
+@Import({IdempotencyCache.class, AdmissionLimiter.class})
+@WebMvcTest(value = {OrderController.class, BulkOrderController.class})
+class OrderSendFailureTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public OrderProducer orderProducer() {
+            KafkaTemplate<String, OrderEvent> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(Map.of())) {
+                @Override
+                public CompletableFuture<SendResult<String, OrderEvent>> send(String topic, String key, OrderEvent data) {
+                    throw new TimeoutException("Topic " + topic + " not present in metadata after 60000 ms.");
+                }
+            };
+            return new OrderProducer(new KafkaOrderSender(template));
+        }
+    }
+
+    @Test
+    void blockedSendIsAServiceUnavailableWithOrWithoutAnIdempotencyKey() throws Exception {
+        String orderJson = "{\"id\":\"1\",\"product\":\"Book\",\"quantity\":1}";
+
+        MvcResult pending = mockMvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(orderJson))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending)).andExpect(status().isServiceUnavailable());
+
+        pending = mockMvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(OrderController.IDEMPOTENCY_KEY, "k-1")
+                .content(orderJson))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending)).andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void blockedSendRejectsBulkLinesWithoutCuttingTheStream() throws Exception {
+        String body = "{\"id\":\"1\",\"product\":\"Book\",\"quantity\":1}\n"
+                + "{\"id\":\"2\",\"product\":\"Pen\",\"quantity\":2}\n";
+
+        String response = mockMvc.perform(post("/orders:bulk")
+                .contentType(BulkOrderController.NDJSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = response.lines().toList();
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("REJECTED") && lines.get(1).contains("REJECTED"));
+        assertTrue(lines.get(2).contains("\"accepted\":0") && lines.get(2).contains("\"rejected\":2"));
+    }
+}
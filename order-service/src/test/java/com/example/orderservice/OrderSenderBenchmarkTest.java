@@ -0,0 +1,153 @@
+package com.example.orderservice;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MemoryRecordsBuilder;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sweeps compression codecs, load levels and ack modes for the order producer path. Not part of the regular build:
+ * mvn test -Dtest=OrderSenderBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderSenderBenchmarkTest {
+
+    private static final String[] PRODUCTS = {"Book", "Pen", "Lamp", "Desk", "Chair", "Mug"};
+
+    // Bytes per order and encode cost for each codec, over the record batches the producer would build
+    @Test
+    void codecSweep() {
+        try (StringSerializer keys = new StringSerializer(); JsonSerializer<OrderEvent> values = new JsonSerializer<>()) {
+            System.out.printf("%-7s %6s %12s %12s%n", "codec", "batch", "bytes/order", "us/batch");
+            for (CompressionType codec : CompressionType.values()) {
+                for (int batch : new int[] {1, 10, 100, 1000}) {
+                    int rounds = Math.max(20, 20_000 / batch);
+                    long bytes = 0, nanos = 0;
+                    for (int r = 0; r < rounds; r++) {
+                        long start = System.nanoTime();
+                        MemoryRecordsBuilder builder = MemoryRecords.builder(ByteBuffer.allocate(1 << 20), codec, TimestampType.CREATE_TIME, 0L);
+                        for (int i = 0; i < batch; i++) {
+                            String id = "ORD-" + r + "-" + i;
+                            OrderEvent e = new OrderEvent(id, PRODUCTS[i % PRODUCTS.length], 1 + i % 5, "C" + (i % 50), Instant.now());
+                            builder.append(System.currentTimeMillis(), keys.serialize("orders", id), values.serialize("orders", e));
+                        }
+                        bytes += builder.build().sizeInBytes();
+                        nanos += System.nanoTime() - start;
+                    }
+                    System.out.printf("%-7s %6d %12.1f %12.1f%n", codec.name, batch,
+                            (double) bytes / ((long) rounds * batch), nanos / 1_000.0 / rounds);
+                }
+            }
+        }
+    }
+
+    // Batch size and ack latency of the adaptive sender at increasing offered load, broker round trip ~2 ms
+    @Test
+    void loadSweep() throws Exception {
+        System.out.printf("%10s %10s %10s %10s%n", "orders/s", "avgBatch", "p50 us", "p99 us");
+        for (int rate : new int[] {100, 1_000, 10_000, 50_000}) {
+            AtomicLong offsets = new AtomicLong();
+            OrderSender broker = (topic, key, event) ->
+                    CompletableFuture.completedFuture(new OrderReceipt(key, topic, 0, offsets.getAndIncrement()));
+            Runnable roundTrip = () -> {
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+            int total = Math.max(200, rate / 2);
+            long[] latencies = new long[total];
+            List<CompletableFuture<?>> acks = new ArrayList<>(total);
+            try (AdaptiveBatchingOrderSender sender = new AdaptiveBatchingOrderSender(broker, roundTrip, Duration.ofMillis(20), 1000, 100_000, 1000)) {
+                long intervalNanos = 1_000_000_000L / rate;
+                long next = System.nanoTime();
+                for (int i = 0; i < total; i++) {
+                    while (System.nanoTime() < next) Thread.onSpinWait();
+                    int n = i;
+                    long start = System.nanoTime();
+                    acks.add(sender.send("orders", "K" + i, new OrderEvent("K" + i, "Pen", 1, null, Instant.now()))
+                            .thenRun(() -> latencies[n] = System.nanoTime() - start));
+                    next += intervalNanos;
+                }
+                CompletableFuture.allOf(acks.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+                Arrays.sort(latencies);
+                System.out.printf("%10d %10.1f %10d %10d%n", rate, sender.getAverageBatchSize(),
+                        latencies[total / 2] / 1_000, latencies[(int) (total * 0.99)] / 1_000);
+            }
+        }
+    }
+
+    // Response latency of POST /orders in each ack mode: fire-and-forget answers once KafkaOrderSender.send
+    // returns, acked once the broker acks. The broker is a MockProducer that acks every ~2 ms.
+    @Test
+    void ackModeLatency() throws Exception {
+        // KafkaTemplate closes the producer after each send, as it does for a cached one from a real factory
+        MockProducer<String, OrderEvent> producer = new MockProducer<>(false, new StringSerializer(), new JsonSerializer<>()) {
+            @Override
+            public void close() { }
+
+            @Override
+            public void close(Duration timeout) { }
+        };
+        KafkaOrderSender sender = new KafkaOrderSender(new KafkaTemplate<>(new MockProducerFactory<>(() -> producer)));
+        Thread broker = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (producer.completeNext()) { }
+            }
+        }, "mock-broker");
+        broker.setDaemon(true);
+        broker.start();
+        try {
+            System.out.printf("%10s %16s %12s %12s%n", "orders/s", "mode", "p50 us", "p99 us");
+            for (int rate : new int[] {100, 1_000, 10_000}) {
+                int total = Math.max(200, rate / 2);
+                long[] returned = new long[total];
+                long[] acked = new long[total];
+                List<CompletableFuture<?>> acks = new ArrayList<>(total);
+                long intervalNanos = 1_000_000_000L / rate;
+                long next = System.nanoTime();
+                for (int i = 0; i < total; i++) {
+                    while (System.nanoTime() < next) Thread.onSpinWait();
+                    int n = i;
+                    long start = System.nanoTime();
+                    CompletableFuture<OrderReceipt> ack = sender.send("orders", "K" + i, new OrderEvent("K" + i, "Pen", 1, null, Instant.now()));
+                    returned[n] = System.nanoTime() - start;
+                    acks.add(ack.thenRun(() -> acked[n] = System.nanoTime() - start));
+                    next += intervalNanos;
+                }
+                CompletableFuture.allOf(acks.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+                Arrays.sort(returned);
+                Arrays.sort(acked);
+                System.out.printf("%10d %16s %12d %12d%n", rate, OrderController.FIRE_AND_FORGET,
+                        returned[total / 2] / 1_000, returned[(int) (total * 0.99)] / 1_000);
+                System.out.printf("%10d %16s %12d %12d%n", rate, "acked",
+                        acked[total / 2] / 1_000, acked[(int) (total * 0.99)] / 1_000);
+            }
+        } finally {
+            broker.interrupt();
+        }
+    }
+}
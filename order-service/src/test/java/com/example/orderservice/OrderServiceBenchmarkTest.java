@@ -0,0 +1,48 @@
+package com.example.orderservice;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Instant;
+
+/**
+ * Write cost of OrderService with its secondary indexes, and the cost of the indexed queries.
+ * Not part of the regular build: mvn test -Dtest=OrderServiceBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderServiceBenchmarkTest {
+
+    private static final int ORDERS = 200_000;
+    private static final int PRODUCTS = 100;
+
+    @Test
+    void indexMaintenancePerWrite() {
+        for (int round = 0; round < 3; round++) { // first rounds warm up the JIT
+            OrderService svc = new OrderService();
+            for (int p = 0; p < PRODUCTS; p++) svc.setProductStock("P" + p, Integer.MAX_VALUE);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < ORDERS; i++) svc.placeOrder("O" + i, "P" + (i % PRODUCTS), 1);
+            long placeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ORDERS; i += 2) svc.updateStatus("O" + i, OrderService.Status.SHIPPED);
+            long updateNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int found = 0;
+            for (int p = 0; p < PRODUCTS; p++) {
+                found += svc.findByProduct("P" + p, OrderService.Status.PENDING, null, 50).getOrders().size();
+            }
+            long queryNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int recent = svc.findCreatedBetween(Instant.now().minusSeconds(3600), Instant.now(), null, 1000).getOrders().size();
+            long timeQueryNanos = System.nanoTime() - start;
+
+            System.out.printf("round %d: place %.0f ns/op, status change %.0f ns/op, product+status page %.1f us, time page %.1f us (%d/%d rows)%n",
+                    round, (double) placeNanos / ORDERS, (double) updateNanos / (ORDERS / 2),
+                    queryNanos / 1_000.0 / PRODUCTS, timeQueryNanos / 1_000.0, found, recent);
+        }
+    }
+}
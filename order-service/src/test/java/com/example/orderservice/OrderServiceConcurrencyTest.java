@@ -0,0 +1,103 @@
+package com.example.orderservice;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Multi-threaded stress tests: all threads start together on a latch to maximise interleavings.
+ */
+class OrderServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    private static void runConcurrently(int threads, ThrowingTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+    }
+
+    interface ThrowingTask {
+        void run(int thread) throws Exception;
+    }
+
+    @RepeatedTest(5)
+    void concurrentPlacementsNeverOversell() throws Exception {
+        OrderService svc = new OrderService();
+        svc.setProductStock("hot", 1000);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger unitsSold = new AtomicInteger();
+
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < 200; i++) {
+                int qty = 1 + (i % 3);
+                if (svc.placeOrder("o-" + thread + "-" + i, "hot", qty)) {
+                    placed.incrementAndGet();
+                    unitsSold.addAndGet(qty);
+                }
+            }
+        });
+
+        int remaining = svc.getInventory().get("hot");
+        assertTrue(remaining >= 0, "stock went negative: " + remaining);
+        assertEquals(1000, unitsSold.get() + remaining);
+        assertTrue(remaining < 3, "orders were rejected while stock remained: " + remaining);
+    }
+
+    @Test
+    void concurrentCancelsRestoreStockOnce() throws Exception {
+        OrderService svc = new OrderService();
+        svc.setProductStock("p", 10);
+        assertTrue(svc.placeOrder("c1", "p", 4));
+        AtomicInteger cancelled = new AtomicInteger();
+
+        runConcurrently(THREADS, thread -> {
+            if (svc.cancelOrder("c1")) cancelled.incrementAndGet();
+            svc.updateStatus("c1", OrderService.Status.SHIPPED);
+        });
+
+        assertEquals(1, cancelled.get());
+        assertEquals(10, svc.getInventory().get("p"));
+        assertEquals(OrderService.Status.CANCELLED, svc.getOrderRecord("c1").getStatus());
+    }
+
+    @Test
+    void duplicateIdRaceKeepsStockConsistent() throws Exception {
+        OrderService svc = new OrderService();
+        svc.setProductStock("p", 100);
+        AtomicInteger winners = new AtomicInteger();
+
+        runConcurrently(THREADS, thread -> {
+            try {
+                if (svc.placeOrder("same", "p", 5)) winners.incrementAndGet();
+            } catch (IllegalStateException duplicate) {
+                // expected for all but one thread
+            }
+        });
+
+        assertEquals(1, winners.get());
+        assertEquals(95, svc.getInventory().get("p"));
+    }
+}
@@ -2,6 +2,13 @@ package com.example.orderservice;
 
 import org.junit.jupiter.api.*;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class OrderServiceTest {
@@ -91,6 +98,17 @@ class OrderServiceTest {
         assertNull(svc.getOrderRecord("oNEWW"));
     }
 
+    @Test
+    void recordedOrdersAreIndexedWithoutTouchingStock() {
+        assertTrue(svc.recordOrder(new Order("rec1", "unstocked", 3)));
+        assertFalse(svc.recordOrder(new Order("rec1", "unstocked", 3)));
+        assertEquals(OrderService.Status.PENDING, svc.getOrderRecord("rec1").getStatus());
+        assertEquals(1, svc.findByProduct("unstocked", OrderService.Status.PENDING, null, 10).getOrders().size());
+        assertTrue(svc.updateStatus("rec1", OrderService.Status.SHIPPED));
+        assertEquals(1, svc.findByStatus(OrderService.Status.SHIPPED, null, 10).getOrders().size());
+        assertTrue(svc.findByStatus(OrderService.Status.PENDING, null, 10).getOrders().isEmpty());
+    }
+
     @Test
     void fullStatusLifecycle() {
         svc.placeOrder("ordcycle", "p1", 2);
@@ -217,4 +235,85 @@ class OrderServiceTest {
         svc.cancelOrder("zerord1");
         assertTrue(svc.placeOrder("zerord3", "TOZERO", 1));
     }
+
+    @Test
+    void findByStatusFollowsStatusChanges() {
+        svc.placeOrder("s1", "p1", 1);
+        svc.placeOrder("s2", "p1", 1);
+        svc.placeOrder("s3", "p2", 1);
+        svc.updateStatus("s2", OrderService.Status.SHIPPED);
+        svc.cancelOrder("s3");
+
+        assertEquals(List.of("s1"), ids(svc.findByStatus(OrderService.Status.PENDING, null, 10)));
+        assertEquals(List.of("s2"), ids(svc.findByStatus(OrderService.Status.SHIPPED, null, 10)));
+        assertEquals(List.of("s3"), ids(svc.findByStatus(OrderService.Status.CANCELLED, null, 10)));
+    }
+
+    @Test
+    void findByProductAndStatusIsPaginated() {
+        svc.setProductStock("px", 100);
+        for (int i = 0; i < 5; i++) svc.placeOrder("px" + i, "px", 1);
+        svc.updateStatus("px2", OrderService.Status.SHIPPED);
+
+        OrderService.OrderPage first = svc.findByProduct("px", OrderService.Status.PENDING, null, 2);
+        assertEquals(List.of("px0", "px1"), ids(first));
+        OrderService.OrderPage second = svc.findByProduct("px", OrderService.Status.PENDING, first.getNextCursor(), 2);
+        assertEquals(List.of("px3", "px4"), ids(second));
+        assertNull(second.getNextCursor());
+        assertTrue(svc.findByProduct("unknown", null, null, 10).getOrders().isEmpty());
+    }
+
+    @Test
+    void findCreatedBetweenUsesTimeIndex() {
+        Instant t0 = Instant.parse("2024-05-01T10:00:00Z");
+        Instant[] now = {t0};
+        OrderService timed = new OrderService(new Clock() {
+            @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+            @Override public Clock withZone(ZoneId zone) { return this; }
+            @Override public Instant instant() { return now[0]; }
+        });
+        timed.setProductStock("p", 10);
+        for (int i = 0; i < 4; i++) {
+            now[0] = t0.plusSeconds(60L * i);
+            timed.placeOrder("t" + i, "p", 1);
+        }
+
+        OrderService.OrderPage page = timed.findCreatedBetween(t0.plusSeconds(60), t0.plusSeconds(240), null, 2);
+        assertEquals(List.of("t1", "t2"), ids(page));
+        assertEquals(List.of("t3"), ids(timed.findCreatedBetween(t0.plusSeconds(60), t0.plusSeconds(240), page.getNextCursor(), 2)));
+    }
+
+    // Oldest orders leave the map and every index, by age and by count
+    @Test
+    void retentionEvictsOldestOrdersFromEveryIndex() {
+        Instant t0 = Instant.parse("2024-05-01T10:00:00Z");
+        Instant[] now = {t0};
+        OrderService bounded = new OrderService(Duration.ofMinutes(10), 3, new Clock() {
+            @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+            @Override public Clock withZone(ZoneId zone) { return this; }
+            @Override public Instant instant() { return now[0]; }
+        });
+        for (int i = 0; i < 5; i++) {
+            now[0] = t0.plusSeconds(60L * i);
+            assertTrue(bounded.recordOrder(new Order("r" + i, "p", 1)));
+        }
+        bounded.updateStatus("r0", OrderService.Status.SHIPPED);
+
+        assertEquals(3, bounded.size());
+        assertEquals(2, bounded.getEvictions());
+        assertNull(bounded.getOrderRecord("r1"));
+        assertEquals(List.of("r2", "r3", "r4"), ids(bounded.findByProduct("p", null, null, 10)));
+        assertEquals(List.of("r2", "r3", "r4"), ids(bounded.findByStatus(OrderService.Status.PENDING, null, 10)));
+        assertTrue(bounded.findByStatus(OrderService.Status.SHIPPED, null, 10).getOrders().isEmpty());
+
+        now[0] = t0.plusSeconds(60L * 13);
+        assertTrue(bounded.recordOrder(new Order("r5", "p", 1)));
+        assertEquals(List.of("r4", "r5"), ids(bounded.findCreatedBetween(t0, now[0].plusSeconds(1), null, 10)));
+        assertEquals(List.of("r4", "r5"), ids(bounded.findByProduct("p", OrderService.Status.PENDING, null, 10)));
+        assertEquals(2, bounded.size());
+    }
+
+    private static List<String> ids(OrderService.OrderPage page) {
+        return page.getOrders().stream().map(r -> r.getOrder().getId()).toList();
+    }
 }
@@ -0,0 +1,100 @@
+package com.example.orderservice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import(OrderStatusProjection.class)
+@WebMvcTest(value = OrderStatusController.class, properties = "orders.status-view.enabled=true")
+class OrderStatusProjectionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderStatusProjection statusView;
+
+    @Test
+    void latestStatusWinsAndUnknownOrdersAreMissing() {
+        OrderStatusProjection view = new OrderStatusProjection(100);
+        Instant t0 = Instant.parse("2024-06-01T12:00:00Z");
+        view.update("o-1", FulfillmentStatus.NEW, t0);
+        view.update("o-1", FulfillmentStatus.SHIPPED, t0.plusSeconds(5));
+
+        assertEquals(FulfillmentStatus.SHIPPED, view.get("o-1").getStatus());
+        assertEquals(t0.plusSeconds(5), view.get("o-1").getUpdatedAt());
+        assertNull(view.get("o-2"));
+        assertEquals(1, view.size());
+    }
+
+    // Fulfillment events move the recorded orders through the statuses the GET /orders queries filter on
+    @Test
+    void fulfillmentEventsUpdateTheQueryStatus() {
+        OrderStatusProjection view = new OrderStatusProjection(100);
+        OrderService orderService = new OrderService();
+        view.setOrderService(orderService);
+        orderService.recordOrder(new Order("o-1", "Pen", 1));
+        orderService.recordOrder(new Order("o-2", "Pen", 1));
+
+        view.onFulfillmentEvent("{\"orderId\":\"o-1\",\"status\":\"ALLOCATED\"}");
+        view.onFulfillmentEvent("{\"orderId\":\"o-2\",\"status\":\"SHIPPED\"}");
+        view.onFulfillmentEvent("{\"orderId\":\"o-1\",\"status\":\"COMPENSATED\"}");
+        view.onFulfillmentEvent("{\"orderId\":\"unknown\",\"status\":\"SHIPPED\"}");
+
+        assertEquals(OrderService.Status.CANCELLED, orderService.getOrderRecord("o-1").getStatus());
+        assertEquals(1, orderService.findByStatus(OrderService.Status.SHIPPED, null, 10).getOrders().size());
+        assertEquals(0, orderService.findByProduct("Pen", OrderService.Status.PENDING, null, 10).getOrders().size());
+    }
+
+    @Test
+    void evictionKeepsTheTableBoundedAndConsistent() {
+        OrderStatusProjection view = new OrderStatusProjection(1000);
+        Map<String, FulfillmentStatus> expected = new HashMap<>();
+        FulfillmentStatus[] statuses = FulfillmentStatus.values();
+        for (int i = 0; i < 20_000; i++) {
+            String id = "o-" + (i % 5000);
+            FulfillmentStatus s = statuses[i % statuses.length];
+            view.update(id, s, Instant.now());
+            expected.put(id, s);
+            if (i % 7 == 0) view.get("o-1"); // read often, so it survives the sweeps
+        }
+
+        assertEquals(1000, view.size());
+        int found = 0;
+        for (Map.Entry<String, FulfillmentStatus> e : expected.entrySet()) {
+            OrderStatusProjection.StatusView v = view.get(e.getKey());
+            if (v == null) continue;
+            found++;
+            assertEquals(e.getValue(), v.getStatus(), e.getKey());
+        }
+        assertEquals(view.size(), found);
+        assertNotNull(view.get("o-1"));
+    }
+
+    @Test
+    void fulfillmentEventsAreProjectedAndServed() throws Exception {
+        statusView.onFulfillmentEvent("{\"eventId\":\"e1\",\"orderId\":\"o-9\",\"status\":\"ALLOCATED\"," +
+                "\"type\":\"AllocationSucceeded\",\"timestamp\":\"2024-06-01T12:00:00Z\"}");
+        statusView.onFulfillmentEvent("{\"orderId\":\"o-9\",\"status\":\"SOME_FUTURE_STATUS\"}");
+        statusView.onFulfillmentEvent("not json");
+
+        mockMvc.perform(get("/orders/o-9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ALLOCATED"))
+                .andExpect(jsonPath("$.updatedAt").value("2024-06-01T12:00:00Z"));
+        mockMvc.perform(get("/orders/unknown")).andExpect(status().isNotFound());
+    }
+}
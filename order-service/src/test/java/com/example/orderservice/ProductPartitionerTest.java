@@ -0,0 +1,66 @@
+package com.example.orderservice;
+
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductPartitionerTest {
+
+    private static final int PARTITIONS = 12;
+
+    private static Cluster cluster() {
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> partitions = new ArrayList<>();
+        for (int p = 0; p < PARTITIONS; p++) partitions.add(new PartitionInfo("orders", p, node, new Node[]{node}, new Node[]{node}));
+        return new Cluster("test", List.of(node), partitions, Collections.emptySet(), Collections.emptySet());
+    }
+
+    private static int partition(ProductPartitioner partitioner, String orderId, String product) {
+        OrderEvent event = new OrderEvent(orderId, product, 1, null, Instant.now());
+        return partitioner.partition("orders", orderId, orderId.getBytes(), event, null, cluster());
+    }
+
+    @Test
+    void ordersOfAProductShareOnePartition() {
+        ProductPartitioner partitioner = new ProductPartitioner();
+        partitioner.configure(Map.of());
+
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 100; i++) used.add(partition(partitioner, "o-" + i, "pen"));
+
+        assertEquals(Set.of(ProductPartitioner.homePartition("pen", PARTITIONS)), used);
+    }
+
+    @Test
+    void hotProductIsSpreadOverItsPublishedSubPartitions() {
+        HotKeyDetector detector = new HotKeyDetector(1024, 16, 0.05, 100, 4, Duration.ofSeconds(10), System::nanoTime);
+        for (int i = 0; i < 1000; i++) detector.record("flash-sale");
+        ProductPartitioner partitioner = new ProductPartitioner();
+        partitioner.configure(Map.of(ProductPartitioner.HOT_KEY_DETECTOR_CONFIG, detector));
+
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 200; i++) used.add(partition(partitioner, "o-" + i, "flash-sale"));
+        Set<Integer> published = new HashSet<>();
+        int split = detector.getMapping().getSplits().get("flash-sale");
+        for (int p : ProductPartitioner.partitionsFor("flash-sale", split, PARTITIONS)) published.add(p);
+
+        assertEquals(4, used.size());
+        assertEquals(published, used);
+        // A retried order goes to the same partition
+        assertEquals(partition(partitioner, "o-1", "flash-sale"), partition(partitioner, "o-1", "flash-sale"));
+        assertTrue(used.contains(ProductPartitioner.homePartition("flash-sale", PARTITIONS)));
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.orderservice;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpoolingOrderSenderTest {
+
+    @TempDir
+    Path dir;
+
+    // Stub broker: records what it accepted, fails every send while down
+    private static class FlakyBroker implements OrderSender {
+        volatile boolean up;
+        final List<String> written = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public CompletableFuture<OrderReceipt> send(String topic, String key, OrderEvent orderEvent) {
+            if (!up) return CompletableFuture.failedFuture(new IllegalStateException("broker down"));
+            written.add(key);
+            return CompletableFuture.completedFuture(new OrderReceipt(key, topic, 0, written.size()));
+        }
+    }
+
+    private static OrderEvent event(String id) {
+        return new OrderEvent(id, "pen", 1, null, Instant.now());
+    }
+
+    private SpoolingOrderSender sender(OrderSender delegate) {
+        return new SpoolingOrderSender(delegate, new OrderSpool(dir.resolve("orders.spool"), 1 << 20),
+                Duration.ofMillis(500), 100, Duration.ofSeconds(5), Duration.ofMillis(20));
+    }
+
+    private static void awaitTrue(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) Thread.sleep(10);
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    void ordersAreSpooledDuringAnOutageAndDrainedInOrder() throws Exception {
+        FlakyBroker broker = new FlakyBroker();
+        broker.up = true;
+        try (SpoolingOrderSender sender = sender(broker)) {
+            assertEquals(0, sender.send("orders", "o-0", event("o-0")).join().getPartition());
+
+            broker.up = false;
+            for (int i = 1; i <= 50; i++) {
+                OrderReceipt receipt = sender.send("orders", "o-" + i, event("o-" + i)).join();
+                assertEquals(SpoolingOrderSender.SPOOLED_PARTITION, receipt.getPartition());
+            }
+            assertTrue(sender.isDegraded());
+            assertEquals(1, broker.written.size());
+
+            broker.up = true;
+            awaitTrue(() -> !sender.isDegraded());
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i <= 50; i++) expected.add("o-" + i);
+            assertEquals(expected, broker.written);
+            assertEquals(50, sender.getDrainedCount());
+
+            assertEquals(0, sender.send("orders", "o-51", event("o-51")).join().getPartition());
+        }
+    }
+
+    @Test
+    void spooledOrdersSurviveARestart() throws Exception {
+        FlakyBroker down = new FlakyBroker();
+        try (SpoolingOrderSender sender = sender(down)) {
+            for (int i = 0; i < 10; i++) sender.send("orders", "o-" + i, event("o-" + i)).join();
+        }
+
+        FlakyBroker up = new FlakyBroker();
+        up.up = true;
+        try (SpoolingOrderSender restarted = sender(up)) {
+            awaitTrue(() -> up.written.size() == 10);
+            awaitTrue(() -> !restarted.isDegraded());
+            assertEquals("o-0", up.written.get(0));
+            assertEquals("o-9", up.written.get(9));
+        }
+        try (OrderSpool spool = new OrderSpool(dir.resolve("orders.spool"), 1 << 20)) {
+            assertTrue(spool.isEmpty());
+        }
+    }
+
+    @Test
+    void stoppedBrokerDoesNotBlockOrFailRequests() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:1"); // nothing listens here
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 300);
+        DefaultKafkaProducerFactory<String, OrderEvent> factory = new DefaultKafkaProducerFactory<>(config);
+        KafkaTemplate<String, OrderEvent> template = new KafkaTemplate<>(factory);
+        try (AdaptiveBatchingOrderSender batching = new AdaptiveBatchingOrderSender(new KafkaOrderSender(template),
+                     template::flush, Duration.ofMillis(5), 100, 1000, 100);
+             SpoolingOrderSender sender = sender(batching)) {
+            long start = System.nanoTime();
+            List<CompletableFuture<OrderReceipt>> acks = new ArrayList<>();
+            for (int i = 0; i < 20; i++) acks.add(sender.send("orders", "o-" + i, event("o-" + i)));
+            long submitMillis = (System.nanoTime() - start) / 1_000_000;
+            for (CompletableFuture<OrderReceipt> ack : acks) {
+                assertEquals(SpoolingOrderSender.SPOOLED_PARTITION, ack.join().getPartition());
+            }
+            assertTrue(submitMillis < 500, "request threads blocked for " + submitMillis + " ms");
+            assertTrue(sender.isDegraded());
+            assertFalse(sender.getSpooledCount() < 20);
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    // A crash after the rewind, part-way into the first append, must not bring back the old run's record
+    @Test
+    void rewindDoesNotResurrectAStaleRecord() throws Exception {
+        Path file = dir.resolve("orders.spool");
+        try (OrderSpool spool = new OrderSpool(file, 1 << 20)) {
+            long end = spool.append("orders", "old", event("old"));
+            spool.commitDrain(end);
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(4);
+            int epoch = raw.readInt();
+            raw.seek(16 + 4);
+            raw.writeInt(epoch);
+        }
+        try (OrderSpool reopened = new OrderSpool(file, 1 << 20)) {
+            assertTrue(reopened.isEmpty());
+            assertTrue(reopened.read(10).isEmpty());
+        }
+    }
+
+    @Test
+    void unreadableSpoolRecordsAreSkipped() throws Exception {
+        Path file = dir.resolve("orders.spool");
+        int second;
+        try (OrderSpool spool = new OrderSpool(file, 1 << 20)) {
+            second = (int) spool.append("orders", "o-0", event("o-0"));
+            spool.append("orders", "o-1", event("o-1"));
+            spool.append("orders", "o-2", event("o-2"));
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            // The topic's length prefix now points past the end of the record
+            raw.seek(second + 8);
+            raw.writeInt(1 << 20);
+        }
+
+        FlakyBroker broker = new FlakyBroker();
+        broker.up = true;
+        try (SpoolingOrderSender sender = sender(broker)) {
+            awaitTrue(() -> !sender.isDegraded());
+            assertEquals(List.of("o-0", "o-2"), broker.written);
+            assertEquals(1, sender.getSkippedCount());
+            assertEquals(2, sender.getDrainedCount());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.orderservice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import({IdempotencyCache.class, AdmissionLimiter.class, StockAvailabilityCache.class})
+@WebMvcTest(value = OrderController.class, properties = "orders.stock-cache.enabled=true")
+class StockAvailabilityCacheTest {
+
+    private static final AtomicInteger sent = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StockAvailabilityCache stockCache;
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public OrderProducer orderProducer() {
+            return new OrderProducer(null) {
+                @Override
+                public CompletableFuture<OrderReceipt> sendOrder(Order order) {
+                    sent.incrementAndGet();
+                    return CompletableFuture.completedFuture(new OrderReceipt(order.getId(), "orders", 0, 1L));
+                }
+            };
+        }
+    }
+
+    private final Instant now = Instant.parse("2024-06-01T12:00:00Z");
+    private final StockAvailabilityCache cache =
+            new StockAvailabilityCache(Duration.ofSeconds(30), Clock.fixed(now, ZoneOffset.UTC));
+
+    @Test
+    void onlyFreshKnownShortagesAreRefused() {
+        cache.apply(new StockLevel("pen", 3, 1, now.toEpochMilli()));
+        cache.apply(new StockLevel("ink", 0, 1, now.minusSeconds(60).toEpochMilli()));
+
+        assertEquals(StockAvailabilityCache.Verdict.AVAILABLE, cache.check("pen", 3));
+        assertEquals(StockAvailabilityCache.Verdict.OUT_OF_STOCK, cache.check("pen", 4));
+        assertEquals(StockAvailabilityCache.Verdict.STALE, cache.check("ink", 1));
+        assertEquals(StockAvailabilityCache.Verdict.UNKNOWN, cache.check("paper", 1));
+        assertEquals(1, cache.getSagasAvoided());
+    }
+
+    // A sold-out product never changes again; the feed's periodic republish keeps the shortage authoritative
+    @Test
+    void republishedUnchangedLevelKeepsAShortageFresh() {
+        cache.apply(new StockLevel("ink", 0, 1, now.minusSeconds(60).toEpochMilli()));
+        assertEquals(StockAvailabilityCache.Verdict.STALE, cache.check("ink", 1));
+
+        cache.apply(new StockLevel("ink", 0, 2, now.minusSeconds(15).toEpochMilli()));
+        assertEquals(StockAvailabilityCache.Verdict.OUT_OF_STOCK, cache.check("ink", 1));
+    }
+
+    @Test
+    void olderVersionsAndTombstonesAreHandled() {
+        cache.apply(new StockLevel("pen", 5, 2, now.toEpochMilli()));
+        cache.onStockLevel("pen", "{\"productId\":\"pen\",\"stock\":0,\"version\":1,\"timestamp\":" + now.toEpochMilli() + "}");
+        assertEquals(5, cache.get("pen").getStock());
+
+        cache.onStockLevel("pen", "{\"productId\":\"pen\",\"stock\":0,\"version\":3,\"timestamp\":" + now.toEpochMilli() + "}");
+        assertEquals(StockAvailabilityCache.Verdict.OUT_OF_STOCK, cache.check("pen", 1));
+
+        cache.onStockLevel("pen", null);
+        assertEquals(StockAvailabilityCache.Verdict.UNKNOWN, cache.check("pen", 1));
+    }
+
+    @Test
+    void unreadableRecordsAreSkippedAndCounted() {
+        cache.onStockLevel("pen", "{\"productId\":\"pen\",\"stock\":2,\"version\":1,\"timestamp\":" + now.toEpochMilli() + "}");
+        cache.onStockLevel("pen", "not json");
+        cache.onStockLevel("pen", "null");
+        cache.onStockLevel(null, "{\"stock\":0,\"version\":9}");
+
+        assertEquals(3, cache.getUnreadable());
+        assertEquals(StockAvailabilityCache.Verdict.AVAILABLE, cache.check("pen", 2));
+    }
+
+    @Test
+    void outOfStockOrderIsRefusedWithoutSending() throws Exception {
+        stockCache.apply(new StockLevel("sold-out", 0, 1, System.currentTimeMillis()));
+        int before = sent.get();
+
+        MvcResult pending = mockMvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":\"s1\",\"product\":\"sold-out\",\"quantity\":1}"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending)).andExpect(status().isConflict());
+        assertEquals(before, sent.get());
+
+        pending = mockMvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":\"s2\",\"product\":\"unknown\",\"quantity\":1}"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending)).andExpect(status().isOk());
+        assertEquals(before + 1, sent.get());
+    }
+}